@@ -0,0 +1,72 @@
+package org.mystore.benchmark;
+
+import org.mystore.StoreApplication;
+import org.mystore.dto.BulkItemResult;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.mystore.service.ProductBulkService;
+import org.mystore.service.ProductCategoryService;
+import org.mystore.service.SubcategoryService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against its embedded H2 database and seeds a catalog of a given size.
+ */
+final class BenchmarkCatalog {
+
+    static final int SUBCATEGORIES = 20;
+
+    private BenchmarkCatalog() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "server.port=0",
+                "storeapp.outbox.sink=queue"));
+        all.addAll(List.of(properties));
+        return new SpringApplicationBuilder(StoreApplication.class)
+                .web(webApplicationType)
+                .properties(all.toArray(String[]::new))
+                .run();
+    }
+
+    /**
+     * Creates {@code catalogSize} products spread over {@link #SUBCATEGORIES} subcategories.
+     *
+     * @return the ids of the created products
+     */
+    static long[] seed(ConfigurableApplicationContext context, int catalogSize) {
+        ProductCategory category = context.getBean(ProductCategoryService.class)
+                .createProductCategory(new ProductCategory("Benchmark", "Benchmark category"));
+        SubcategoryService subcategoryService = context.getBean(SubcategoryService.class);
+        List<Subcategory> subcategories = new ArrayList<>();
+        for (int i = 0; i < SUBCATEGORIES; i++) {
+            subcategories.add(subcategoryService.createSubcategory(new Subcategory("Subcategory " + i, "", category)));
+        }
+
+        List<Product> products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            products.add(product(i, subcategories.get(i % SUBCATEGORIES)));
+        }
+        List<BulkItemResult> results = new ArrayList<>();
+        ProductBulkService bulkService = context.getBean(ProductBulkService.class);
+        for (int start = 0; start < products.size(); start += 5_000) {
+            results.addAll(bulkService.upsertProducts(products.subList(start, Math.min(start + 5_000, products.size()))));
+        }
+        return results.stream().mapToLong(BulkItemResult::id).toArray();
+    }
+
+    static Product product(int i, Subcategory subcategory) {
+        return new Product("Product " + i, "Description of benchmark product number " + i,
+                new BigDecimal(i % 1000 + ".99"), 100 + i % 50, "BENCH-" + i, i % 10 != 0, subcategory);
+    }
+}
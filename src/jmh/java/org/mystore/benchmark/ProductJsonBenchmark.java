@@ -0,0 +1,131 @@
+package org.mystore.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.mystore.dto.CursorPage;
+import org.mystore.dto.ProductSummary;
+import org.mystore.json.ProductJsonWriter;
+import org.mystore.json.ProductJsonWriters;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The product export and listing bodies written by the default ObjectMapper path and by
+ * {@link ProductJsonWriter}, into a discarding stream so that only serialization is measured.
+ * Run with {@code -prof gc} to compare allocation per operation:
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="ProductJson -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    @Param({"50", "1000"})
+    public int catalogSize;
+
+    // Unlike OutputStream.nullOutputStream(), survives Jackson closing it
+    private final OutputStream out = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private ObjectWriter productWriter;
+    private ObjectWriter pageWriter;
+    private ProductJsonWriters writers;
+    private List<Product> products;
+    private CursorPage<ProductSummary> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        productWriter = objectMapper.writerFor(Product.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        pageWriter = objectMapper.writerFor(objectMapper.constructType(
+                new ParameterizedTypeReference<CursorPage<ProductSummary>>() { }.getType()));
+        writers = new ProductJsonWriters(1);
+
+        ProductCategory category = new ProductCategory(1L, "Electronics", "Electronic devices");
+        category.setVersion(0L);
+        Subcategory subcategory = new Subcategory(10L, "Smartphones", "Mobile phones", category);
+        subcategory.setVersion(0L);
+        products = new ArrayList<>(catalogSize);
+        List<ProductSummary> summaries = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            Product p = BenchmarkCatalog.product(i, subcategory);
+            p.setId((long) i + 1);
+            p.setVersion(0L);
+            products.add(p);
+            summaries.add(new ProductSummary(p.getId(), p.getVersion(), p.getName(), p.getSku(), p.getUnitPrice(),
+                    p.getStockQuantity(), p.isActive(), subcategory.getId(), subcategory.getName()));
+        }
+        page = new CursorPage<>(summaries, "eyJpZCI6MTAwMH0");
+    }
+
+    /**
+     * The export as ProductExportService wrote it before: one shared generator, one
+     * {@code writeValue} per product.
+     */
+    @Benchmark
+    public void exportObjectMapper() throws IOException {
+        try (JsonGenerator generator = productWriter.getFactory().createGenerator(out)) {
+            for (Product product : products) {
+                productWriter.writeValue(generator, product);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    @Benchmark
+    public void exportProductJsonWriter() throws IOException {
+        try (ProductJsonWriter writer = writers.open(out)) {
+            for (Product product : products) {
+                writer.writeProduct(product);
+                writer.writeNewLine();
+            }
+        }
+    }
+
+    @Benchmark
+    public void listObjectMapper() throws IOException {
+        pageWriter.writeValue(out, page);
+    }
+
+    @Benchmark
+    public void listProductJsonWriter() throws IOException {
+        try (ProductJsonWriter writer = writers.open(out)) {
+            writer.writeSummaryPage(page);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.mystore.benchmark;
+
+import org.mystore.dto.CursorPage;
+import org.mystore.dto.ProductSummary;
+import org.mystore.model.Product;
+import org.mystore.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService against the embedded H2 database, for growing catalog sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkCatalog.start(WebApplicationType.NONE);
+        ids = BenchmarkCatalog.seed(context, catalogSize);
+        productService = context.getBean(ProductService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> getAllProducts() {
+        return productService.getAllProducts();
+    }
+
+    @Benchmark
+    public CursorPage<ProductSummary> getProductPage() {
+        return productService.getProductPage(null, ProductService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Optional<Product> getProductById() {
+        return productService.getProductById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Product> updateProduct() {
+        // ids are in seed order, so product i keeps its own SKU under the unique constraint
+        int i = ThreadLocalRandom.current().nextInt(ids.length);
+        return productService.updateProduct(ids[i], BenchmarkCatalog.product(i, null), null);
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
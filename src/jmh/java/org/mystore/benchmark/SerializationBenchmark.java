@@ -0,0 +1,84 @@
+package org.mystore.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mystore.model.Address;
+import org.mystore.model.Client;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the entity graphs the controllers return, using an ObjectMapper
+ * configured the way Spring Boot configures it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"50", "1000"})
+    public int catalogSize;
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private List<Product> products;
+    private Client client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ProductCategory category = new ProductCategory(1L, "Electronics", "Electronic devices");
+        Subcategory subcategory = new Subcategory(10L, "Smartphones", "Mobile phones", category);
+        products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            Product p = BenchmarkCatalog.product(i, subcategory);
+            p.setId((long) i + 1);
+            p.setVersion(0L);
+            products.add(p);
+        }
+        product = products.get(0);
+        client = new Client("Pedro Doe", "pedro.doe@example.com", "123-456-7890");
+        client.setId(1L);
+        for (int i = 0; i < 3; i++) {
+            Address address = new Address(i + " Main St", "Anytown", "CA", "12345");
+            address.setId((long) i + 1);
+            client.addAddress(address);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializeProductList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeClientWithAddresses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(client);
+    }
+}
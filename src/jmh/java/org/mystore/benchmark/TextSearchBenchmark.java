@@ -0,0 +1,89 @@
+package org.mystore.benchmark;
+
+import org.mystore.search.InvertedIndex;
+import org.mystore.search.ScoredId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranked queries against the in-memory product text index, filled with synthetic product
+ * names and descriptions drawn from a small vocabulary so that common terms have long
+ * postings lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TextSearchBenchmark {
+
+    private static final String[] BRANDS = {"acme", "zenith", "nordic", "orion", "vertex", "lumen", "atlas",
+            "kestrel", "summit", "harbor", "pioneer", "cobalt", "ember", "granite", "willow", "falcon"};
+    private static final String[] ADJECTIVES = {"wireless", "portable", "compact", "premium", "smart", "classic",
+            "ultra", "pro", "mini", "heavy", "duty", "quiet", "rugged", "slim", "digital", "organic"};
+    private static final String[] NOUNS = {"speaker", "headphones", "kettle", "blender", "backpack", "lamp",
+            "keyboard", "mouse", "monitor", "charger", "camera", "drill", "jacket", "tent", "bottle", "watch",
+            "phone", "tablet", "router", "toaster", "grinder", "shelf", "chair", "desk"};
+    private static final String[] DESCRIPTION_WORDS = {"with", "and", "for", "home", "office", "travel",
+            "outdoor", "battery", "steel", "aluminium", "cotton", "warranty", "fast", "durable", "lightweight",
+            "waterproof", "adjustable", "rechargeable", "stainless", "ergonomic", "energy", "efficient"};
+
+    @Param({"100000", "1000000"})
+    public int catalogSize;
+
+    private InvertedIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new InvertedIndex();
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < catalogSize; i++) {
+            String name = pick(random, BRANDS) + " " + pick(random, ADJECTIVES) + " " + pick(random, NOUNS) + " m" + i;
+            description.setLength(0);
+            for (int w = 0; w < 12; w++) {
+                description.append(pick(random, DESCRIPTION_WORDS)).append(' ');
+            }
+            index.put(i + 1, name, description.toString());
+        }
+    }
+
+    @Benchmark
+    public List<ScoredId> singleTerm() {
+        return index.search("kettle", 20);
+    }
+
+    @Benchmark
+    public List<ScoredId> twoTerms() {
+        return index.search("wireless speaker", 20);
+    }
+
+    @Benchmark
+    public List<ScoredId> prefix() {
+        return index.search("acme head", 20);
+    }
+
+    @Benchmark
+    public List<ScoredId> rareTerm() {
+        return index.search("m4242", 20);
+    }
+
+    private static String pick(SplittableRandom random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
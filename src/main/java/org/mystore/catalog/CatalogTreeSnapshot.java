@@ -0,0 +1,156 @@
+package org.mystore.catalog;
+
+import jakarta.annotation.PreDestroy;
+import org.mystore.dto.CatalogTree;
+import org.mystore.dto.CatalogTree.CategoryNode;
+import org.mystore.dto.CatalogTree.SubcategoryNode;
+import org.mystore.dto.SubcategoryProductCount;
+import org.mystore.dto.SubcategorySummary;
+import org.mystore.event.CatalogChangedEvent;
+import org.mystore.model.ProductCategory;
+import org.mystore.repository.ProductCategoryRepository;
+import org.mystore.repository.ProductRepository;
+import org.mystore.repository.SubcategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the category, subcategory and product count tree from memory.
+ * <p>
+ * The tree is an immutable {@link CatalogTree}, replaced as a whole when it is rebuilt, so
+ * readers always see one consistent snapshot and never touch the database. A
+ * {@link CatalogChangedEvent} triggers a rebuild on a background thread once its transaction
+ * commits. Events that arrive while a rebuild is pending are served by that same rebuild, so a
+ * burst of writes costs one or two rebuilds rather than one each.
+ */
+@Service
+public class CatalogTreeSnapshot {
+
+    private final ProductCategoryRepository productCategoryRepository;
+    private final SubcategoryRepository subcategoryRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean buildOnStartup;
+    private final ExecutorService rebuilder;
+
+    private final AtomicReference<CatalogTree> current = new AtomicReference<>();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    @Autowired
+    public CatalogTreeSnapshot(ProductCategoryRepository productCategoryRepository,
+                               SubcategoryRepository subcategoryRepository,
+                               ProductRepository productRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${storeapp.catalog.build-on-startup:true}") boolean buildOnStartup) {
+        this(productCategoryRepository, subcategoryRepository, productRepository, transactionManager, buildOnStartup,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "catalog-tree");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    CatalogTreeSnapshot(ProductCategoryRepository productCategoryRepository,
+                        SubcategoryRepository subcategoryRepository,
+                        ProductRepository productRepository,
+                        PlatformTransactionManager transactionManager,
+                        boolean buildOnStartup,
+                        ExecutorService rebuilder) {
+        this.productCategoryRepository = productCategoryRepository;
+        this.subcategoryRepository = subcategoryRepository;
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.buildOnStartup = buildOnStartup;
+        this.rebuilder = rebuilder;
+    }
+
+    /**
+     * The current tree. Only the very first call builds it, if it was not built on startup.
+     */
+    public CatalogTree getTree() {
+        CatalogTree tree = current.get();
+        return tree != null ? tree : rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (buildOnStartup) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                // Cleared first: a change committed from now on needs another rebuild
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    /**
+     * Builds the tree from the database and swaps it in. If nothing in it changed, the current
+     * tree and its version are kept.
+     */
+    public synchronized CatalogTree rebuild() {
+        List<CategoryNode> categories = readOnlyTransaction.execute(status -> buildCategories());
+        CatalogTree previous = current.get();
+        if (previous != null && previous.categories().equals(categories)) {
+            return previous;
+        }
+        long version = Math.max(previous != null ? previous.version() + 1 : 0, System.currentTimeMillis());
+        long productCount = categories.stream().mapToLong(CategoryNode::productCount).sum();
+        CatalogTree tree = new CatalogTree(version, LocalDateTime.now(), productCount, categories);
+        current.set(tree);
+        return tree;
+    }
+
+    private List<CategoryNode> buildCategories() {
+        Map<Long, Long> productCounts = productRepository.countActiveBySubcategory().stream()
+                .collect(Collectors.toMap(SubcategoryProductCount::subcategoryId, SubcategoryProductCount::productCount));
+        Map<Long, List<SubcategoryNode>> subcategoriesByCategory = new HashMap<>();
+        for (SubcategorySummary subcategory : subcategoryRepository.findAllSummaries()) {
+            if (subcategory.categoryId() != null) {
+                subcategoriesByCategory.computeIfAbsent(subcategory.categoryId(), id -> new ArrayList<>())
+                        .add(new SubcategoryNode(subcategory.id(), subcategory.name(), subcategory.description(),
+                                productCounts.getOrDefault(subcategory.id(), 0L)));
+            }
+        }
+        return productCategoryRepository.findAll().stream()
+                .sorted(Comparator.comparing(ProductCategory::getId))
+                .map(category -> {
+                    List<SubcategoryNode> subcategories = List.copyOf(
+                            subcategoriesByCategory.getOrDefault(category.getId(), List.of()));
+                    long productCount = subcategories.stream().mapToLong(SubcategoryNode::productCount).sum();
+                    return new CategoryNode(category.getId(), category.getName(), category.getDescription(),
+                            productCount, subcategories);
+                })
+                .toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+}
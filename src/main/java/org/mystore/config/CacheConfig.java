@@ -0,0 +1,18 @@
+package org.mystore.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the read-through cache in front of the product taxonomy. The caches themselves
+ * (Caffeine, size and TTL bounded, with statistics) are declared in application.properties.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCT_CATEGORIES = "productCategories";
+    public static final String PRODUCT_CATEGORY_BY_ID = "productCategoryById";
+    public static final String SUBCATEGORIES = "subcategories";
+    public static final String SUBCATEGORY_BY_ID = "subcategoryById";
+}
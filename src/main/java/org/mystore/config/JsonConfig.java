@@ -0,0 +1,30 @@
+package org.mystore.config;
+
+import org.mystore.json.ProductJsonWriters;
+import org.mystore.json.ProductPageMessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Puts the hand-written product page serializer ahead of Jackson. It only claims
+ * {@code CursorPage<ProductSummary>} bodies, so every other response still goes to Jackson.
+ */
+@Configuration
+public class JsonConfig implements WebMvcConfigurer {
+
+    private final ProductJsonWriters productJsonWriters;
+
+    @Autowired
+    public JsonConfig(ProductJsonWriters productJsonWriters) {
+        this.productJsonWriters = productJsonWriters;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new ProductPageMessageConverter(productJsonWriters));
+    }
+}
@@ -0,0 +1,54 @@
+package org.mystore.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.mystore.event.ProductEventBus;
+import org.mystore.outbox.OutboxRelay;
+import org.mystore.pricing.PriceStockIndex;
+import org.mystore.search.ProductSearchIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Micrometer wiring beyond what Spring Boot configures on its own (HTTP server requests,
+ * Spring Data repository invocations, Hibernate statistics, HikariCP pool, caches, JVM).
+ * <p>
+ * {@link TimedAspect} times every public method of the classes annotated with
+ * {@code @Timed(SERVICE_TIMER)}, tagged with class and method. The gauges and counters below
+ * expose the state of the in-process components.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "storeapp.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder storeComponentMetrics(ProductEventBus productEventBus, OutboxRelay outboxRelay,
+                                             ProductSearchIndex productSearchIndex, PriceStockIndex priceStockIndex) {
+        return registry -> {
+            Gauge.builder("storeapp.events.subscribers", productEventBus, ProductEventBus::subscriberCount)
+                    .description("Open product change streams")
+                    .register(registry);
+            FunctionCounter.builder("storeapp.outbox.relayed", outboxRelay, OutboxRelay::publishedCount)
+                    .description("Outbox messages handed to the sink")
+                    .register(registry);
+            FunctionCounter.builder("storeapp.outbox.failed.batches", outboxRelay, OutboxRelay::failedBatchCount)
+                    .description("Outbox batches that failed and will be retried")
+                    .register(registry);
+            Gauge.builder("storeapp.search.documents", productSearchIndex, ProductSearchIndex::size)
+                    .description("Products in the full-text index")
+                    .register(registry);
+            Gauge.builder("storeapp.pricing.entries", priceStockIndex, PriceStockIndex::size)
+                    .description("Products in the in-memory price and stock table")
+                    .register(registry);
+        };
+    }
+}
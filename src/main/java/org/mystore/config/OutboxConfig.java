@@ -0,0 +1,35 @@
+package org.mystore.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mystore.outbox.FileOutboxSink;
+import org.mystore.outbox.OutboxSink;
+import org.mystore.outbox.QueueOutboxSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Chooses the outbox sink with {@code storeapp.outbox.sink}: {@code file}, or {@code queue},
+ * which nothing in the application consumes and is only meant for tests. Any other value
+ * leaves it to the application to define an {@link OutboxSink} bean. Unset, there is no sink
+ * and the relay leaves events in the outbox table.
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "storeapp.outbox.sink", havingValue = "queue")
+    public QueueOutboxSink queueOutboxSink(@Value("${storeapp.outbox.queue.capacity:10000}") int capacity) {
+        return new QueueOutboxSink(capacity);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storeapp.outbox.sink", havingValue = "file")
+    public FileOutboxSink fileOutboxSink(@Value("${storeapp.outbox.file:outbox/events.ndjson}") Path file,
+                                         ObjectMapper objectMapper) {
+        return new FileOutboxSink(file, objectMapper);
+    }
+}
@@ -4,6 +4,7 @@ package org.mystore.controller;
 import org.mystore.model.Address;
 import org.mystore.service.AddressService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,26 +25,32 @@ public class AddressController {
     @GetMapping("/{id}")
     public ResponseEntity<Address> getAddressById(@PathVariable Long id) {
         Optional<Address> address = addressService.getAddressById(id);
-        return address.map(ResponseEntity::ok)
+        return address.map(found -> ETags.ok(found, found.getVersion()))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
     public ResponseEntity<Address> createAddress(@RequestBody Address address) {
-        Address createdAddress = addressService.createAddress(address);
-        return new ResponseEntity<>(createdAddress, HttpStatus.CREATED);
+        try {
+            Address createdAddress = addressService.createAddress(address);
+            return new ResponseEntity<>(createdAddress, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Address> updateAddress(@PathVariable Long id, @RequestBody Address updatedAddress) {
-        Optional<Address> updated = addressService.updateAddress(id, updatedAddress);
-        return updated.map(ResponseEntity::ok)
+    public ResponseEntity<Address> updateAddress(@PathVariable Long id, @RequestBody Address updatedAddress,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Address> updated = addressService.updateAddress(id, updatedAddress, ETags.parseIfMatch(ifMatch));
+        return updated.map(found -> ETags.ok(found, found.getVersion()))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteAddress(@PathVariable Long id) {
-        if (addressService.deleteAddress(id)) {
+    public ResponseEntity<Void> deleteAddress(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (addressService.deleteAddress(id, ETags.parseIfMatch(ifMatch))) {
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();
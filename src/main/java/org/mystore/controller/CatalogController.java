@@ -0,0 +1,34 @@
+package org.mystore.controller;
+
+import org.mystore.catalog.CatalogTreeSnapshot;
+import org.mystore.dto.CatalogTree;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/catalog")
+public class CatalogController {
+
+    private final CatalogTreeSnapshot catalogTreeSnapshot;
+
+    @Autowired
+    public CatalogController(CatalogTreeSnapshot catalogTreeSnapshot) {
+        this.catalogTreeSnapshot = catalogTreeSnapshot;
+    }
+
+    /**
+     * The category, subcategory and product count tree for storefront navigation, served from
+     * memory. The ETag is the tree's version.
+     */
+    @GetMapping("/tree")
+    public ResponseEntity<CatalogTree> getCatalogTree(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CatalogTree tree = catalogTreeSnapshot.getTree();
+        return ETags.conditional(tree, ETags.of(tree.version()), ifNoneMatch);
+    }
+}
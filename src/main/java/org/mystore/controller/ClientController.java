@@ -1,15 +1,18 @@
 package org.mystore.controller;
 
 
+import org.mystore.dto.ClientSummary;
 import org.mystore.model.Address;
 import org.mystore.model.Client;
 import org.mystore.service.ClientService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -24,17 +27,36 @@ public class ClientController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Client>> getAllClients() {
+    public ResponseEntity<List<ClientSummary>> getAllClients() {
         return ResponseEntity.ok(clientService.getAllClients());
     }
 
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllClientFields(@RequestParam String fields) {
+        try {
+            return ResponseEntity.ok(clientService.getAllClients(fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Client> getClientById(@PathVariable Long id) {
         Optional<Client> client = clientService.getClientById(id);
-        return client.map(ResponseEntity::ok)
+        return client.map(found -> ETags.ok(found, found.getVersion()))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getClientFieldsById(@PathVariable Long id, @RequestParam String fields) {
+        try {
+            return clientService.getClientFields(id, fields).map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<Client> createClient(@RequestBody Client client) {
         Client createdClient = clientService.createClient(client);
@@ -42,15 +64,17 @@ public class ClientController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Client> updateClient(@PathVariable Long id, @RequestBody Client updatedClient) {
-        Optional<Client> updated = clientService.updateClient(id, updatedClient);
-        return updated.map(ResponseEntity::ok)
+    public ResponseEntity<Client> updateClient(@PathVariable Long id, @RequestBody Client updatedClient,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Client> updated = clientService.updateClient(id, updatedClient, ETags.parseIfMatch(ifMatch));
+        return updated.map(found -> ETags.ok(found, found.getVersion()))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteClient(@PathVariable Long id) {
-        if (clientService.deleteClient(id)) {
+    public ResponseEntity<Void> deleteClient(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (clientService.deleteClient(id, ETags.parseIfMatch(ifMatch))) {
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();
@@ -0,0 +1,117 @@
+package org.mystore.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Maps entity versions to strong ETags and back.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Builds a strong ETag from the entity version, followed by the versions of the parents that
+     * its body embeds, e.g. {@code "3.1.0"}. Updating an embedded parent then changes the tag
+     * as well. A missing parent counts as version 0. Only the leading entity version is
+     * compared by {@link #parseIfMatch}.
+     */
+    static String of(Long version, Long... embeddedVersions) {
+        if (version == null) {
+            return null;
+        }
+        StringBuilder etag = new StringBuilder("\"").append(version);
+        for (Long embedded : embeddedVersions) {
+            etag.append('.').append(embedded == null ? 0 : embedded);
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Builds a strong ETag for a listing from the id and versions of every item, so it changes
+     * whenever an item is added, removed or updated. Pass the versions of embedded parents too.
+     */
+    @SafeVarargs
+    static <T> String ofCollection(List<T> items, Function<T, Long> id, Function<T, Long>... versions) {
+        long hash = 17;
+        for (T item : items) {
+            hash = 31 * hash + id.apply(item);
+            for (Function<T, Long> version : versions) {
+                Long value = version.apply(item);
+                hash = 31 * hash + (value == null ? 0 : value);
+            }
+        }
+        return "\"" + items.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Returns 304 Not Modified without a body when {@code ifNoneMatch} matches {@code etag},
+     * otherwise 200 with the body. Either way the ETag is sent along.
+     */
+    static <T> ResponseEntity<T> conditional(T body, String etag, String ifNoneMatch) {
+        if (etag != null && matchesAny(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        return builder.body(body);
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored.
+    static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a 200 response carrying the entity version as its ETag.
+     */
+    static <T> ResponseEntity<T> ok(T body, Long version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null) {
+            builder.eTag(of(version));
+        }
+        return builder.body(body);
+    }
+
+    /**
+     * Parses an If-Match header into the version the client expects, or {@code null} when the
+     * header is absent or {@code *}. Of a tag built with embedded parent versions only the
+     * leading entity version counts, since the write only touches the entity itself. Tags that
+     * are not a version of ours (weak tags included, since If-Match uses strong comparison)
+     * yield -1 and therefore never match.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return -1L;
+        }
+        String versions = tag.substring(1, tag.length() - 1);
+        int dot = versions.indexOf('.');
+        try {
+            return Long.parseLong(dot < 0 ? versions : versions.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.mystore.controller;
+
+import org.mystore.dto.PriceStock;
+import org.mystore.pricing.PriceStockIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/products")
+public class PriceStockController {
+
+    private final PriceStockIndex priceStockIndex;
+
+    @Autowired
+    public PriceStockController(PriceStockIndex priceStockIndex) {
+        this.priceStockIndex = priceStockIndex;
+    }
+
+    /**
+     * Price, stock and active flag of one product, served from the in-memory price table.
+     */
+    @GetMapping("/{id}/price-stock")
+    public ResponseEntity<PriceStock> getPriceStock(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return priceStockIndex.find(id)
+                .map(found -> ETags.conditional(found, ETags.of(found.version()), ifNoneMatch))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
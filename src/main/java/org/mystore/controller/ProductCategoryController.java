@@ -3,6 +3,7 @@ package org.mystore.controller;
 import org.mystore.model.ProductCategory;
 import org.mystore.service.ProductCategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -29,14 +31,17 @@ public class ProductCategoryController {
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductCategory>> getAllProductCategories() {
-        return ResponseEntity.ok(productCategoryService.getAllProductCategories());
+    public ResponseEntity<List<ProductCategory>> getAllProductCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        List<ProductCategory> all = productCategoryService.getAllProductCategories();
+        return ETags.conditional(all, ETags.ofCollection(all, ProductCategory::getId, ProductCategory::getVersion), ifNoneMatch);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductCategory> getProductCategoryById(@PathVariable Long id) {
+    public ResponseEntity<ProductCategory> getProductCategoryById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Optional<ProductCategory> productCategory = productCategoryService.getProductCategoryById(id);
-        return productCategory.map(ResponseEntity::ok)
+        return productCategory.map(found -> ETags.conditional(found, ETags.of(found.getVersion()), ifNoneMatch))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -47,15 +52,17 @@ public class ProductCategoryController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ProductCategory> updateProductCategory(@PathVariable Long id, @RequestBody ProductCategory updatedCategory) {
-        Optional<ProductCategory> updated = productCategoryService.updateProductCategory(id, updatedCategory);
-        return updated.map(ResponseEntity::ok)
+    public ResponseEntity<ProductCategory> updateProductCategory(@PathVariable Long id, @RequestBody ProductCategory updatedCategory,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<ProductCategory> updated = productCategoryService.updateProductCategory(id, updatedCategory, ETags.parseIfMatch(ifMatch));
+        return updated.map(found -> ETags.ok(found, found.getVersion()))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProductCategory(@PathVariable Long id) {
-        if (productCategoryService.deleteProductCategory(id)) {
+    public ResponseEntity<Void> deleteProductCategory(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (productCategoryService.deleteProductCategory(id, ETags.parseIfMatch(ifMatch))) {
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();
@@ -1,9 +1,26 @@
 package org.mystore.controller;
 
+import org.mystore.dto.BulkItemResult;
+import org.mystore.dto.CursorPage;
+import org.mystore.dto.ProductBatch;
+import org.mystore.dto.ProductChangePage;
+import org.mystore.dto.ProductSearchCriteria;
+import org.mystore.dto.ProductSearchHit;
+import org.mystore.dto.ProductSummary;
+import org.mystore.dto.StockUpdateResult;
 import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.mystore.service.ProductBulkService;
+import org.mystore.service.ProductChangeService;
+import org.mystore.service.ProductExportService;
+import org.mystore.service.ProductLookupService;
 import org.mystore.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,54 +28,230 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductBulkService productBulkService;
+    private final ProductChangeService productChangeService;
+    private final ProductLookupService productLookupService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductExportService productExportService,
+                             ProductBulkService productBulkService, ProductChangeService productChangeService,
+                             ProductLookupService productLookupService) {
         this.productService = productService;
+        this.productExportService = productExportService;
+        this.productBulkService = productBulkService;
+        this.productChangeService = productChangeService;
+        this.productLookupService = productLookupService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<CursorPage<ProductSummary>> getAllProducts(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(productService.getProductPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Sparse variant of the listing: {@code ?fields=id,name,unitPrice,sku} selects only those columns.
+     */
+    @GetMapping(params = "fields")
+    public ResponseEntity<CursorPage<Map<String, Object>>> getAllProductFields(@RequestParam String fields,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(productService.getProductPage(cursor, size, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Filters the catalog by SKU, name prefix, price range, active flag and subcategory.
+     * All filters are optional. Results are paginated like {@code GET /api/products}.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<ProductSummary>> searchProducts(@RequestParam(required = false) String sku,
+                                                                     @RequestParam(required = false) String name,
+                                                                     @RequestParam(required = false) BigDecimal minPrice,
+                                                                     @RequestParam(required = false) BigDecimal maxPrice,
+                                                                     @RequestParam(required = false) Boolean active,
+                                                                     @RequestParam(required = false) Long subcategoryId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size) {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(sku, name, minPrice, maxPrice, active, subcategoryId);
+        try {
+            return ResponseEntity.ok(productService.searchProducts(criteria, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Ranked full-text search over product names and descriptions. Every word of {@code q}
+     * must match, either exactly or as the prefix of an indexed word.
+     */
+    @GetMapping("/text-search")
+    public ResponseEntity<List<ProductSearchHit>> searchProductText(@RequestParam String q,
+                                                                    @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productService.searchProductText(q, limit));
+    }
+
+    /**
+     * Products created, updated or deleted after {@code cursor} (or at or after {@code since}),
+     * oldest first. Store the returned {@code nextCursor} and pass it back on the next sync.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangePage> getProductChanges(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false)
+                                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+                                                               @RequestParam(defaultValue = "" + ProductService.MAX_PAGE_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(productChangeService.getChanges(cursor, since, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Multi-get for carts and order pages: {@code ?ids=1,2,3} or {@code ?skus=A,B}, not both.
+     * Products come back in request order; keys without a product are listed in {@code missing}.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatch<?>> getProductBatch(@RequestParam(required = false) List<Long> ids,
+                                                           @RequestParam(required = false) List<String> skus) {
+        if ((ids == null) == (skus == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(ids != null
+                    ? productLookupService.getProductsByIds(ids)
+                    : productLookupService.getProductsBySkus(skus));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productExportService::exportProducts;
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<Product> getProductById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Optional<Product> product = productService.getProductById(id);
-        return product.map(ResponseEntity::ok)
+        return product.map(found -> ETags.conditional(found, etag(found), ifNoneMatch))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getProductFieldsById(@PathVariable Long id, @RequestParam String fields) {
+        try {
+            return productService.getProductFields(id, fields).map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
-        Product createdProduct = productService.createProduct(product);
-        return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
+        try {
+            Product createdProduct = productService.createProduct(product);
+            return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkItemResult>> bulkUpsertProducts(@RequestBody List<Product> products) {
+        try {
+            return ResponseEntity.ok(productBulkService.upsertProducts(products));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product updatedProduct) {
-        Optional<Product> updated = productService.updateProduct(id, updatedProduct);
-        return updated.map(ResponseEntity::ok)
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product updatedProduct,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Product> updated;
+        try {
+            updated = productService.updateProduct(id, updatedProduct, ETags.parseIfMatch(ifMatch));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return updated.map(found -> ETags.conditional(found, etag(found), null))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<StockUpdateResult> reserveStock(@PathVariable Long id, @RequestParam int quantity) {
+        try {
+            return toResponse(productService.reserveStock(id, quantity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{id}/stock/release")
+    public ResponseEntity<StockUpdateResult> releaseStock(@PathVariable Long id, @RequestParam int quantity) {
+        try {
+            return toResponse(productService.releaseStock(id, quantity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        if (productService.deleteProduct(id)) {
+    public ResponseEntity<Void> deleteProduct(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (productService.deleteProduct(id, ETags.parseIfMatch(ifMatch))) {
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();
         }
     }
+
+    // The body embeds the subcategory and its category, so their versions are part of the tag
+    private static String etag(Product product) {
+        Subcategory subcategory = product.getSubcategory();
+        if (subcategory == null) {
+            return ETags.of(product.getVersion());
+        }
+        ProductCategory category = subcategory.getCategory();
+        return ETags.of(product.getVersion(), subcategory.getVersion(), category != null ? category.getVersion() : null);
+    }
+
+    private static ResponseEntity<StockUpdateResult> toResponse(StockUpdateResult result) {
+        return switch (result) {
+            case APPLIED -> ResponseEntity.ok(result);
+            case INSUFFICIENT_STOCK, STOCK_LIMIT_EXCEEDED -> ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+        };
+    }
 }
\ No newline at end of file
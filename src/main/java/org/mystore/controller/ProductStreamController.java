@@ -0,0 +1,76 @@
+package org.mystore.controller;
+
+import org.mystore.event.OverflowPolicy;
+import org.mystore.event.ProductChangedEvent;
+import org.mystore.event.ProductEventBus;
+import org.mystore.event.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Pushes product price, stock and active-flag changes to storefronts as Server-Sent Events,
+ * so they do not have to poll {@code GET /api/products/{id}}.
+ */
+@RestController
+@RequestMapping("/api/products")
+public class ProductStreamController {
+
+    static final String EVENT_NAME = "product";
+
+    private final ProductEventBus productEventBus;
+    private final long streamTimeoutMillis;
+
+    @Autowired
+    public ProductStreamController(ProductEventBus productEventBus,
+                                   @Value("${storeapp.events.stream-timeout:30m}") Duration streamTimeout) {
+        this.productEventBus = productEventBus;
+        this.streamTimeoutMillis = streamTimeout.toMillis();
+    }
+
+    /**
+     * Streams changes of the products in {@code ids}, or of all products without it. When the
+     * client falls behind by more than the subscriber buffer, {@code overflow} decides what
+     * is lost. The stream ends after the stream timeout; clients reconnect.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamProductChanges(@RequestParam(required = false) Set<Long> ids,
+                                                           @RequestParam(defaultValue = "DROP_OLDEST") OverflowPolicy overflow) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscription subscription;
+        try {
+            subscription = productEventBus.subscribe(ids, overflow, new EmitterSink(emitter));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return ResponseEntity.ok(emitter);
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements ProductEventBus.Sink {
+
+        @Override
+        public void send(ProductChangedEvent event) throws IOException {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(event, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package org.mystore.controller;
 
+import org.mystore.dto.SubcategorySummary;
+import org.mystore.model.ProductCategory;
 import org.mystore.model.Subcategory;
 import org.mystore.service.SubcategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,10 +14,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -29,36 +35,76 @@ public class SubcategoryController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Subcategory>> getAllSubcategories() {
-        return ResponseEntity.ok(subcategoryService.getAllSubcategories());
+    public ResponseEntity<List<SubcategorySummary>> getAllSubcategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        List<SubcategorySummary> all = subcategoryService.getAllSubcategories();
+        return ETags.conditional(all, ETags.ofCollection(all, SubcategorySummary::id,
+                SubcategorySummary::version, SubcategorySummary::categoryVersion), ifNoneMatch);
+    }
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllSubcategoryFields(@RequestParam String fields) {
+        try {
+            return ResponseEntity.ok(subcategoryService.getAllSubcategories(fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getSubcategoryFieldsById(@PathVariable Long id, @RequestParam String fields) {
+        try {
+            return subcategoryService.getSubcategoryFields(id, fields).map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Subcategory> getSubcategoryById(@PathVariable Long id) {
+    public ResponseEntity<Subcategory> getSubcategoryById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Optional<Subcategory> subcategory = subcategoryService.getSubcategoryById(id);
-        return subcategory.map(ResponseEntity::ok)
+        return subcategory.map(found -> ETags.conditional(found, etag(found), ifNoneMatch))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
     public ResponseEntity<Subcategory> createSubcategory(@RequestBody Subcategory subcategory) {
-        Subcategory createdSubcategory = subcategoryService.createSubcategory(subcategory);
-        return new ResponseEntity<>(createdSubcategory, HttpStatus.CREATED);
+        try {
+            Subcategory createdSubcategory = subcategoryService.createSubcategory(subcategory);
+            return new ResponseEntity<>(createdSubcategory, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Subcategory> updateSubcategory(@PathVariable Long id, @RequestBody Subcategory updatedSubcategory) {
-        Optional<Subcategory> updated = subcategoryService.updateSubcategory(id, updatedSubcategory);
-        return updated.map(ResponseEntity::ok)
+    public ResponseEntity<Subcategory> updateSubcategory(@PathVariable Long id, @RequestBody Subcategory updatedSubcategory,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Subcategory> updated;
+        try {
+            updated = subcategoryService.updateSubcategory(id, updatedSubcategory, ETags.parseIfMatch(ifMatch));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return updated.map(found -> ETags.conditional(found, etag(found), null))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteSubcategory(@PathVariable Long id) {
-        if (subcategoryService.deleteSubcategory(id)) {
+    public ResponseEntity<Void> deleteSubcategory(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (subcategoryService.deleteSubcategory(id, ETags.parseIfMatch(ifMatch))) {
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    // The body embeds the category, so its version is part of the tag
+    private static String etag(Subcategory subcategory) {
+        ProductCategory category = subcategory.getCategory();
+        return ETags.of(subcategory.getVersion(), category != null ? category.getVersion() : null);
+    }
+}
@@ -0,0 +1,11 @@
+package org.mystore.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Read model for an address nested in a {@link ClientSummary}. {@code clientId} is only used to
+ * group addresses under their client and is not serialized.
+ */
+public record AddressSummary(@JsonIgnore Long clientId, Long id, String street, String city, String state,
+                             String zipCode) {
+}
@@ -0,0 +1,30 @@
+package org.mystore.dto;
+
+/**
+ * Outcome of one item of a bulk write, reported at the same {@code index} as in the request body.
+ */
+public record BulkItemResult(int index, Long id, Status status, String error) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    public static BulkItemResult created(int index, Long id) {
+        return new BulkItemResult(index, id, Status.CREATED, null);
+    }
+
+    public static BulkItemResult updated(int index, Long id) {
+        return new BulkItemResult(index, id, Status.UPDATED, null);
+    }
+
+    public static BulkItemResult notFound(int index, Long id) {
+        return new BulkItemResult(index, id, Status.NOT_FOUND, null);
+    }
+
+    public static BulkItemResult failed(int index, Long id, String error) {
+        return new BulkItemResult(index, id, Status.FAILED, error);
+    }
+}
@@ -0,0 +1,19 @@
+package org.mystore.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the storefront navigation: every category with its subcategories and
+ * the number of active products in each. {@code version} grows with every rebuild that changed
+ * the tree.
+ */
+public record CatalogTree(long version, LocalDateTime builtAt, long productCount, List<CategoryNode> categories) {
+
+    public record CategoryNode(Long id, String name, String description, long productCount,
+                               List<SubcategoryNode> subcategories) {
+    }
+
+    public record SubcategoryNode(Long id, String name, String description, long productCount) {
+    }
+}
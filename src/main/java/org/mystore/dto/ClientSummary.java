@@ -0,0 +1,22 @@
+package org.mystore.dto;
+
+import java.util.List;
+
+/**
+ * Read model for the client listing. Unlike the entity, nested addresses do not point back
+ * to their client.
+ */
+public record ClientSummary(Long id, Long version, String name, String email, String phone,
+                            List<AddressSummary> addresses) {
+
+    /**
+     * Constructor used by the JPQL projection; addresses are attached afterwards.
+     */
+    public ClientSummary(Long id, Long version, String name, String email, String phone) {
+        this(id, version, name, email, phone, List.of());
+    }
+
+    public ClientSummary withAddresses(List<AddressSummary> addresses) {
+        return new ClientSummary(id, version, name, email, phone, List.copyOf(addresses));
+    }
+}
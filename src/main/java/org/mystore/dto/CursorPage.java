@@ -0,0 +1,10 @@
+package org.mystore.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token to pass back
+ * as the {@code cursor} parameter, or {@code null} when there are no more items.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,9 @@
+package org.mystore.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Price, stock and active flag of a product, without the rest of the entity.
+ */
+public record PriceStock(Long id, Long version, BigDecimal unitPrice, int stockQuantity, boolean active) {
+}
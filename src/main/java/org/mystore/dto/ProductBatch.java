@@ -0,0 +1,10 @@
+package org.mystore.dto;
+
+import java.util.List;
+
+/**
+ * Result of a multi-get: the products found, in the order they were requested (each requested
+ * key once), and the requested keys that matched no product.
+ */
+public record ProductBatch<K>(List<ProductSummary> products, List<K> missing) {
+}
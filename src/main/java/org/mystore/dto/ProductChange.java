@@ -0,0 +1,27 @@
+package org.mystore.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.mystore.model.Product;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the product change feed. An {@code UPSERT} carries the product as it is now;
+ * a {@code DELETE} only carries the id and SKU of the product that is gone.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductChange(Type type, Long id, String sku, LocalDateTime changedAt, Product product) {
+
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+    public static ProductChange upsert(Product product) {
+        return new ProductChange(Type.UPSERT, product.getId(), product.getSku(), product.getUpdatedAt(), product);
+    }
+
+    public static ProductChange delete(Long id, String sku, LocalDateTime deletedAt) {
+        return new ProductChange(Type.DELETE, id, sku, deletedAt, null);
+    }
+}
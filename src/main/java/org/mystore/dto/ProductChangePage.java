@@ -0,0 +1,11 @@
+package org.mystore.dto;
+
+import java.util.List;
+
+/**
+ * One page of the product change feed. Unlike {@link CursorPage}, {@code nextCursor} is never
+ * null: a sync job stores it and passes it back later to receive only what changed since.
+ * {@code hasMore} tells whether further changes can be fetched right away.
+ */
+public record ProductChangePage(List<ProductChange> changes, String nextCursor, boolean hasMore) {
+}
@@ -0,0 +1,17 @@
+package org.mystore.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters for the product search. Every field is optional and the ones present are combined with AND.
+ *
+ * @param sku           exact SKU
+ * @param namePrefix    case-sensitive prefix of the product name
+ * @param minPrice      inclusive lower bound on the unit price
+ * @param maxPrice      inclusive upper bound on the unit price
+ * @param active        active flag
+ * @param subcategoryId owning subcategory
+ */
+public record ProductSearchCriteria(String sku, String namePrefix, BigDecimal minPrice, BigDecimal maxPrice,
+                                    Boolean active, Long subcategoryId) {
+}
@@ -0,0 +1,7 @@
+package org.mystore.dto;
+
+/**
+ * One full-text search result; hits are returned best first.
+ */
+public record ProductSearchHit(ProductSummary product, float score) {
+}
@@ -0,0 +1,22 @@
+package org.mystore.dto;
+
+import org.mystore.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat copy of a product's own columns, used as the outbox payload. The subcategory is only
+ * referenced by id, so building one never loads it.
+ */
+public record ProductSnapshot(Long id, Long version, String name, String description, BigDecimal unitPrice,
+                              int stockQuantity, String sku, boolean active, Long subcategoryId,
+                              LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(product.getId(), product.getVersion(), product.getName(), product.getDescription(),
+                product.getUnitPrice(), product.getStockQuantity(), product.getSku(), product.isActive(),
+                product.getSubcategory() != null ? product.getSubcategory().getId() : null,
+                product.getCreatedAt(), product.getUpdatedAt());
+    }
+}
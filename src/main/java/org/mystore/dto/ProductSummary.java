@@ -0,0 +1,11 @@
+package org.mystore.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Read model for product listings: only the columns a list needs, with the subcategory
+ * flattened to its id and name. The full product is available from {@code GET /api/products/{id}}.
+ */
+public record ProductSummary(Long id, Long version, String name, String sku, BigDecimal unitPrice,
+                             int stockQuantity, boolean active, Long subcategoryId, String subcategoryName) {
+}
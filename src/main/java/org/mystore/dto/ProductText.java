@@ -0,0 +1,7 @@
+package org.mystore.dto;
+
+/**
+ * The searchable text of a product, as read when rebuilding the full-text index.
+ */
+public record ProductText(Long id, String name, String description) {
+}
@@ -0,0 +1,11 @@
+package org.mystore.dto;
+
+/**
+ * Outcome of an atomic stock reservation or release.
+ */
+public enum StockUpdateResult {
+    APPLIED,
+    INSUFFICIENT_STOCK,
+    STOCK_LIMIT_EXCEEDED,
+    NOT_FOUND
+}
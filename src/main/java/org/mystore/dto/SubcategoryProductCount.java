@@ -0,0 +1,7 @@
+package org.mystore.dto;
+
+/**
+ * Number of active products in a subcategory.
+ */
+public record SubcategoryProductCount(Long subcategoryId, long productCount) {
+}
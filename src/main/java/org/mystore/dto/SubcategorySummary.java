@@ -0,0 +1,8 @@
+package org.mystore.dto;
+
+/**
+ * Read model for the subcategory listing, with the parent category flattened to its id, version and name.
+ */
+public record SubcategorySummary(Long id, Long version, String name, String description,
+                                 Long categoryId, Long categoryVersion, String categoryName) {
+}
@@ -0,0 +1,10 @@
+package org.mystore.event;
+
+/**
+ * Something the catalog tree is built from changed: a category or subcategory, or which
+ * subcategory a product belongs to or whether it is active.
+ */
+public record CatalogChangedEvent() {
+
+    public static final CatalogChangedEvent INSTANCE = new CatalogChangedEvent();
+}
@@ -0,0 +1,22 @@
+package org.mystore.event;
+
+/**
+ * What a subscription does when its buffer is full and another event arrives.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Discard the oldest buffered event to make room; the subscriber sees the most recent state.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Discard the arriving event.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Cancel the subscription, so that the client reconnects and reloads.
+     */
+    DISCONNECT
+}
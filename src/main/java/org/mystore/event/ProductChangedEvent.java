@@ -0,0 +1,29 @@
+package org.mystore.event;
+
+import org.mystore.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The storefront-relevant state of a product after a committed change to its price, stock or
+ * active flag.
+ */
+public record ProductChangedEvent(Long productId, Long version, BigDecimal unitPrice, int stockQuantity,
+                                  boolean active, LocalDateTime changedAt) {
+
+    public static ProductChangedEvent of(Product product) {
+        return new ProductChangedEvent(product.getId(), product.getVersion(), product.getUnitPrice(),
+                product.getStockQuantity(), product.isActive(), product.getUpdatedAt());
+    }
+
+    /**
+     * Whether price, stock or active flag differ; version and time are ignored.
+     */
+    public boolean differsFrom(ProductChangedEvent other) {
+        return stockQuantity != other.stockQuantity
+                || active != other.active
+                || (unitPrice == null ? other.unitPrice != null
+                : other.unitPrice == null || unitPrice.compareTo(other.unitPrice) != 0);
+    }
+}
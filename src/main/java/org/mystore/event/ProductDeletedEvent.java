@@ -0,0 +1,7 @@
+package org.mystore.event;
+
+/**
+ * A product was deleted; published within the deleting transaction.
+ */
+public record ProductDeletedEvent(Long productId) {
+}
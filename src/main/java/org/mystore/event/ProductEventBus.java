@@ -0,0 +1,160 @@
+package org.mystore.event;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans {@link ProductChangedEvent}s out to many subscribers.
+ * <p>
+ * Publishing never blocks. Each event is offered to each subscription's bounded buffer, and a
+ * full buffer is handled by that subscription's {@link OverflowPolicy}. A slow client
+ * therefore loses events instead of slowing down product writes or other clients. Buffers are
+ * drained to their sinks by a small shared pool of dispatch threads rather than one thread per
+ * subscriber. A client that stops reading would block its send, and with it a dispatch thread,
+ * until the connection times out; a watchdog instead disconnects any subscription whose send
+ * takes longer than the send timeout, so the pool keeps serving the other subscribers.
+ * <p>
+ * Events published inside a transaction are delivered only after it commits.
+ */
+@Component
+public class ProductEventBus {
+
+    /**
+     * Receives the events of one subscription, on a dispatch thread.
+     */
+    public interface Sink {
+
+        void send(ProductChangedEvent event) throws IOException;
+
+        /**
+         * Called when the bus ends the subscription on its own: on overflow with
+         * {@link OverflowPolicy#DISCONNECT}, or after {@link #send} failed or timed out.
+         */
+        default void close() {
+        }
+    }
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService dispatcher;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration sendTimeout;
+    private ScheduledExecutorService watchdog;
+
+    @Autowired
+    public ProductEventBus(@Value("${storeapp.events.subscriber-buffer:256}") int bufferSize,
+                           @Value("${storeapp.events.max-subscribers:10000}") int maxSubscribers,
+                           @Value("${storeapp.events.dispatch-threads:4}") int dispatchThreads,
+                           @Value("${storeapp.events.send-timeout:10s}") Duration sendTimeout) {
+        this(bufferSize, maxSubscribers, sendTimeout, Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "product-events");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    ProductEventBus(int bufferSize, int maxSubscribers, Duration sendTimeout, ExecutorService dispatcher) {
+        if (bufferSize <= 0 || maxSubscribers <= 0) {
+            throw new IllegalArgumentException("storeapp.events buffer and subscriber limits must be positive");
+        }
+        if (sendTimeout.isNegative() || sendTimeout.isZero()) {
+            throw new IllegalArgumentException("storeapp.events.send-timeout must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.sendTimeout = sendTimeout;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Starts checking for expired sends, a few times per send timeout.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startWatchdog() {
+        if (watchdog != null) {
+            return;
+        }
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-events-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(sendTimeout.toMillis() / 4, 1);
+        watchdog.scheduleWithFixedDelay(this::expireStalledSends, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes to changes of the given products, or of all products if {@code productIds}
+     * is null or empty.
+     *
+     * @throws IllegalStateException if the maximum number of subscribers is reached
+     */
+    public Subscription subscribe(Set<Long> productIds, OverflowPolicy overflowPolicy, Sink sink) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many subscribers");
+        }
+        Subscription subscription = new Subscription(this, productIds, overflowPolicy, bufferSize, sink);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(ProductChangedEvent event) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.accepts(event)) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    void dispatch(Runnable drain) {
+        dispatcher.execute(drain);
+    }
+
+    /**
+     * Disconnects every subscription whose current send has taken longer than the send timeout.
+     */
+    void expireStalledSends() {
+        long now = System.nanoTime();
+        long timeoutNanos = sendTimeout.toNanos();
+        for (Subscription subscription : subscriptions) {
+            subscription.expireSend(now, timeoutNanos);
+        }
+    }
+
+    void unsubscribe(Subscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+            watchdog = null;
+        }
+        dispatcher.shutdownNow();
+    }
+}
@@ -0,0 +1,9 @@
+package org.mystore.event;
+
+/**
+ * A committed product update that bumped the version without changing price, stock or active
+ * flag, such as a rename. Not pushed to stream subscribers; it only keeps version-aware
+ * read models such as the price and stock table current.
+ */
+public record ProductVersionChangedEvent(ProductChangedEvent state) {
+}
@@ -0,0 +1,168 @@
+package org.mystore.event;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One subscriber of the {@link ProductEventBus}, with its own bounded buffer.
+ * <p>
+ * At most one drain task per subscription is queued or running at a time, so events reach the
+ * sink in order. A drain sends a limited batch and then yields its dispatch thread to other
+ * subscriptions. A send that blocks past the bus's send timeout, because the client stopped
+ * reading, disconnects the subscription and interrupts the send, see {@link #expireSend}.
+ */
+public final class Subscription {
+
+    static final int DRAIN_BATCH = 64;
+
+    private final ProductEventBus bus;
+    private final Set<Long> productIds;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<ProductChangedEvent> buffer;
+    private final ProductEventBus.Sink sink;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    // Guards sendingThread, so an expired send is only ever interrupted while it is still running
+    private final Object sendLock = new Object();
+    private Thread sendingThread;
+    private long sendStartedNanos;
+    private volatile boolean sendExpired;
+    private volatile boolean cancelled;
+
+    Subscription(ProductEventBus bus, Set<Long> productIds, OverflowPolicy overflowPolicy, int bufferSize,
+                 ProductEventBus.Sink sink) {
+        this.bus = bus;
+        this.productIds = productIds == null || productIds.isEmpty() ? null : Set.copyOf(productIds);
+        this.overflowPolicy = overflowPolicy;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.sink = sink;
+    }
+
+    /**
+     * Stops delivery and releases the subscriber slot. Safe to call more than once.
+     */
+    public void cancel() {
+        cancelled = true;
+        buffer.clear();
+        bus.unsubscribe(this);
+    }
+
+    private void disconnect() {
+        cancel();
+        if (closed.compareAndSet(false, true)) {
+            sink.close();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Events lost to the overflow policy so far.
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    boolean accepts(ProductChangedEvent event) {
+        return !cancelled && (productIds == null || productIds.contains(event.productId()));
+    }
+
+    void offer(ProductChangedEvent event) {
+        if (!buffer.offer(event)) {
+            switch (overflowPolicy) {
+                case DROP_NEWEST -> dropped.incrementAndGet();
+                case DROP_OLDEST -> {
+                    // A racing offer may refill the freed slot; then this event is the one dropped
+                    if (buffer.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                    if (!buffer.offer(event)) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                case DISCONNECT -> {
+                    disconnect();
+                    return;
+                }
+            }
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!cancelled && draining.compareAndSet(false, true)) {
+            try {
+                bus.dispatch(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Disconnects this subscription if its current send started at least {@code timeoutNanos}
+     * before {@code nowNanos}, and interrupts the dispatch thread blocked in it. The sink is
+     * closed by that thread once the send returns.
+     *
+     * @return whether the send had expired
+     */
+    boolean expireSend(long nowNanos, long timeoutNanos) {
+        synchronized (sendLock) {
+            if (sendingThread == null || nowNanos - sendStartedNanos < timeoutNanos) {
+                return false;
+            }
+            sendExpired = true;
+            cancel();
+            sendingThread.interrupt();
+            return true;
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < DRAIN_BATCH && !cancelled; i++) {
+                ProductChangedEvent event = buffer.poll();
+                if (event == null) {
+                    break;
+                }
+                send(event);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The client went away or the sink failed; either way this subscription is done
+            disconnect();
+        } finally {
+            draining.set(false);
+        }
+        if (sendExpired) {
+            disconnect();
+        } else if (!buffer.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void send(ProductChangedEvent event) throws IOException {
+        synchronized (sendLock) {
+            sendingThread = Thread.currentThread();
+            sendStartedNanos = System.nanoTime();
+        }
+        try {
+            sink.send(event);
+        } finally {
+            synchronized (sendLock) {
+                sendingThread = null;
+                if (sendExpired) {
+                    // The interrupt was meant for this send only, not for the next drain on this thread
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+}
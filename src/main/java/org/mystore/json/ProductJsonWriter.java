@@ -0,0 +1,389 @@
+package org.mystore.json;
+
+import org.mystore.dto.CursorPage;
+import org.mystore.dto.ProductSummary;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Hand-written JSON serializer for products and product listings. It writes UTF-8 straight
+ * into a pooled byte buffer through the getters: no reflection, no intermediate strings and no
+ * per-value allocation, except for the string each fresh {@link BigDecimal} caches on its
+ * first {@code toString()}.
+ * <p>
+ * The output is byte for byte what the application's {@code ObjectMapper} writes for the same
+ * objects: same property order, nulls included, ISO local date-times, {@code BigDecimal} as
+ * {@code toString()}, and the same escapes. A property added to {@link Product},
+ * {@link Subcategory}, {@link ProductCategory} or {@link ProductSummary} must be added here as
+ * well; ProductJsonWriterTest compares both serializers.
+ * <p>
+ * Not thread-safe. Obtain one per response from {@link ProductJsonWriters#open} and close it
+ * to flush and return the buffer.
+ */
+public final class ProductJsonWriter implements Closeable {
+
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] LONG_MIN = ascii(Long.toString(Long.MIN_VALUE));
+
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] VERSION = ascii(",\"version\":");
+    private static final byte[] NAME = ascii(",\"name\":");
+    private static final byte[] DESCRIPTION = ascii(",\"description\":");
+    private static final byte[] UNIT_PRICE = ascii(",\"unitPrice\":");
+    private static final byte[] STOCK_QUANTITY = ascii(",\"stockQuantity\":");
+    private static final byte[] SKU = ascii(",\"sku\":");
+    private static final byte[] ACTIVE = ascii(",\"active\":");
+    private static final byte[] CREATED_AT = ascii(",\"createdAt\":");
+    private static final byte[] UPDATED_AT = ascii(",\"updatedAt\":");
+    private static final byte[] SUBCATEGORY = ascii(",\"subcategory\":");
+    private static final byte[] CATEGORY = ascii(",\"category\":");
+    private static final byte[] SUBCATEGORY_ID = ascii(",\"subcategoryId\":");
+    private static final byte[] SUBCATEGORY_NAME = ascii(",\"subcategoryName\":");
+    private static final byte[] ITEMS = ascii("{\"items\":");
+    private static final byte[] NEXT_CURSOR = ascii(",\"nextCursor\":");
+
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+
+    // Per ASCII character: 0 to write it as is, a letter for a two-character escape, -1 for \\u00XX
+    private static final byte[] ESCAPES = new byte[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = -1;
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\r'] = 'r';
+    }
+
+    private final OutputStream out;
+    private final ProductJsonWriters owner;
+    private byte[] buffer;
+    private int position;
+
+    ProductJsonWriter(OutputStream out, byte[] buffer, ProductJsonWriters owner) {
+        this.out = out;
+        this.buffer = buffer;
+        this.owner = owner;
+    }
+
+    /**
+     * Writes the product with its subcategory and category, as {@code GET /api/products/{id}} does.
+     */
+    public void writeProduct(Product product) throws IOException {
+        if (product == null) {
+            writeRaw(NULL);
+            return;
+        }
+        writeRaw(ID);
+        writeNumber(product.getId());
+        writeRaw(VERSION);
+        writeNumber(product.getVersion());
+        writeRaw(NAME);
+        writeString(product.getName());
+        writeRaw(DESCRIPTION);
+        writeString(product.getDescription());
+        writeRaw(UNIT_PRICE);
+        writeNumber(product.getUnitPrice());
+        writeRaw(STOCK_QUANTITY);
+        writeLong(product.getStockQuantity());
+        writeRaw(SKU);
+        writeString(product.getSku());
+        writeRaw(ACTIVE);
+        writeRaw(product.isActive() ? TRUE : FALSE);
+        writeRaw(CREATED_AT);
+        writeDateTime(product.getCreatedAt());
+        writeRaw(UPDATED_AT);
+        writeDateTime(product.getUpdatedAt());
+        writeRaw(SUBCATEGORY);
+        writeSubcategory(product.getSubcategory());
+        writeByte('}');
+    }
+
+    public void writeSummary(ProductSummary summary) throws IOException {
+        if (summary == null) {
+            writeRaw(NULL);
+            return;
+        }
+        writeRaw(ID);
+        writeNumber(summary.id());
+        writeRaw(VERSION);
+        writeNumber(summary.version());
+        writeRaw(NAME);
+        writeString(summary.name());
+        writeRaw(SKU);
+        writeString(summary.sku());
+        writeRaw(UNIT_PRICE);
+        writeNumber(summary.unitPrice());
+        writeRaw(STOCK_QUANTITY);
+        writeLong(summary.stockQuantity());
+        writeRaw(ACTIVE);
+        writeRaw(summary.active() ? TRUE : FALSE);
+        writeRaw(SUBCATEGORY_ID);
+        writeNumber(summary.subcategoryId());
+        writeRaw(SUBCATEGORY_NAME);
+        writeString(summary.subcategoryName());
+        writeByte('}');
+    }
+
+    public void writeSummaryPage(CursorPage<ProductSummary> page) throws IOException {
+        if (page == null) {
+            writeRaw(NULL);
+            return;
+        }
+        writeRaw(ITEMS);
+        List<ProductSummary> items = page.items();
+        if (items == null) {
+            writeRaw(NULL);
+        } else {
+            writeByte('[');
+            for (int i = 0, n = items.size(); i < n; i++) {
+                if (i > 0) {
+                    writeByte(',');
+                }
+                writeSummary(items.get(i));
+            }
+            writeByte(']');
+        }
+        writeRaw(NEXT_CURSOR);
+        writeString(page.nextCursor());
+        writeByte('}');
+    }
+
+    public void writeNewLine() throws IOException {
+        writeByte('\n');
+    }
+
+    /**
+     * Writes out the buffered bytes and flushes the underlying stream.
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Flushes, then returns the buffer to the pool. The underlying stream stays open.
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            owner.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void writeSubcategory(Subcategory subcategory) throws IOException {
+        if (subcategory == null) {
+            writeRaw(NULL);
+            return;
+        }
+        writeRaw(ID);
+        writeNumber(subcategory.getId());
+        writeRaw(VERSION);
+        writeNumber(subcategory.getVersion());
+        writeRaw(NAME);
+        writeString(subcategory.getName());
+        writeRaw(DESCRIPTION);
+        writeString(subcategory.getDescription());
+        writeRaw(CATEGORY);
+        writeCategory(subcategory.getCategory());
+        writeByte('}');
+    }
+
+    private void writeCategory(ProductCategory category) throws IOException {
+        if (category == null) {
+            writeRaw(NULL);
+            return;
+        }
+        writeRaw(ID);
+        writeNumber(category.getId());
+        writeRaw(VERSION);
+        writeNumber(category.getVersion());
+        writeRaw(NAME);
+        writeString(category.getName());
+        writeRaw(DESCRIPTION);
+        writeString(category.getDescription());
+        writeByte('}');
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeRaw(NULL);
+            return;
+        }
+        writeByte('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            if (position + 6 > buffer.length) {
+                flushBuffer();
+            }
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                byte escape = ESCAPES[c];
+                if (escape == 0) {
+                    buffer[position++] = (byte) c;
+                } else if (escape > 0) {
+                    buffer[position++] = '\\';
+                    buffer[position++] = escape;
+                } else {
+                    writeUnicodeEscape(c);
+                }
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Jackson escapes each half of a surrogate pair rather than encoding the code point
+                writeUnicodeEscape(c);
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeUnicodeEscape(char c) {
+        buffer[position++] = '\\';
+        buffer[position++] = 'u';
+        buffer[position++] = HEX[c >> 12];
+        buffer[position++] = HEX[c >> 8 & 0xF];
+        buffer[position++] = HEX[c >> 4 & 0xF];
+        buffer[position++] = HEX[c & 0xF];
+    }
+
+    private void writeNumber(Long value) throws IOException {
+        if (value == null) {
+            writeRaw(NULL);
+        } else {
+            writeLong(value);
+        }
+    }
+
+    private void writeNumber(BigDecimal value) throws IOException {
+        if (value == null) {
+            writeRaw(NULL);
+            return;
+        }
+        String digits = value.toString();
+        for (int i = 0, n = digits.length(); i < n; i++) {
+            writeByte(digits.charAt(i));
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeRaw(LONG_MIN);
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value; rest >= 10; rest /= 10) {
+            digits++;
+        }
+        writeDigits(value, digits);
+    }
+
+    /**
+     * ISO-8601 local date-time with the fraction trimmed of trailing zeros, as
+     * {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} formats it.
+     */
+    private void writeDateTime(LocalDateTime value) throws IOException {
+        if (value == null) {
+            writeRaw(NULL);
+            return;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+            return;
+        }
+        ensureCapacity(31);
+        buffer[position++] = '"';
+        writeDigits(year, 4);
+        buffer[position++] = '-';
+        writeDigits(value.getMonthValue(), 2);
+        buffer[position++] = '-';
+        writeDigits(value.getDayOfMonth(), 2);
+        buffer[position++] = 'T';
+        writeDigits(value.getHour(), 2);
+        buffer[position++] = ':';
+        writeDigits(value.getMinute(), 2);
+        buffer[position++] = ':';
+        writeDigits(value.getSecond(), 2);
+        int nano = value.getNano();
+        if (nano != 0) {
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            buffer[position++] = '.';
+            writeDigits(nano, digits);
+        }
+        buffer[position++] = '"';
+    }
+
+    // Writes the lowest digits of a non-negative value, zero-padded to the given width
+    private void writeDigits(long value, int digits) {
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    private void writeByte(char c) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) c;
+    }
+
+    private void writeRaw(byte[] bytes) throws IOException {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
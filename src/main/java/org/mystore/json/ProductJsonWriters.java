@@ -0,0 +1,47 @@
+package org.mystore.json;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Opens {@link ProductJsonWriter}s over response streams. Their output buffers come from a
+ * bounded pool ({@code storeapp.json.buffer-pool-size}) and go back to it when the writer is
+ * closed, so steady-state serialization allocates no buffers. The pool is shared rather than
+ * per thread because request threads may be virtual.
+ */
+@Component
+public class ProductJsonWriters {
+
+    static final int BUFFER_SIZE = 8192;
+
+    private final BlockingQueue<byte[]> buffers;
+
+    @Autowired
+    public ProductJsonWriters(@Value("${storeapp.json.buffer-pool-size:64}") int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("storeapp.json.buffer-pool-size must be positive");
+        }
+        this.buffers = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Writes to {@code out} until closed. The writer never closes {@code out} itself.
+     */
+    public ProductJsonWriter open(OutputStream out) {
+        byte[] buffer = buffers.poll();
+        return new ProductJsonWriter(out, buffer != null ? buffer : new byte[BUFFER_SIZE], this);
+    }
+
+    void release(byte[] buffer) {
+        buffers.offer(buffer);
+    }
+
+    int pooled() {
+        return buffers.size();
+    }
+}
@@ -0,0 +1,78 @@
+package org.mystore.json;
+
+import org.mystore.dto.CursorPage;
+import org.mystore.dto.ProductSummary;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Writes {@code CursorPage<ProductSummary>} responses (the product listing and search) with
+ * {@link ProductJsonWriter} instead of Jackson. Every other type, including pages of sparse
+ * field maps, is left to the regular Jackson converter. Write-only.
+ */
+public class ProductPageMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ProductJsonWriters writers;
+
+    public ProductPageMessageConverter(ProductJsonWriters writers) {
+        super(MediaType.APPLICATION_JSON);
+        this.writers = writers;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CursorPage.class.isAssignableFrom(clazz);
+    }
+
+    // The class alone does not tell a page of summaries from a page of field maps
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return type != null && isSummaryPage(type) && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object page, Type type, HttpOutputMessage outputMessage) throws IOException {
+        try (ProductJsonWriter writer = writers.open(outputMessage.getBody())) {
+            writer.writeSummaryPage((CursorPage<ProductSummary>) page);
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Product pages are write-only", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Product pages are write-only", inputMessage);
+    }
+
+    static boolean isSummaryPage(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        return CursorPage.class.equals(resolved.resolve())
+                && ProductSummary.class.equals(resolved.getGeneric(0).resolve());
+    }
+}
@@ -1,5 +1,6 @@
 package org.mystore.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
 @Entity
@@ -9,11 +10,15 @@ public class Address {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version;
+
     private String street;
     private String city;
     private String state;
     private String zipCode;
 
+    @JsonIgnoreProperties("addresses")
     @ManyToOne
     @JoinColumn(name = "client_id")
     private Client client;
@@ -37,6 +42,14 @@ public class Address {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getStreet() {
         return street;
     }
@@ -1,22 +1,46 @@
 package org.mystore.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "product",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_sku", columnNames = "sku"),
+        indexes = {
+                @Index(name = "idx_product_name", columnList = "name"),
+                @Index(name = "idx_product_subcategory", columnList = "subcategory_id"),
+                @Index(name = "idx_product_active_price", columnList = "active, unit_price"),
+                @Index(name = "idx_product_updated", columnList = "updated_at, id")
+        })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Product {
 
+    // Sequence ids (pooled, 50 at a time) keep JDBC insert batching possible; IDENTITY disables it.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    private Long version;
+
     private String name;
     private String description;
     private BigDecimal unitPrice;
@@ -48,6 +72,12 @@ public class Product {
         this.updatedAt = LocalDateTime.now();
     }
 
+    // The change feed orders by updatedAt, so a client-supplied value must not reach the table
+    @PrePersist
+    void stampUpdatedAt() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
     public Long getId() {
         return id;
     }
@@ -56,6 +86,14 @@ public class Product {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
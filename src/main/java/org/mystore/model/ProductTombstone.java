@@ -0,0 +1,70 @@
+package org.mystore.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted product so the change feed can report the deletion. Products are still
+ * hard-deleted; this row is all that remains of them.
+ */
+@Entity
+@Table(name = "product_tombstone",
+        indexes = @Index(name = "idx_product_tombstone_deleted", columnList = "deleted_at, product_id"))
+public class ProductTombstone {
+
+    @Id
+    private Long productId;
+
+    // Only there so that save() persists the assigned id without selecting it first
+    @Version
+    private Long version;
+
+    private String sku;
+    private LocalDateTime deletedAt;
+
+    public ProductTombstone() {
+    }
+
+    public ProductTombstone(Long productId, String sku, LocalDateTime deletedAt) {
+        this.productId = productId;
+        this.sku = sku;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -0,0 +1,15 @@
+package org.mystore.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import org.mystore.model.OutboxEvent.AggregateType;
+import org.mystore.model.OutboxEvent.EventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox row as handed to an {@link OutboxSink}. {@code id} is unique per event; delivery is
+ * at-least-once, so consumers use it to drop duplicates.
+ */
+public record OutboxMessage(Long id, AggregateType aggregateType, Long aggregateId, EventType eventType,
+                            @JsonRawValue String payload, LocalDateTime createdAt) {
+}
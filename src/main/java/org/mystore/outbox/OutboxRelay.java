@@ -0,0 +1,151 @@
+package org.mystore.outbox;
+
+import jakarta.annotation.PreDestroy;
+import org.mystore.repository.OutboxEventRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox into the {@link OutboxSink} in the background.
+ * <p>
+ * The outbox is split into {@code parallelism} partitions by aggregate id, each drained by its
+ * own worker. A worker reads a batch, publishes it, then deletes it. A crash or a sink failure
+ * between the publish and the delete leaves the batch in place to be published again:
+ * delivery is at-least-once. A worker that found a full batch goes on immediately; otherwise
+ * it waits for the poll interval.
+ * <p>
+ * Without an {@link OutboxSink} bean the relay does not run, and events wait in the outbox
+ * table until a sink is configured.
+ */
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final int batchSize;
+    private final int parallelism;
+    private final Duration pollInterval;
+    private final boolean enabled;
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong failedBatchCount = new AtomicLong();
+    private ScheduledExecutorService workers;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       PlatformTransactionManager transactionManager,
+                       ObjectProvider<OutboxSink> sink,
+                       @Value("${storeapp.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${storeapp.outbox.relay.parallelism:2}") int parallelism,
+                       @Value("${storeapp.outbox.relay.poll-interval:500ms}") Duration pollInterval,
+                       @Value("${storeapp.outbox.relay.enabled:true}") boolean enabled) {
+        this(outboxEventRepository, transactionManager, sink.getIfAvailable(), batchSize, parallelism, pollInterval,
+                enabled);
+    }
+
+    OutboxRelay(OutboxEventRepository outboxEventRepository, PlatformTransactionManager transactionManager,
+                OutboxSink sink, int batchSize, int parallelism, Duration pollInterval, boolean enabled) {
+        if (batchSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("storeapp.outbox.relay batch-size and parallelism must be positive");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.pollInterval = pollInterval;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || sink == null || workers != null) {
+            return;
+        }
+        workers = Executors.newScheduledThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int partition = 0; partition < parallelism; partition++) {
+            int worker = partition;
+            workers.scheduleWithFixedDelay(() -> drainPartition(worker), 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+    }
+
+    /**
+     * Drains every partition on the calling thread.
+     *
+     * @return the number of messages published
+     */
+    public int drainAll() {
+        int published = 0;
+        for (int partition = 0; partition < parallelism; partition++) {
+            published += drainPartition(partition);
+        }
+        return published;
+    }
+
+    /**
+     * Publishes batches of one partition until it is empty or the sink fails.
+     *
+     * @return the number of messages published
+     */
+    int drainPartition(int partition) {
+        int published = 0;
+        if (sink == null) {
+            return published;
+        }
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<OutboxMessage> batch = outboxEventRepository.findPending(parallelism, partition, Limit.of(batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                sink.publish(batch);
+                List<Long> ids = batch.stream().map(OutboxMessage::id).toList();
+                transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteByIdIn(ids));
+                published += batch.size();
+                publishedCount.addAndGet(batch.size());
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Any exception would cancel the scheduled worker; the batch is simply retried next time
+            failedBatchCount.incrementAndGet();
+        }
+        return published;
+    }
+
+    public long publishedCount() {
+        return publishedCount.get();
+    }
+
+    public long failedBatchCount() {
+        return failedBatchCount.get();
+    }
+}
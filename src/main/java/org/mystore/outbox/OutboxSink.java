@@ -0,0 +1,14 @@
+package org.mystore.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where the {@link OutboxRelay} delivers outbox messages. A batch counts as delivered only when
+ * {@link #publish} returns normally; otherwise all of it is retried later, so a sink may see
+ * the same message more than once.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxMessage> messages) throws IOException;
+}
@@ -0,0 +1,40 @@
+package org.mystore.outbox;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-process queue of outbox messages for tests, which poll it to see what was relayed.
+ * A batch that does not fit is rejected as a whole and stays in the outbox until there is room.
+ */
+public class QueueOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxMessage> queue;
+
+    public QueueOutboxSink(int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) throws IOException {
+        if (queue.remainingCapacity() < messages.size()) {
+            throw new IOException("Outbox queue is full");
+        }
+        queue.addAll(messages);
+    }
+
+    public OutboxMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public void clear() {
+        queue.clear();
+    }
+}
@@ -0,0 +1,122 @@
+package org.mystore.pricing;
+
+import org.mystore.dto.PriceStock;
+import org.mystore.event.ProductChangedEvent;
+import org.mystore.event.ProductDeletedEvent;
+import org.mystore.event.ProductVersionChangedEvent;
+import org.mystore.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Serves product price, stock and active flag from an in-memory {@link PriceStockTable} instead
+ * of loading the product, when {@code storeapp.pricing.table.enabled} is set; otherwise straight
+ * from the database.
+ * <p>
+ * The table is loaded on startup. After that it follows the product write paths through the
+ * {@link ProductChangedEvent}s, {@link ProductVersionChangedEvent}s and {@link ProductDeletedEvent}s
+ * they publish, applied once the write commits. A product that is not in the table, such as one created since, is loaded on
+ * its first lookup.
+ */
+@Service
+public class PriceStockIndex {
+
+    /**
+     * Decimal places of {@code Product.unitPrice}; prices are stored as whole units of 10^-2.
+     */
+    static final int PRICE_SCALE = 2;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final PriceStockTable table;
+
+    @Autowired
+    public PriceStockIndex(ProductRepository productRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${storeapp.pricing.table.enabled:true}") boolean enabled,
+                           @Value("${storeapp.pricing.table.initial-capacity:65536}") int initialCapacity) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.table = new PriceStockTable(enabled ? initialCapacity : 16);
+    }
+
+    public Optional<PriceStock> find(Long id) {
+        if (!enabled) {
+            return productRepository.findPriceStockById(id);
+        }
+        PriceStock cached = table.get(id, PriceStockIndex::toPriceStock);
+        if (cached != null || table.contains(id)) {
+            return Optional.ofNullable(cached);
+        }
+        Optional<PriceStock> loaded = productRepository.findPriceStockById(id);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    /**
+     * Number of products in the table.
+     */
+    public int size() {
+        return table.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<PriceStock> products = productRepository.streamAllPriceStock()) {
+                    products.forEach(this::put);
+                }
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled) {
+            table.put(event.productId(), event.version(), toUnits(event.unitPrice()), event.stockQuantity(), event.active());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductVersionChanged(ProductVersionChangedEvent event) {
+        onProductChanged(event.state());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductDeleted(ProductDeletedEvent event) {
+        if (enabled) {
+            table.remove(event.productId());
+        }
+    }
+
+    private void put(PriceStock priceStock) {
+        table.put(priceStock.id(), priceStock.version(), toUnits(priceStock.unitPrice()),
+                priceStock.stockQuantity(), priceStock.active());
+    }
+
+    static long toUnits(BigDecimal price) {
+        return price == null
+                ? PriceStockTable.NO_PRICE
+                : price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static PriceStock toPriceStock(long id, long version, long price, int stock, boolean active) {
+        BigDecimal unitPrice = price == PriceStockTable.NO_PRICE ? null : BigDecimal.valueOf(price, PRICE_SCALE);
+        return new PriceStock(id, version, unitPrice, stock, active);
+    }
+}
@@ -0,0 +1,215 @@
+package org.mystore.pricing;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing hash table from product id to version, price (in units of
+ * 10<sup>-scale</sup>), stock and active flag, kept in parallel primitive arrays: a million
+ * products are five arrays rather than millions of objects, and a lookup allocates nothing.
+ * <p>
+ * Writers take a write lock. Readers read optimistically and retry under a read lock only if a
+ * write got in between. An entry is only replaced by a higher version, so late or stale writes
+ * are ignored. Deleted products are kept as tombstones; product ids are never reused.
+ */
+final class PriceStockTable {
+
+    static final long NO_PRICE = Long.MIN_VALUE;
+
+    private static final byte PRESENT = 1;
+    private static final byte ACTIVE = 2;
+    private static final byte DELETED = 4;
+    private static final long EMPTY = 0L;
+
+    /**
+     * Receives the fields of an entry without boxing them.
+     */
+    @FunctionalInterface
+    interface Reader<T> {
+        T read(long id, long version, long price, int stock, boolean active);
+    }
+
+    private static final class Slots {
+        final long[] ids;
+        final long[] versions;
+        final long[] prices;
+        final int[] stocks;
+        final byte[] flags;
+
+        Slots(int capacity) {
+            ids = new long[capacity];
+            versions = new long[capacity];
+            prices = new long[capacity];
+            stocks = new int[capacity];
+            flags = new byte[capacity];
+        }
+
+        // Terminates because resizing keeps at least a quarter of the slots empty
+        int indexOf(long id) {
+            int mask = ids.length - 1;
+            int i = hash(id) & mask;
+            while (ids[i] != id && ids[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Slots slots;
+    private int used;
+    private int live;
+
+    PriceStockTable(int initialCapacity) {
+        slots = new Slots(Integer.highestOneBit(Math.max(16, initialCapacity - 1)) << 1);
+    }
+
+    /**
+     * Passes the entry of {@code id} to {@code reader}, or returns null if there is none or the
+     * product was deleted.
+     */
+    <T> T get(long id, Reader<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        Slots current = slots;
+        int i = current.indexOf(id);
+        long version = current.versions[i];
+        long price = current.prices[i];
+        int stock = current.stocks[i];
+        byte flags = current.flags[i];
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                current = slots;
+                i = current.indexOf(id);
+                version = current.versions[i];
+                price = current.prices[i];
+                stock = current.stocks[i];
+                flags = current.flags[i];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if ((flags & PRESENT) == 0 || (flags & DELETED) != 0) {
+            return null;
+        }
+        return reader.read(id, version, price, stock, (flags & ACTIVE) != 0);
+    }
+
+    /**
+     * Whether there is an entry or a tombstone for {@code id}.
+     */
+    boolean contains(long id) {
+        long stamp = lock.readLock();
+        try {
+            Slots current = slots;
+            return current.ids[current.indexOf(id)] == id;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Stores the entry unless the table already has this or a later version, or a tombstone.
+     *
+     * @return whether the entry was stored
+     */
+    boolean put(long id, long version, long price, int stock, boolean active) {
+        requireId(id);
+        long stamp = lock.writeLock();
+        try {
+            Slots current = slots;
+            int i = current.indexOf(id);
+            if (current.ids[i] == id) {
+                if ((current.flags[i] & DELETED) != 0 || current.versions[i] >= version) {
+                    return false;
+                }
+            } else {
+                current = claim(id);
+                i = current.indexOf(id);
+                live++;
+            }
+            current.versions[i] = version;
+            current.prices[i] = price;
+            current.stocks[i] = stock;
+            current.flags[i] = (byte) (PRESENT | (active ? ACTIVE : 0));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces the entry of {@code id}, if any, with a tombstone.
+     */
+    void remove(long id) {
+        requireId(id);
+        long stamp = lock.writeLock();
+        try {
+            Slots current = slots;
+            int i = current.indexOf(id);
+            if (current.ids[i] != id) {
+                current = claim(id);
+                i = current.indexOf(id);
+            } else if ((current.flags[i] & DELETED) == 0) {
+                live--;
+            }
+            current.versions[i] = Long.MAX_VALUE;
+            current.flags[i] = DELETED;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Number of products with an entry, tombstones excluded.
+     */
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return live;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int capacity() {
+        return slots.ids.length;
+    }
+
+    // Under the write lock: takes an empty slot for id, growing the table first if needed
+    private Slots claim(long id) {
+        if ((used + 1) * 4L > slots.ids.length * 3L) {
+            slots = grow(slots);
+        }
+        Slots current = slots;
+        current.ids[current.indexOf(id)] = id;
+        used++;
+        return current;
+    }
+
+    private static Slots grow(Slots old) {
+        Slots grown = new Slots(old.ids.length * 2);
+        for (int i = 0; i < old.ids.length; i++) {
+            long id = old.ids[i];
+            if (id != EMPTY) {
+                int j = grown.indexOf(id);
+                grown.ids[j] = id;
+                grown.versions[j] = old.versions[i];
+                grown.prices[j] = old.prices[i];
+                grown.stocks[j] = old.stocks[i];
+                grown.flags[j] = old.flags[i];
+            }
+        }
+        return grown;
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static void requireId(long id) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("Product id 0 cannot be stored");
+        }
+    }
+}
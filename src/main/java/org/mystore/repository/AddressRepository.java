@@ -1,8 +1,15 @@
 package org.mystore.repository;
 
+import org.mystore.dto.AddressSummary;
 import org.mystore.model.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface AddressRepository extends JpaRepository<Address, Long> {
-}
 
+    @Query("select new org.mystore.dto.AddressSummary(a.client.id, a.id, a.street, a.city, a.state, a.zipCode) " +
+            "from Address a where a.client is not null order by a.id")
+    List<AddressSummary> findAllClientAddressSummaries();
+}
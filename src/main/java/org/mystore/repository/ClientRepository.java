@@ -1,8 +1,24 @@
 package org.mystore.repository;
 
+import org.mystore.dto.ClientSummary;
 import org.mystore.model.Client;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
-}
 
+    /**
+     * Client columns only; addresses are loaded separately with
+     * {@link AddressRepository#findAllClientAddressSummaries()}.
+     */
+    @Query("select new org.mystore.dto.ClientSummary(c.id, c.version, c.name, c.email, c.phone) " +
+            "from Client c order by c.id")
+    List<ClientSummary> findAllSummaries();
+
+    @EntityGraph(attributePaths = "addresses")
+    Optional<Client> findWithAddressesById(Long id);
+}
@@ -0,0 +1,60 @@
+package org.mystore.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields a client asked for with {@code ?fields=}, resolved against a whitelist that maps
+ * each public field name to an entity attribute path (e.g. {@code subcategoryName -> subcategory.name}).
+ * {@code id} is always selected, first, so results stay addressable and pageable.
+ *
+ * @param entityType the root entity to select from
+ * @param fields     requested field names mapped to attribute paths, in response order
+ */
+public record FieldSelection(Class<?> entityType, Map<String, String> fields) {
+
+    public FieldSelection {
+        fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+    }
+
+    /**
+     * Builds an ordered whitelist from alternating field names and attribute paths.
+     */
+    public static Map<String, String> whitelist(String... namesAndPaths) {
+        Map<String, String> allowed = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndPaths.length; i += 2) {
+            allowed.put(namesAndPaths[i], namesAndPaths[i + 1]);
+        }
+        return Collections.unmodifiableMap(allowed);
+    }
+
+    /**
+     * Parses a comma-separated {@code fields} parameter.
+     *
+     * @throws IllegalArgumentException if a field is not in {@code allowed}
+     */
+    public static FieldSelection parse(Class<?> entityType, Map<String, String> allowed, String fields) {
+        Map<String, String> selected = new LinkedHashMap<>();
+        selected.put("id", allowed.get("id"));
+        List<String> unknown = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String path = allowed.get(name);
+            if (path == null) {
+                unknown.add(name);
+            } else {
+                selected.put(name, path);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown fields " + unknown + ", allowed: " + allowed.keySet());
+        }
+        return new FieldSelection(entityType, selected);
+    }
+}
@@ -0,0 +1,27 @@
+package org.mystore.repository;
+
+import org.mystore.model.OutboxEvent;
+import org.mystore.outbox.OutboxMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * The oldest pending events of one partition. Partitioning by aggregate id keeps the events
+     * of one product or client in a single relay worker, in the order they were written.
+     */
+    @Query("select new org.mystore.outbox.OutboxMessage(e.id, e.aggregateType, e.aggregateId, e.eventType, " +
+            "e.payload, e.createdAt) from OutboxEvent e " +
+            "where mod(e.aggregateId, :partitions) = :partition order by e.id")
+    List<OutboxMessage> findPending(int partitions, int partition, Limit limit);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id in :ids")
+    int deleteByIdIn(Collection<Long> ids);
+}
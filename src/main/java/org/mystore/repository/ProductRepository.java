@@ -1,7 +1,100 @@
 package org.mystore.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.mystore.dto.PriceStock;
+import org.mystore.dto.ProductSummary;
+import org.mystore.dto.ProductText;
+import org.mystore.dto.SubcategoryProductCount;
+import org.mystore.event.ProductChangedEvent;
 import org.mystore.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
-}
\ No newline at end of file
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductSearchRepository, ProductStockRepository {
+
+    /**
+     * Loads products with their subcategory and category joined in, so reading the whole
+     * Product -> Subcategory -> ProductCategory graph costs a single statement.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"subcategory", "subcategory.category"})
+    List<Product> findAll();
+
+    /**
+     * One keyset page of the product listing, selecting only the columns of {@link ProductSummary}.
+     */
+    @Query("select new org.mystore.dto.ProductSummary(p.id, p.version, p.name, p.sku, p.unitPrice, " +
+            "p.stockQuantity, p.active, s.id, s.name) " +
+            "from Product p left join p.subcategory s where p.id > :id order by p.id")
+    List<ProductSummary> findSummariesByIdGreaterThan(Long id, Limit limit);
+
+    /**
+     * Streams the whole catalog from a database cursor. Must be consumed inside a transaction
+     * and closed by the caller.
+     */
+    @Query("select p from Product p left join fetch p.subcategory s left join fetch s.category order by p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Product> streamAllForExport();
+
+    @Query("select new org.mystore.dto.ProductSummary(p.id, p.version, p.name, p.sku, p.unitPrice, " +
+            "p.stockQuantity, p.active, s.id, s.name) " +
+            "from Product p left join p.subcategory s where p.id in :ids")
+    List<ProductSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query("select new org.mystore.dto.ProductSummary(p.id, p.version, p.name, p.sku, p.unitPrice, " +
+            "p.stockQuantity, p.active, s.id, s.name) " +
+            "from Product p left join p.subcategory s where p.sku in :skus")
+    List<ProductSummary> findSummariesBySkuIn(Collection<String> skus);
+
+    @Query("select new org.mystore.dto.SubcategoryProductCount(p.subcategory.id, count(p)) " +
+            "from Product p where p.active = true and p.subcategory is not null group by p.subcategory.id")
+    List<SubcategoryProductCount> countActiveBySubcategory();
+
+    @Query("select new org.mystore.dto.PriceStock(p.id, p.version, p.unitPrice, p.stockQuantity, p.active) " +
+            "from Product p where p.id = :id")
+    Optional<PriceStock> findPriceStockById(Long id);
+
+    /**
+     * Streams price and stock of every product to fill the price table. Must be consumed
+     * within a transaction and closed.
+     */
+    @Query("select new org.mystore.dto.PriceStock(p.id, p.version, p.unitPrice, p.stockQuantity, p.active) from Product p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<PriceStock> streamAllPriceStock();
+
+    /**
+     * Streams the searchable text of every product for a full-text index rebuild. Must be
+     * consumed inside a transaction and closed by the caller.
+     */
+    @Query("select new org.mystore.dto.ProductText(p.id, p.name, p.description) from Product p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProductText> streamAllText();
+
+    /**
+     * Products changed after the position {@code (updatedAt, id)} and before {@code upTo}, in
+     * that order. The first condition bounds the range scanned on idx_product_updated; the
+     * second drops the rows at the position itself and before it.
+     */
+    @Query("select p from Product p left join fetch p.subcategory s left join fetch s.category " +
+            "where p.updatedAt >= :after and (p.updatedAt > :after or p.id > :afterId) and p.updatedAt < :upTo " +
+            "order by p.updatedAt, p.id")
+    List<Product> findChangedAfter(LocalDateTime after, long afterId, LocalDateTime upTo, Limit limit);
+
+    /**
+     * The current price, stock and active flag, read after a stock reservation or release to
+     * announce the change.
+     */
+    @Query("select new org.mystore.event.ProductChangedEvent(p.id, p.version, p.unitPrice, p.stockQuantity, " +
+            "p.active, p.updatedAt) from Product p where p.id = :id")
+    Optional<ProductChangedEvent> findChangedEventById(Long id);
+}
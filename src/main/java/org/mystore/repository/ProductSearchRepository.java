@@ -0,0 +1,20 @@
+package org.mystore.repository;
+
+import org.mystore.dto.ProductSummary;
+import org.mystore.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom fragment of {@link ProductRepository} for specification-based searches that select
+ * {@link ProductSummary} columns only.
+ */
+public interface ProductSearchRepository {
+
+    /**
+     * Products matching {@code spec} ordered by id, at most {@code limit} of them.
+     */
+    List<ProductSummary> searchSummaries(Specification<Product> spec, Limit limit);
+}
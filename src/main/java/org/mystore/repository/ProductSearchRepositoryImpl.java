@@ -0,0 +1,50 @@
+package org.mystore.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.mystore.dto.ProductSummary;
+import org.mystore.model.Product;
+import org.mystore.model.Subcategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    ProductSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<ProductSummary> searchSummaries(Specification<Product> spec, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = cb.createQuery(ProductSummary.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Subcategory> subcategory = product.join("subcategory", JoinType.LEFT);
+        query.select(cb.construct(ProductSummary.class,
+                product.get("id"), product.get("version"), product.get("name"), product.get("sku"),
+                product.get("unitPrice"), product.get("stockQuantity"), product.get("active"),
+                subcategory.get("id"), subcategory.get("name")));
+        Predicate predicate = spec.toPredicate(product, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(product.get("id")));
+        TypedQuery<ProductSummary> typed = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typed.setMaxResults(limit.max());
+        }
+        return typed.getResultList();
+    }
+}
@@ -0,0 +1,100 @@
+package org.mystore.repository;
+
+import org.mystore.dto.ProductSearchCriteria;
+import org.mystore.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+/**
+ * Product search predicates. Each one is shaped so that it can use an index declared on {@link Product}.
+ * For example, a name prefix becomes a range on the name column.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Combines every filter present in {@code criteria}; an empty criteria matches all products.
+     */
+    public static Specification<Product> matching(ProductSearchCriteria criteria) {
+        Specification<Product> spec = Specification.where(null);
+        if (criteria.sku() != null) {
+            spec = spec.and(skuEquals(criteria.sku()));
+        }
+        if (criteria.namePrefix() != null && !criteria.namePrefix().isEmpty()) {
+            spec = spec.and(nameStartsWith(criteria.namePrefix()));
+        }
+        if (criteria.active() != null) {
+            spec = spec.and(activeEquals(criteria.active()));
+        }
+        if (criteria.minPrice() != null || criteria.maxPrice() != null) {
+            spec = spec.and(priceBetween(criteria.minPrice(), criteria.maxPrice()));
+        }
+        if (criteria.subcategoryId() != null) {
+            spec = spec.and(inSubcategory(criteria.subcategoryId()));
+        }
+        return spec;
+    }
+
+    public static Specification<Product> skuEquals(String sku) {
+        return (root, query, cb) -> cb.equal(root.get("sku"), sku);
+    }
+
+    /**
+     * Name prefix as a half-open range {@code [prefix, successor(prefix))} rather than
+     * {@code LIKE ?}: planners cannot tell whether a bound LIKE pattern has a constant prefix and
+     * fall back to a scan, while a range on a bound parameter always uses the name index.
+     */
+    public static Specification<Product> nameStartsWith(String prefix) {
+        String upperBound = successor(prefix);
+        return (root, query, cb) -> upperBound == null
+                ? cb.greaterThanOrEqualTo(root.get("name"), prefix)
+                : cb.and(cb.greaterThanOrEqualTo(root.get("name"), prefix), cb.lessThan(root.get("name"), upperBound));
+    }
+
+    public static Specification<Product> activeEquals(boolean active) {
+        return (root, query, cb) -> cb.equal(root.get("active"), active);
+    }
+
+    /**
+     * Inclusive price range; either bound may be {@code null}.
+     */
+    public static Specification<Product> priceBetween(BigDecimal min, BigDecimal max) {
+        return (root, query, cb) -> {
+            if (min != null && max != null) {
+                return cb.between(root.get("unitPrice"), min, max);
+            }
+            return min != null
+                    ? cb.greaterThanOrEqualTo(root.get("unitPrice"), min)
+                    : cb.lessThanOrEqualTo(root.get("unitPrice"), max);
+        };
+    }
+
+    /**
+     * Compares the subcategory_id foreign key directly, without joining the subcategory table.
+     */
+    public static Specification<Product> inSubcategory(Long subcategoryId) {
+        return (root, query, cb) -> cb.equal(root.get("subcategory").get("id"), subcategoryId);
+    }
+
+    public static Specification<Product> idGreaterThan(long afterId) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+    }
+
+    /**
+     * The smallest string greater than every string starting with {@code prefix}, or {@code null}
+     * if there is none (the prefix is made of {@link Character#MAX_VALUE} only).
+     */
+    static String successor(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+}
@@ -0,0 +1,29 @@
+package org.mystore.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Custom fragment of {@link ProductRepository} for atomic stock changes that leave the rest of
+ * the Product second-level cache region alone.
+ * <p>
+ * A JPQL bulk update would evict the whole region after every reservation or release. These
+ * run as native conditional updates that evict only the changed product, both right away and
+ * once the transaction completes, so a read racing the update cannot cache the old stock.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Takes {@code quantity} units out of stock in a single conditional update.
+     *
+     * @return 1 if the stock was reserved, 0 if the product does not exist or has too little stock
+     */
+    int reserveStock(Long id, int quantity, LocalDateTime now);
+
+    /**
+     * Puts {@code quantity} units back into stock in a single conditional update. The guard keeps
+     * the sum within an int column; {@code quantity} must be positive.
+     *
+     * @return 1 if the stock was released, 0 if the product does not exist or the stock would overflow
+     */
+    int releaseStock(Long id, int quantity, LocalDateTime now);
+}
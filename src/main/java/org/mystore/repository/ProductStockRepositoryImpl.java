@@ -0,0 +1,66 @@
+package org.mystore.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.mystore.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    // Matches no cached entity or query, so Hibernate's bulk cleanup evicts nothing by itself
+    private static final String STOCK_QUERY_SPACE = "product_stock";
+
+    private static final String RESERVE = "update product set stock_quantity = stock_quantity - :quantity, " +
+            "updated_at = :now, version = version + 1 " +
+            "where id = :id and stock_quantity >= :quantity";
+
+    private static final String RELEASE = "update product set stock_quantity = stock_quantity + :quantity, " +
+            "updated_at = :now, version = version + 1 " +
+            "where id = :id and stock_quantity <= " + Integer.MAX_VALUE + " - :quantity";
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    ProductStockRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int reserveStock(Long id, int quantity, LocalDateTime now) {
+        return update(RESERVE, id, quantity, now);
+    }
+
+    @Override
+    public int releaseStock(Long id, int quantity, LocalDateTime now) {
+        return update(RELEASE, id, quantity, now);
+    }
+
+    private int update(String sql, Long id, int quantity, LocalDateTime now) {
+        int updated = entityManager.unwrap(Session.class).createNativeQuery(sql)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .setParameter("id", id)
+                .setParameter("quantity", quantity)
+                .setParameter("now", now)
+                .executeUpdate();
+        if (updated > 0) {
+            evict(id);
+        }
+        return updated;
+    }
+
+    private void evict(Long id) {
+        entityManager.getEntityManagerFactory().getCache().evict(Product.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entityManager.getEntityManagerFactory().getCache().evict(Product.class, id);
+                }
+            });
+        }
+    }
+}
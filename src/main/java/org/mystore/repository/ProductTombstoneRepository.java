@@ -0,0 +1,21 @@
+package org.mystore.repository;
+
+import org.mystore.model.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    /**
+     * Deletions after the position {@code (deletedAt, productId)} and before {@code upTo}, in
+     * that order; see {@link ProductRepository#findChangedAfter}.
+     */
+    @Query("select t from ProductTombstone t " +
+            "where t.deletedAt >= :after and (t.deletedAt > :after or t.productId > :afterId) and t.deletedAt < :upTo " +
+            "order by t.deletedAt, t.productId")
+    List<ProductTombstone> findDeletedAfter(LocalDateTime after, long afterId, LocalDateTime upTo, Limit limit);
+}
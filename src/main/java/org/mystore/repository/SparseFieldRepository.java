@@ -0,0 +1,105 @@
+package org.mystore.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Criteria tuple queries that select only the columns of a {@link FieldSelection}. A nested
+ * path is left-joined only if it reads more than the foreign key. For example,
+ * {@code subcategory.id} is read straight from the product row.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class SparseFieldRepository {
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public SparseFieldRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Rows with an id greater than {@code afterId}, ordered by id, at most {@code limit} of them.
+     */
+    public List<Map<String, Object>> findPage(FieldSelection selection, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = select(query, selection);
+        query.where(cb.greaterThan(root.get("id"), afterId)).orderBy(cb.asc(root.get("id")));
+        return toMaps(entityManager.createQuery(query).setMaxResults(limit).getResultList(), selection);
+    }
+
+    public List<Map<String, Object>> findAll(FieldSelection selection) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = select(query, selection);
+        query.orderBy(cb.asc(root.get("id")));
+        return toMaps(entityManager.createQuery(query).getResultList(), selection);
+    }
+
+    public Optional<Map<String, Object>> findById(FieldSelection selection, Long id) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = select(query, selection);
+        query.where(cb.equal(root.get("id"), id));
+        return toMaps(entityManager.createQuery(query).getResultList(), selection).stream().findFirst();
+    }
+
+    private static Root<?> select(CriteriaQuery<Tuple> query, FieldSelection selection) {
+        Root<?> root = query.from(selection.entityType());
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>();
+        selection.fields().forEach((name, path) -> selections.add(resolve(root, joins, path).alias(name)));
+        query.multiselect(selections);
+        return root;
+    }
+
+    private static Path<?> resolve(Root<?> root, Map<String, From<?, ?>> joins, String path) {
+        String[] parts = path.split("\\.");
+        if (parts.length == 1) {
+            return root.get(parts[0]);
+        }
+        if (parts.length == 2 && parts[1].equals("id")) {
+            return root.get(parts[0]).get("id");
+        }
+        From<?, ?> from = root;
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < parts.length - 1; i++) {
+            joined.append(i == 0 ? "" : ".").append(parts[i]);
+            From<?, ?> parent = from;
+            String attribute = parts[i];
+            from = joins.computeIfAbsent(joined.toString(), key -> parent.join(attribute, JoinType.LEFT));
+        }
+        return from.get(parts[parts.length - 1]);
+    }
+
+    private static List<Map<String, Object>> toMaps(List<Tuple> tuples, FieldSelection selection) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String name : selection.fields().keySet()) {
+                row.put(name, tuple.get(name));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -1,7 +1,25 @@
 package org.mystore.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.mystore.dto.SubcategorySummary;
 import org.mystore.model.Subcategory;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 
 public interface SubcategoryRepository extends JpaRepository<Subcategory, Long> {
-}
\ No newline at end of file
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Subcategory> findAll();
+
+    @Query("select new org.mystore.dto.SubcategorySummary(s.id, s.version, s.name, s.description, c.id, c.version, c.name) " +
+            "from Subcategory s left join s.category c order by s.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<SubcategorySummary> findAllSummaries();
+}
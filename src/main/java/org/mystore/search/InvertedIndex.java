@@ -0,0 +1,214 @@
+package org.mystore.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over a name and a description per document.
+ * <p>
+ * Terms come from {@link Tokenizer}. They live in a sorted dictionary, so a query term also
+ * matches every indexed term it is a prefix of. At most {@link #MAX_PREFIX_EXPANSIONS}
+ * terms are expanded per query term. A document matches when every query term matches it.
+ * Its score is the sum over query terms of {@code weight * idf}, where the weight counts a
+ * name occurrence {@link #NAME_WEIGHT} times and a description occurrence once. A match
+ * through prefix expansion scores half as much as an exact match.
+ * <p>
+ * Reads run concurrently; writes take an exclusive lock.
+ */
+public class InvertedIndex {
+
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+    static final float NAME_WEIGHT = 3f;
+    static final float PREFIX_MATCH_FACTOR = 0.5f;
+
+    private final NavigableMap<String, Postings> dictionary = new TreeMap<>();
+    private final Map<Long, Postings[]> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a document, replacing any previous version of it.
+     */
+    public void put(long id, String name, String description) {
+        Map<String, Float> weights = new LinkedHashMap<>();
+        for (String term : Tokenizer.tokenize(name)) {
+            weights.merge(term, NAME_WEIGHT, Float::sum);
+        }
+        for (String term : Tokenizer.tokenize(description)) {
+            weights.merge(term, 1f, Float::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            Postings[] terms = new Postings[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                Postings postings = dictionary.computeIfAbsent(entry.getKey(), Postings::new);
+                postings.put(id, entry.getValue());
+                terms[i++] = postings;
+            }
+            documents.put(id, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} documents matching every term of {@code query}, best first.
+     */
+    public List<ScoredId> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Matches> perTerm = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Matches matches = match(term);
+                if (matches.size == 0) {
+                    return List.of();
+                }
+                perTerm.add(matches);
+            }
+            perTerm.sort(Comparator.comparingInt(matches -> matches.size));
+            Matches result = perTerm.get(0);
+            for (int i = 1; i < perTerm.size() && result.size > 0; i++) {
+                result = result.intersect(perTerm.get(i));
+            }
+            return result.top(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        Postings[] terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (Postings postings : terms) {
+            postings.remove(id);
+            if (postings.size == 0) {
+                dictionary.remove(postings.term);
+            }
+        }
+    }
+
+    /**
+     * Union of the postings of {@code term} and of the indexed terms it is a prefix of,
+     * keeping the best score per document.
+     */
+    private Matches match(String term) {
+        Matches matches = Matches.EMPTY;
+        int expansions = 0;
+        for (Postings postings : dictionary.tailMap(term, true).values()) {
+            if (!postings.term.startsWith(term) || expansions++ == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            float factor = postings.term.length() == term.length() ? 1f : PREFIX_MATCH_FACTOR;
+            float idf = (float) Math.log(1 + (double) documents.size() / postings.size);
+            matches = matches.union(postings, factor * idf);
+        }
+        return matches;
+    }
+
+    /**
+     * Candidate documents for part of a query: sorted ids with their accumulated scores.
+     */
+    private static final class Matches {
+
+        static final Matches EMPTY = new Matches(new long[0], new float[0], 0);
+
+        final long[] ids;
+        final float[] scores;
+        final int size;
+
+        Matches(long[] ids, float[] scores, int size) {
+            this.ids = ids;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        Matches union(Postings postings, float multiplier) {
+            long[] outIds = new long[size + postings.size];
+            float[] outScores = new float[outIds.length];
+            int a = 0, b = 0, n = 0;
+            while (a < size || b < postings.size) {
+                if (b == postings.size || (a < size && ids[a] < postings.ids[b])) {
+                    outIds[n] = ids[a];
+                    outScores[n++] = scores[a++];
+                } else if (a == size || postings.ids[b] < ids[a]) {
+                    outIds[n] = postings.ids[b];
+                    outScores[n++] = postings.weights[b++] * multiplier;
+                } else {
+                    outIds[n] = ids[a];
+                    outScores[n++] = Math.max(scores[a++], postings.weights[b++] * multiplier);
+                }
+            }
+            return new Matches(outIds, outScores, n);
+        }
+
+        Matches intersect(Matches other) {
+            long[] outIds = new long[Math.min(size, other.size)];
+            float[] outScores = new float[outIds.length];
+            int a = 0, b = 0, n = 0;
+            while (a < size && b < other.size) {
+                if (ids[a] < other.ids[b]) {
+                    a++;
+                } else if (other.ids[b] < ids[a]) {
+                    b++;
+                } else {
+                    outIds[n] = ids[a];
+                    outScores[n++] = scores[a++] + other.scores[b++];
+                }
+            }
+            return new Matches(outIds, outScores, n);
+        }
+
+        List<ScoredId> top(int limit) {
+            // Min-heap of the best `limit` so far; ties go to the lower id
+            Comparator<ScoredId> worstFirst = Comparator.comparingDouble(ScoredId::score)
+                    .thenComparing(Comparator.comparingLong(ScoredId::id).reversed());
+            PriorityQueue<ScoredId> best = new PriorityQueue<>(Math.min(limit, size) + 1, worstFirst);
+            for (int i = 0; i < size; i++) {
+                if (best.size() < limit) {
+                    best.add(new ScoredId(ids[i], scores[i]));
+                } else if (scores[i] > best.peek().score()) {
+                    best.poll();
+                    best.add(new ScoredId(ids[i], scores[i]));
+                }
+            }
+            List<ScoredId> result = new ArrayList<>(best);
+            result.sort(worstFirst.reversed());
+            return result;
+        }
+    }
+}
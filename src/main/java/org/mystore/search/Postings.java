@@ -0,0 +1,60 @@
+package org.mystore.search;
+
+import java.util.Arrays;
+
+/**
+ * The documents containing one term: ids in ascending order with a parallel array of term
+ * weights. Ids are mostly assigned in increasing order, so adds are usually appends.
+ * Not thread-safe; guarded by the owning {@link InvertedIndex}.
+ */
+final class Postings {
+
+    final String term;
+    long[] ids = new long[2];
+    float[] weights = new float[2];
+    int size;
+
+    Postings(String term) {
+        this.term = term;
+    }
+
+    void put(long id, float weight) {
+        if (size == 0 || id > ids[size - 1]) {
+            ensureCapacity();
+            ids[size] = id;
+            weights[size] = weight;
+            size++;
+            return;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            weights[index] = weight;
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        weights[insertAt] = weight;
+        size++;
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+        size--;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            int capacity = ids.length + (ids.length >> 1) + 1;
+            ids = Arrays.copyOf(ids, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+    }
+}
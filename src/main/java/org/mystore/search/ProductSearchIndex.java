@@ -0,0 +1,121 @@
+package org.mystore.search;
+
+import org.mystore.dto.ProductText;
+import org.mystore.model.Product;
+import org.mystore.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Full-text index over product names and descriptions.
+ * <p>
+ * The product write paths keep it up to date by calling {@link #index} and {@link #remove}
+ * after each commit. {@link #rebuild()} reloads it from the database. It runs on startup and
+ * builds a fresh index while searches keep using the old one. Products written while a
+ * rebuild streams the catalog are re-read after the swap, so the rebuild cannot lose them.
+ * Each re-read holds the write lock, so a concurrent write either lands before it and is
+ * read back, or after it and replaces it.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean rebuildOnStartup;
+    private final Object writeLock = new Object();
+
+    private volatile InvertedIndex index = new InvertedIndex();
+    private volatile Set<Long> changedDuringRebuild;
+
+    @Autowired
+    public ProductSearchIndex(ProductRepository productRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${storeapp.search.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public void index(Product product) {
+        index(product.getId(), product.getName(), product.getDescription());
+    }
+
+    public void index(Long id, String name, String description) {
+        synchronized (writeLock) {
+            markChanged(id);
+            index.put(id, name, description);
+        }
+    }
+
+    public void remove(Long id) {
+        synchronized (writeLock) {
+            markChanged(id);
+            index.remove(id);
+        }
+    }
+
+    /**
+     * Product ids matching every term of {@code query} (prefixes included), best first.
+     */
+    public List<ScoredId> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database and swaps it in.
+     *
+     * @return the number of indexed products
+     */
+    public synchronized int rebuild() {
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        InvertedIndex fresh = new InvertedIndex();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductText> products = productRepository.streamAllText()) {
+                    products.forEach(product -> fresh.put(product.id(), product.name(), product.description()));
+                }
+            });
+            index = fresh;
+        } finally {
+            changedDuringRebuild = null;
+        }
+        for (Long id : changed) {
+            synchronized (writeLock) {
+                productRepository.findById(id).ifPresentOrElse(
+                        product -> fresh.put(id, product.getName(), product.getDescription()),
+                        () -> fresh.remove(id));
+            }
+        }
+        return fresh.size();
+    }
+
+    private void markChanged(Long id) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(id);
+        }
+    }
+}
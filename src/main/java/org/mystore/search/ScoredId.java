@@ -0,0 +1,7 @@
+package org.mystore.search;
+
+/**
+ * A matching document and its relevance score; higher is better.
+ */
+public record ScoredId(long id, float score) {
+}
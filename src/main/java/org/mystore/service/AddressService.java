@@ -1,47 +1,85 @@
 package org.mystore.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.mystore.config.MetricsConfig;
 import org.mystore.model.Address;
+import org.mystore.model.Client;
 import org.mystore.repository.AddressRepository;
+import org.mystore.repository.ClientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class AddressService {
 
     private final AddressRepository addressRepository;
+    private final ClientRepository clientRepository;
+    private final ClientService clientService;
 
     @Autowired
-    public AddressService(AddressRepository addressRepository) {
+    public AddressService(AddressRepository addressRepository, ClientRepository clientRepository,
+                          ClientService clientService) {
         this.addressRepository = addressRepository;
+        this.clientRepository = clientRepository;
+        this.clientService = clientService;
     }
 
     public Optional<Address> getAddressById(Long id) {
         return addressRepository.findById(id);
     }
 
+    /**
+     * @throws IllegalArgumentException if the address names a client that does not exist
+     */
+    @Transactional
     public Address createAddress(Address address) {
-        return addressRepository.save(address);
+        // An id-only client carries no version and would be rejected as a stale detached entity
+        if (address.getClient() != null && address.getClient().getId() != null) {
+            Long clientId = address.getClient().getId();
+            address.setClient(clientRepository.findById(clientId)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown client " + clientId)));
+        }
+        Address saved = addressRepository.save(address);
+        recordClientChange(saved.getClient());
+        return saved;
     }
 
-    public Optional<Address> updateAddress(Long id, Address updatedAddress) {
+    @Transactional
+    public Optional<Address> updateAddress(Long id, Address updatedAddress, Long expectedVersion) {
         return addressRepository.findById(id)
                 .map(address -> {
+                    VersionChecks.requireVersion(Address.class, id, address.getVersion(), expectedVersion);
                     address.setStreet(updatedAddress.getStreet());
                     address.setCity(updatedAddress.getCity());
                     address.setState(updatedAddress.getState());
                     address.setZipCode(updatedAddress.getZipCode());
-                    return addressRepository.save(address);
+                    Address saved = addressRepository.save(address);
+                    recordClientChange(saved.getClient());
+                    return saved;
                 });
     }
 
-    public boolean deleteAddress(Long id) {
-        if (addressRepository.existsById(id)) {
-            addressRepository.deleteById(id);
-            return true;
+    @Transactional
+    public boolean deleteAddress(Long id, Long expectedVersion) {
+        return addressRepository.findById(id)
+                .map(address -> {
+                    VersionChecks.requireVersion(Address.class, id, address.getVersion(), expectedVersion);
+                    addressRepository.delete(address);
+                    recordClientChange(address.getClient());
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    // Addresses are part of the client's outbox payload, so changing one updates the client
+    private void recordClientChange(Client client) {
+        if (client != null) {
+            clientService.recordAddressChange(client);
         }
-        return false;
     }
 }
 
@@ -1,59 +1,124 @@
 package org.mystore.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.mystore.config.MetricsConfig;
+import org.mystore.dto.AddressSummary;
+import org.mystore.dto.ClientSummary;
 import org.mystore.model.Address;
 import org.mystore.model.Client;
+import org.mystore.model.OutboxEvent.AggregateType;
+import org.mystore.model.OutboxEvent.EventType;
+import org.mystore.outbox.OutboxWriter;
+import org.mystore.repository.AddressRepository;
 import org.mystore.repository.ClientRepository;
+import org.mystore.repository.FieldSelection;
+import org.mystore.repository.SparseFieldRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class ClientService {
+    /**
+     * Fields that can be requested with {@code ?fields=}. Addresses are not selectable.
+     */
+    public static final Map<String, String> SPARSE_FIELDS = FieldSelection.whitelist(
+            "id", "id",
+            "version", "version",
+            "name", "name",
+            "email", "email",
+            "phone", "phone");
+
     private final ClientRepository clientRepository;
+    private final AddressRepository addressRepository;
+    private final SparseFieldRepository sparseFieldRepository;
+    private final OutboxWriter outboxWriter;
 
     @Autowired
-    public ClientService(ClientRepository clientRepository) {
+    public ClientService(ClientRepository clientRepository, AddressRepository addressRepository,
+                         SparseFieldRepository sparseFieldRepository, OutboxWriter outboxWriter) {
         this.clientRepository = clientRepository;
+        this.addressRepository = addressRepository;
+        this.sparseFieldRepository = sparseFieldRepository;
+        this.outboxWriter = outboxWriter;
+    }
+
+    /**
+     * Lists clients with their addresses using two narrow selects, independent of the number of clients.
+     */
+    public List<ClientSummary> getAllClients() {
+        List<ClientSummary> clients = clientRepository.findAllSummaries();
+        Map<Long, List<AddressSummary>> addressesByClient = addressRepository.findAllClientAddressSummaries().stream()
+                .collect(Collectors.groupingBy(AddressSummary::clientId));
+        return clients.stream()
+                .map(client -> client.withAddresses(addressesByClient.getOrDefault(client.id(), List.of())))
+                .toList();
     }
 
-    public List<Client> getAllClients() {
-        return clientRepository.findAll();
+    /**
+     * @throws IllegalArgumentException for an unknown field
+     */
+    public List<Map<String, Object>> getAllClients(String fields) {
+        return sparseFieldRepository.findAll(FieldSelection.parse(Client.class, SPARSE_FIELDS, fields));
     }
 
     public Optional<Client> getClientById(Long id) {
-        return clientRepository.findById(id);
+        return clientRepository.findWithAddressesById(id);
     }
 
+    /**
+     * @throws IllegalArgumentException for an unknown field
+     */
+    public Optional<Map<String, Object>> getClientFields(Long id, String fields) {
+        return sparseFieldRepository.findById(FieldSelection.parse(Client.class, SPARSE_FIELDS, fields), id);
+    }
+
+    @Transactional
     public Client createClient(Client client) {
-        return clientRepository.save(client);
+        Client saved = clientRepository.save(client);
+        recordChange(EventType.CREATED, saved);
+        return saved;
     }
 
-    public Optional<Client> updateClient(Long id, Client updatedClient) {
+    @Transactional
+    public Optional<Client> updateClient(Long id, Client updatedClient, Long expectedVersion) {
         return clientRepository.findById(id)
                 .map(client -> {
+                    VersionChecks.requireVersion(Client.class, id, client.getVersion(), expectedVersion);
                     client.setName(updatedClient.getName());
                     client.setEmail(updatedClient.getEmail());
                     client.setPhone(updatedClient.getPhone());
-                    return clientRepository.save(client);
+                    Client saved = clientRepository.save(client);
+                    recordChange(EventType.UPDATED, saved);
+                    return saved;
                 });
     }
 
-    public boolean deleteClient(Long id) {
-        if (clientRepository.existsById(id)) {
-            clientRepository.deleteById(id);
-            return true;
-        }
-        return false;
+    @Transactional
+    public boolean deleteClient(Long id, Long expectedVersion) {
+        return clientRepository.findById(id)
+                .map(client -> {
+                    VersionChecks.requireVersion(Client.class, id, client.getVersion(), expectedVersion);
+                    clientRepository.delete(client);
+                    outboxWriter.append(AggregateType.CLIENT, id, EventType.DELETED, Map.of("id", id));
+                    return true;
+                })
+                .orElse(false);
     }
     @Transactional
     public Optional<Client> addAddressToClient(Long clientId, Address address) {
         return clientRepository.findById(clientId)
                 .map(client -> {
                     client.addAddress(address);
-                    return clientRepository.save(client);
+                    Client saved = clientRepository.save(client);
+                    recordChange(EventType.UPDATED, saved);
+                    return saved;
                 });
     }
 
@@ -62,8 +127,29 @@ public class ClientService {
         return clientRepository.findById(clientId)
                 .map(client -> {
                     client.getAddresses().removeIf(address -> address.getId().equals(addressId));
-                    return clientRepository.save(client);
+                    Client saved = clientRepository.save(client);
+                    recordChange(EventType.UPDATED, saved);
+                    return saved;
                 });
     }
 
+    /**
+     * Records that an address of {@code client} was created, changed or deleted, as an UPDATED
+     * event in the caller's transaction.
+     */
+    public void recordAddressChange(Client client) {
+        recordChange(EventType.UPDATED, client);
+    }
+
+    // Flushes first so that the event carries the version and address ids that commit
+    private void recordChange(EventType eventType, Client client) {
+        clientRepository.flush();
+        ClientSummary summary = new ClientSummary(client.getId(), client.getVersion(), client.getName(),
+                client.getEmail(), client.getPhone(), client.getAddresses().stream()
+                .map(address -> new AddressSummary(client.getId(), address.getId(), address.getStreet(),
+                        address.getCity(), address.getState(), address.getZipCode()))
+                .toList());
+        outboxWriter.append(AggregateType.CLIENT, client.getId(), eventType, summary);
+    }
+
 }
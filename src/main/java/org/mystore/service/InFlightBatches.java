@@ -0,0 +1,83 @@
+package org.mystore.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Shares batch loads between concurrent callers: a key that another caller is already loading
+ * is not loaded again, the caller waits for that result instead.
+ * <p>
+ * A caller first claims every key nobody is loading, loads all of its claimed keys, and only
+ * then waits for the keys claimed by others. Since nobody waits while holding unfinished
+ * claims, two batches sharing keys cannot wait on each other.
+ */
+final class InFlightBatches<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the value of each key that {@code loader} found, in the iteration order of
+     * {@code keys}. {@code loader} receives only the keys this caller claimed and may leave out
+     * keys that do not exist.
+     *
+     * @throws RuntimeException whatever {@code loader} threw, here or in the caller that
+     *                          claimed one of the keys
+     */
+    Map<K, V> load(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> claimed = new LinkedHashMap<>();
+        for (K key : keys) {
+            CompletableFuture<V> claim = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, claim);
+            if (existing == null) {
+                claimed.put(key, claim);
+                pending.put(key, claim);
+            } else {
+                pending.put(key, existing);
+            }
+        }
+
+        if (!claimed.isEmpty()) {
+            try {
+                Map<K, V> loaded = loader.apply(new ArrayList<>(claimed.keySet()));
+                claimed.forEach((key, claim) -> claim.complete(loaded.get(key)));
+            } catch (RuntimeException | Error e) {
+                claimed.values().forEach(claim -> claim.completeExceptionally(e));
+                throw e;
+            } finally {
+                claimed.forEach(inFlight::remove);
+            }
+        }
+
+        Map<K, V> result = new LinkedHashMap<>();
+        pending.forEach((key, future) -> {
+            V value = join(future);
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
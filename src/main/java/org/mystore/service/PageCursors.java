@@ -0,0 +1,92 @@
+package org.mystore.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque continuation tokens handed out by keyset-paginated listings.
+ */
+public final class PageCursors {
+
+    private static final String ID_PREFIX = "id:";
+    private static final String CHANGE_PREFIX = "at:";
+
+    /**
+     * A position in a listing ordered by a timestamp, then by id.
+     */
+    public record ChangePosition(LocalDateTime changedAt, long id) {
+
+        /**
+         * Before every change the feed can return.
+         */
+        public static final ChangePosition START = new ChangePosition(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+    }
+
+    private PageCursors() {
+    }
+
+    public static String encodeId(long lastId) {
+        return encode(ID_PREFIX + lastId);
+    }
+
+    /**
+     * Returns the id the next page starts after, or 0 when no cursor was given.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String decoded = decode(cursor);
+        if (!decoded.startsWith(ID_PREFIX)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            return Long.parseLong(decoded.substring(ID_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public static String encodeChange(ChangePosition position) {
+        return encode(CHANGE_PREFIX + position.changedAt() + "/" + position.id());
+    }
+
+    /**
+     * Returns the position the next page starts after, or {@link ChangePosition#START} when no
+     * cursor was given.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ChangePosition decodeChange(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ChangePosition.START;
+        }
+        String decoded = decode(cursor);
+        int separator = decoded.lastIndexOf('/');
+        if (!decoded.startsWith(CHANGE_PREFIX) || separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            return new ChangePosition(LocalDateTime.parse(decoded.substring(CHANGE_PREFIX.length(), separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package org.mystore.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.mystore.config.MetricsConfig;
+import org.mystore.dto.BulkItemResult;
+import org.mystore.dto.ProductSnapshot;
+import org.mystore.event.CatalogChangedEvent;
+import org.mystore.event.ProductChangedEvent;
+import org.mystore.event.ProductVersionChangedEvent;
+import org.mystore.model.OutboxEvent.AggregateType;
+import org.mystore.model.OutboxEvent.EventType;
+import org.mystore.model.Product;
+import org.mystore.model.Subcategory;
+import org.mystore.outbox.OutboxWriter;
+import org.mystore.repository.ProductRepository;
+import org.mystore.repository.SubcategoryRepository;
+import org.mystore.search.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and updates products in bulk. Items are written in chunks, each chunk in its own
+ * transaction, so Hibernate can send the inserts and updates as JDBC batches.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+public class ProductBulkService {
+
+    private final ProductRepository productRepository;
+    private final SubcategoryRepository subcategoryRepository;
+    private final EntityManager entityManager;
+    private final ProductSearchIndex productSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxItems;
+
+    @Autowired
+    public ProductBulkService(ProductRepository productRepository,
+                              SubcategoryRepository subcategoryRepository,
+                              EntityManager entityManager,
+                              ProductSearchIndex productSearchIndex,
+                              ApplicationEventPublisher eventPublisher,
+                              OutboxWriter outboxWriter,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${storeapp.products.bulk.chunk-size:500}") int chunkSize,
+                              @Value("${storeapp.products.bulk.max-items:10000}") int maxItems) {
+        this.productRepository = productRepository;
+        this.subcategoryRepository = subcategoryRepository;
+        this.entityManager = entityManager;
+        this.productSearchIndex = productSearchIndex;
+        this.eventPublisher = eventPublisher;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Creates the products without an id and updates the ones with an id. If a chunk fails,
+     * its items are retried one by one so a single bad item does not fail its neighbours.
+     *
+     * @return one result per input item, in input order
+     * @throws IllegalArgumentException if more than the configured maximum of items is given
+     */
+    public List<BulkItemResult> upsertProducts(List<Product> products) {
+        if (products.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " products per request");
+        }
+        BulkItemResult[] results = new BulkItemResult[products.size()];
+        for (int start = 0; start < products.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, products.size());
+            List<Product> newProducts = products.subList(start, end).stream()
+                    .filter(product -> product != null && product.getId() == null)
+                    .toList();
+            try {
+                writeChunk(products, start, end, results);
+            } catch (RuntimeException chunkFailure) {
+                newProducts.forEach(ProductBulkService::resetNew);
+                for (int i = start; i < end; i++) {
+                    try {
+                        writeChunk(products, i, i + 1, results);
+                    } catch (RuntimeException itemFailure) {
+                        Product product = products.get(i);
+                        if (newProducts.contains(product)) {
+                            resetNew(product);
+                        }
+                        results[i] = BulkItemResult.failed(i, product != null ? product.getId() : null, itemFailure.getMessage());
+                    }
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void writeChunk(List<Product> products, int start, int end, BulkItemResult[] results) {
+        BulkItemResult[] chunkResults = transactionTemplate.execute(status -> {
+            List<Product> chunk = products.subList(start, end);
+            Map<Long, Product> existing = productRepository.findAllById(chunk.stream()
+                            .filter(Objects::nonNull)
+                            .map(Product::getId)
+                            .filter(Objects::nonNull)
+                            .toList())
+                    .stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+            BulkItemResult[] written = new BulkItemResult[chunk.size()];
+            List<Product> toCreate = new ArrayList<>();
+            List<Integer> createIndexes = new ArrayList<>();
+            Map<Product, ProductChangedEvent> updated = new LinkedHashMap<>();
+            boolean catalogChanged = false;
+            for (int i = 0; i < chunk.size(); i++) {
+                Product incoming = chunk.get(i);
+                int index = start + i;
+                if (incoming == null) {
+                    written[i] = BulkItemResult.failed(index, null, "Missing product");
+                } else if (incoming.getId() == null) {
+                    incoming.setSubcategory(resolveSubcategory(incoming.getSubcategory()));
+                    toCreate.add(incoming);
+                    createIndexes.add(i);
+                    catalogChanged |= incoming.getSubcategory() != null;
+                } else {
+                    Product product = existing.get(incoming.getId());
+                    if (product == null) {
+                        written[i] = BulkItemResult.notFound(index, incoming.getId());
+                    } else {
+                        updated.put(product, ProductChangedEvent.of(product));
+                        Long subcategoryBefore = subcategoryId(product);
+                        boolean activeBefore = product.isActive();
+                        applyUpdate(product, incoming);
+                        catalogChanged |= !Objects.equals(subcategoryBefore, subcategoryId(product))
+                                || activeBefore != product.isActive();
+                        written[i] = BulkItemResult.updated(index, product.getId());
+                    }
+                }
+            }
+            // The managed instances, which are copies if Hibernate merged rather than persisted
+            List<Product> created = productRepository.saveAll(toCreate);
+            entityManager.flush();
+            // After the flush, so the payloads carry the ids and versions that commit
+            for (int k = 0; k < created.size(); k++) {
+                Product product = created.get(k);
+                outboxWriter.append(AggregateType.PRODUCT, product.getId(), EventType.CREATED, ProductSnapshot.of(product));
+                written[createIndexes.get(k)] = BulkItemResult.created(start + createIndexes.get(k), product.getId());
+            }
+            updated.keySet().forEach(product -> outboxWriter.append(AggregateType.PRODUCT, product.getId(),
+                    EventType.UPDATED, ProductSnapshot.of(product)));
+            entityManager.flush();
+            entityManager.clear();
+            // Published within the chunk's transaction, so they are dropped if it rolls back
+            updated.forEach((product, before) -> {
+                ProductChangedEvent after = ProductChangedEvent.of(product);
+                eventPublisher.publishEvent(after.differsFrom(before) ? after : new ProductVersionChangedEvent(after));
+            });
+            if (catalogChanged) {
+                eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+            }
+            return written;
+        });
+        System.arraycopy(chunkResults, 0, results, start, chunkResults.length);
+        // Only committed writes reach the search index
+        for (int i = 0; i < chunkResults.length; i++) {
+            BulkItemResult result = chunkResults[i];
+            if (result.status() == BulkItemResult.Status.CREATED || result.status() == BulkItemResult.Status.UPDATED) {
+                Product written = products.get(start + i);
+                productSearchIndex.index(result.id(), written.getName(), written.getDescription());
+            }
+        }
+    }
+
+    private void applyUpdate(Product product, Product updatedProduct) {
+        product.setName(updatedProduct.getName());
+        product.setDescription(updatedProduct.getDescription());
+        product.setUnitPrice(updatedProduct.getUnitPrice());
+        product.setStockQuantity(updatedProduct.getStockQuantity());
+        product.setSku(updatedProduct.getSku());
+        product.setActive(updatedProduct.isActive());
+        if (updatedProduct.getSubcategory() != null && updatedProduct.getSubcategory().getId() != null) {
+            product.setSubcategory(resolveSubcategory(updatedProduct.getSubcategory()));
+        }
+        product.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private static Long subcategoryId(Product product) {
+        return product.getSubcategory() != null ? product.getSubcategory().getId() : null;
+    }
+
+    // A reference avoids one select per item; an unknown id surfaces as a constraint violation on flush.
+    private Subcategory resolveSubcategory(Subcategory subcategory) {
+        if (subcategory == null || subcategory.getId() == null) {
+            return null;
+        }
+        return subcategoryRepository.getReferenceById(subcategory.getId());
+    }
+
+    // A rolled back insert leaves the sequence id and the initial version on the instance. Both
+    // must go, or the retry treats the product as detached and merges a copy instead of persisting it.
+    private static void resetNew(Product product) {
+        product.setId(null);
+        product.setVersion(null);
+    }
+}
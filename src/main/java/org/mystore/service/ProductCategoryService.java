@@ -1,49 +1,88 @@
 package org.mystore.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.mystore.config.CacheConfig;
+import org.mystore.config.MetricsConfig;
+import org.mystore.event.CatalogChangedEvent;
 import org.mystore.model.ProductCategory;
 import org.mystore.repository.ProductCategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class ProductCategoryService {
 
     private final ProductCategoryRepository productCategoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    // Concurrent cache misses share one database load
+    private final SingleFlight<String, List<ProductCategory>> allLoads;
+    private final SingleFlight<Long, Optional<ProductCategory>> byIdLoads;
 
     @Autowired
-    public ProductCategoryService(ProductCategoryRepository productCategoryRepository) {
+    public ProductCategoryService(ProductCategoryRepository productCategoryRepository, SingleFlights singleFlights,
+                                  ApplicationEventPublisher eventPublisher) {
         this.productCategoryRepository = productCategoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.allLoads = singleFlights.create(CacheConfig.PRODUCT_CATEGORIES);
+        this.byIdLoads = singleFlights.create(CacheConfig.PRODUCT_CATEGORY_BY_ID);
     }
 
+    @Cacheable(CacheConfig.PRODUCT_CATEGORIES)
     public List<ProductCategory> getAllProductCategories() {
-        return productCategoryRepository.findAll();
+        return allLoads.load(CacheConfig.PRODUCT_CATEGORIES, productCategoryRepository::findAll);
     }
 
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_CATEGORY_BY_ID, key = "#id", unless = "#result == null")
     public Optional<ProductCategory> getProductCategoryById(Long id) {
-        return productCategoryRepository.findById(id);
+        return byIdLoads.load(id, () -> productCategoryRepository.findById(id));
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_CATEGORIES, allEntries = true)
     public ProductCategory createProductCategory(ProductCategory productCategory) {
-        return productCategoryRepository.save(productCategory);
+        ProductCategory saved = productCategoryRepository.save(productCategory);
+        eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+        return saved;
     }
 
-    public Optional<ProductCategory> updateProductCategory(Long id, ProductCategory updatedCategory) {
+    // Subcategories embed their category, so their cached copies go stale too.
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_CATEGORY_BY_ID, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.SUBCATEGORIES, CacheConfig.SUBCATEGORY_BY_ID}, allEntries = true)
+    })
+    public Optional<ProductCategory> updateProductCategory(Long id, ProductCategory updatedCategory, Long expectedVersion) {
         return productCategoryRepository.findById(id)
                 .map(category -> {
+                    VersionChecks.requireVersion(ProductCategory.class, id, category.getVersion(), expectedVersion);
                     category.setName(updatedCategory.getName());
                     category.setDescription(updatedCategory.getDescription());
-                    return productCategoryRepository.save(category);
+                    ProductCategory saved = productCategoryRepository.save(category);
+                    eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+                    return saved;
                 });
     }
 
-    public boolean deleteProductCategory(Long id) {
-        if (productCategoryRepository.existsById(id)) {
-            productCategoryRepository.deleteById(id);
-            return true;
-        }
-        return false;
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_CATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_CATEGORY_BY_ID, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.SUBCATEGORIES, CacheConfig.SUBCATEGORY_BY_ID}, allEntries = true)
+    })
+    public boolean deleteProductCategory(Long id, Long expectedVersion) {
+        return productCategoryRepository.findById(id)
+                .map(category -> {
+                    VersionChecks.requireVersion(ProductCategory.class, id, category.getVersion(), expectedVersion);
+                    productCategoryRepository.delete(category);
+                    eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+                    return true;
+                })
+                .orElse(false);
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package org.mystore.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.mystore.config.MetricsConfig;
+import org.mystore.dto.ProductChange;
+import org.mystore.dto.ProductChangePage;
+import org.mystore.repository.ProductRepository;
+import org.mystore.repository.ProductTombstoneRepository;
+import org.mystore.service.PageCursors.ChangePosition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Serves the product change feed: products created or updated, and products deleted, after a
+ * cursor, in {@code (changedAt, id)} order.
+ * <p>
+ * A write stamps its time before it commits, so a change can become visible after later
+ * changes have already been served. The feed therefore stops {@code settle-time} before now,
+ * which must exceed the longest product write transaction.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+public class ProductChangeService {
+
+    private static final Comparator<ProductChange> FEED_ORDER =
+            Comparator.comparing(ProductChange::changedAt).thenComparing(ProductChange::id);
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final Duration settleTime;
+
+    @Autowired
+    public ProductChangeService(ProductRepository productRepository,
+                                ProductTombstoneRepository productTombstoneRepository,
+                                @Value("${storeapp.products.changes.settle-time:2s}") Duration settleTime) {
+        this.productRepository = productRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.settleTime = settleTime;
+    }
+
+    /**
+     * Returns the changes after {@code cursor}, or, without a cursor, those made at or after
+     * {@code since} (from the beginning if both are null).
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public ProductChangePage getChanges(String cursor, LocalDateTime since, int size) {
+        int pageSize = Math.max(1, Math.min(size, ProductService.MAX_PAGE_SIZE));
+        ChangePosition after = cursor == null && since != null
+                ? new ChangePosition(since, 0L)
+                : PageCursors.decodeChange(cursor);
+        LocalDateTime upTo = LocalDateTime.now().minus(settleTime);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<ProductChange> changes = new ArrayList<>(2 * (pageSize + 1));
+        productRepository.findChangedAfter(after.changedAt(), after.id(), upTo, limit)
+                .forEach(product -> changes.add(ProductChange.upsert(product)));
+        productTombstoneRepository.findDeletedAfter(after.changedAt(), after.id(), upTo, limit)
+                .forEach(tombstone -> changes.add(ProductChange.delete(
+                        tombstone.getProductId(), tombstone.getSku(), tombstone.getDeletedAt())));
+        changes.sort(FEED_ORDER);
+
+        boolean hasMore = changes.size() > pageSize;
+        List<ProductChange> page = hasMore ? changes.subList(0, pageSize) : changes;
+        ChangePosition next = page.isEmpty()
+                ? after
+                : new ChangePosition(page.get(page.size() - 1).changedAt(), page.get(page.size() - 1).id());
+        return new ProductChangePage(List.copyOf(page), PageCursors.encodeChange(next), hasMore);
+    }
+}
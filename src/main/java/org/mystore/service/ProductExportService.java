@@ -0,0 +1,65 @@
+package org.mystore.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.mystore.config.MetricsConfig;
+import org.mystore.json.ProductJsonWriter;
+import org.mystore.json.ProductJsonWriters;
+import org.mystore.model.Product;
+import org.mystore.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the full product catalog as newline-delimited JSON, one product per line, with
+ * {@link ProductJsonWriter} rather than Jackson.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+public class ProductExportService {
+
+    static final int FLUSH_INTERVAL = 500;
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ProductJsonWriters productJsonWriters;
+
+    @Autowired
+    public ProductExportService(ProductRepository productRepository, EntityManager entityManager,
+                                ProductJsonWriters productJsonWriters) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.productJsonWriters = productJsonWriters;
+    }
+
+    /**
+     * Streams every product to {@code out} straight from a database cursor. Each product is
+     * detached once written, so heap usage stays constant regardless of catalog size.
+     *
+     * @return the number of products written
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAllForExport();
+             ProductJsonWriter writer = productJsonWriters.open(out)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                writer.writeProduct(product);
+                writer.writeNewLine();
+                entityManager.detach(product);
+                if (++count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,108 @@
+package org.mystore.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.mystore.config.MetricsConfig;
+import org.mystore.dto.ProductBatch;
+import org.mystore.dto.ProductSummary;
+import org.mystore.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Looks up many products by id or SKU at once, e.g. for the lines of a cart. The keys are
+ * loaded with {@code IN} queries of at most {@code chunk-size} keys each, so a typical cart costs
+ * a single query. Keys that a concurrent lookup is already loading are shared with it instead of
+ * being queried again, see {@link InFlightBatches}.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+public class ProductLookupService {
+
+    private final ProductRepository productRepository;
+    private final int chunkSize;
+    private final int maxKeys;
+    private final InFlightBatches<Long, ProductSummary> idLoads = new InFlightBatches<>();
+    private final InFlightBatches<String, ProductSummary> skuLoads = new InFlightBatches<>();
+
+    @Autowired
+    public ProductLookupService(ProductRepository productRepository,
+                                @Value("${storeapp.products.batch.chunk-size:100}") int chunkSize,
+                                @Value("${storeapp.products.batch.max-keys:500}") int maxKeys) {
+        this.productRepository = productRepository;
+        this.chunkSize = chunkSize;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code ids} is empty, contains null or has more than
+     *                                  {@code max-keys} distinct ids
+     */
+    public ProductBatch<Long> getProductsByIds(List<Long> ids) {
+        Set<Long> keys = distinct(ids);
+        Map<Long, ProductSummary> found = idLoads.load(keys, claimed ->
+                loadInChunks(claimed, productRepository::findSummariesByIdIn, ProductSummary::id));
+        return toBatch(keys, found);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code skus} is empty, contains null or has more than
+     *                                  {@code max-keys} distinct SKUs
+     */
+    public ProductBatch<String> getProductsBySkus(List<String> skus) {
+        Set<String> keys = distinct(skus);
+        Map<String, ProductSummary> found = skuLoads.load(keys, claimed ->
+                loadInChunks(claimed, productRepository::findSummariesBySkuIn, ProductSummary::sku));
+        return toBatch(keys, found);
+    }
+
+    private <K> Set<K> distinct(List<K> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one key is required");
+        }
+        Set<K> distinct = new LinkedHashSet<>(keys);
+        if (distinct.contains(null)) {
+            throw new IllegalArgumentException("Keys must not be empty");
+        }
+        if (distinct.size() > maxKeys) {
+            throw new IllegalArgumentException("At most " + maxKeys + " keys can be requested at once");
+        }
+        return distinct;
+    }
+
+    private <K> Map<K, ProductSummary> loadInChunks(List<K> keys,
+                                                    Function<Collection<K>, List<ProductSummary>> query,
+                                                    Function<ProductSummary, K> key) {
+        Map<K, ProductSummary> loaded = new HashMap<>(keys.size() * 2);
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            List<K> chunk = keys.subList(from, Math.min(from + chunkSize, keys.size()));
+            for (ProductSummary summary : query.apply(chunk)) {
+                loaded.put(key.apply(summary), summary);
+            }
+        }
+        return loaded;
+    }
+
+    private static <K> ProductBatch<K> toBatch(Set<K> keys, Map<K, ProductSummary> found) {
+        List<ProductSummary> products = new ArrayList<>(found.size());
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            ProductSummary summary = found.get(key);
+            if (summary != null) {
+                products.add(summary);
+            } else {
+                missing.add(key);
+            }
+        }
+        return new ProductBatch<>(products, missing);
+    }
+}
@@ -1,40 +1,214 @@
 package org.mystore.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.mystore.config.MetricsConfig;
+import org.mystore.dto.CursorPage;
+import org.mystore.dto.ProductChange;
+import org.mystore.dto.ProductSearchCriteria;
+import org.mystore.dto.ProductSearchHit;
+import org.mystore.dto.ProductSnapshot;
+import org.mystore.dto.ProductSummary;
+import org.mystore.dto.StockUpdateResult;
+import org.mystore.event.CatalogChangedEvent;
+import org.mystore.event.ProductChangedEvent;
+import org.mystore.event.ProductDeletedEvent;
+import org.mystore.event.ProductVersionChangedEvent;
+import org.mystore.model.OutboxEvent.AggregateType;
+import org.mystore.model.OutboxEvent.EventType;
 import org.mystore.model.Product;
+import org.mystore.model.ProductTombstone;
+import org.mystore.model.Subcategory;
+import org.mystore.outbox.OutboxWriter;
+import org.mystore.repository.FieldSelection;
 import org.mystore.repository.ProductRepository;
+import org.mystore.repository.ProductSpecifications;
+import org.mystore.repository.ProductTombstoneRepository;
+import org.mystore.repository.SparseFieldRepository;
+import org.mystore.search.ProductSearchIndex;
+import org.mystore.search.ScoredId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Fields that can be requested with {@code ?fields=}, mapped to Product attribute paths.
+     */
+    public static final Map<String, String> SPARSE_FIELDS = FieldSelection.whitelist(
+            "id", "id",
+            "version", "version",
+            "name", "name",
+            "description", "description",
+            "unitPrice", "unitPrice",
+            "stockQuantity", "stockQuantity",
+            "sku", "sku",
+            "active", "active",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt",
+            "subcategoryId", "subcategory.id",
+            "subcategoryName", "subcategory.name");
+
     private final ProductRepository productRepository;
     private final SubcategoryService subcategoryService;
+    private final SparseFieldRepository sparseFieldRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
+    private final SingleFlight<Long, Optional<Product>> byIdLoads;
 
     @Autowired
-    public ProductService(ProductRepository productRepository, SubcategoryService subcategoryService) {
+    public ProductService(ProductRepository productRepository, SubcategoryService subcategoryService,
+                          SparseFieldRepository sparseFieldRepository, ProductSearchIndex productSearchIndex,
+                          ProductTombstoneRepository productTombstoneRepository,
+                          ApplicationEventPublisher eventPublisher, OutboxWriter outboxWriter,
+                          SingleFlights singleFlights) {
         this.productRepository = productRepository;
         this.subcategoryService = subcategoryService;
+        this.sparseFieldRepository = sparseFieldRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.eventPublisher = eventPublisher;
+        this.outboxWriter = outboxWriter;
+        this.byIdLoads = singleFlights.create("product");
     }
 
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    /**
+     * Returns at most {@code size} products ordered by id, starting after the given cursor.
+     * Only one page (plus a single look-ahead row) is ever loaded from the database.
+     */
+    public CursorPage<ProductSummary> getProductPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = PageCursors.decodeId(cursor);
+        List<ProductSummary> rows = productRepository.findSummariesByIdGreaterThan(afterId, Limit.of(pageSize + 1));
+        return toPage(rows, pageSize, ProductSummary::id);
+    }
+
+    /**
+     * Same paging as {@link #getProductPage(String, int)}, but selects only the requested
+     * {@link #SPARSE_FIELDS} from the database.
+     *
+     * @throws IllegalArgumentException for an invalid cursor or an unknown field
+     */
+    public CursorPage<Map<String, Object>> getProductPage(String cursor, int size, String fields) {
+        FieldSelection selection = FieldSelection.parse(Product.class, SPARSE_FIELDS, fields);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = PageCursors.decodeId(cursor);
+        List<Map<String, Object>> rows = sparseFieldRepository.findPage(selection, afterId, pageSize + 1);
+        return toPage(rows, pageSize, row -> (Long) row.get("id"));
+    }
+
+    /**
+     * Searches products by the given criteria, keyset-paginated by id like {@link #getProductPage(String, int)}.
+     *
+     * @throws IllegalArgumentException for an invalid cursor or an inverted price range
+     */
+    public CursorPage<ProductSummary> searchProducts(ProductSearchCriteria criteria, String cursor, int size) {
+        if (criteria.minPrice() != null && criteria.maxPrice() != null
+                && criteria.minPrice().compareTo(criteria.maxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = PageCursors.decodeId(cursor);
+        Specification<Product> spec = ProductSpecifications.matching(criteria)
+                .and(ProductSpecifications.idGreaterThan(afterId));
+        List<ProductSummary> rows = productRepository.searchSummaries(spec, Limit.of(pageSize + 1));
+        return toPage(rows, pageSize, ProductSummary::id);
+    }
+
+    /**
+     * Ranked full-text search over product names and descriptions; see {@link ProductSearchIndex}.
+     */
+    public List<ProductSearchHit> searchProductText(String query, int limit) {
+        List<ScoredId> matches = productSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductSummary> summaries = productRepository.findSummariesByIdIn(
+                        matches.stream().map(ScoredId::id).toList()).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+        // A product deleted since it was matched is simply left out
+        return matches.stream()
+                .filter(match -> summaries.containsKey(match.id()))
+                .map(match -> new ProductSearchHit(summaries.get(match.id()), match.score()))
+                .toList();
+    }
+
+    private static <T> CursorPage<T> toPage(List<T> rows, int pageSize, ToLongFunction<T> id) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new CursorPage<>(items, PageCursors.encodeId(id.applyAsLong(items.get(pageSize - 1))));
+    }
+
+    /**
+     * Concurrent reads of the same product share one database load, see {@link SingleFlight}.
+     * The returned product may be handed to other callers as well and must not be modified.
+     */
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return byIdLoads.load(id, () -> productRepository.findById(id));
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown field
+     */
+    public Optional<Map<String, Object>> getProductFields(Long id, String fields) {
+        return sparseFieldRepository.findById(FieldSelection.parse(Product.class, SPARSE_FIELDS, fields), id);
     }
 
+    /**
+     * @throws IllegalArgumentException if the product names a subcategory that does not exist
+     */
+    @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        // An id-only subcategory carries no version and would be rejected as a stale detached entity
+        if (product.getSubcategory() != null && product.getSubcategory().getId() != null) {
+            product.setSubcategory(requireSubcategory(product.getSubcategory().getId()));
+        }
+        Product saved = productRepository.save(product);
+        outboxWriter.append(AggregateType.PRODUCT, saved.getId(), EventType.CREATED, ProductSnapshot.of(saved));
+        afterCommit(() -> productSearchIndex.index(saved));
+        if (saved.getSubcategory() != null) {
+            eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+        }
+        return saved;
     }
 
-    public Optional<Product> updateProduct(Long id, Product updatedProduct) {
+    /**
+     * @throws IllegalArgumentException if the update names a subcategory that does not exist
+     */
+    @Transactional
+    public Optional<Product> updateProduct(Long id, Product updatedProduct, Long expectedVersion) {
         return productRepository.findById(id)
                 .map(product -> {
+                    VersionChecks.requireVersion(Product.class, id, product.getVersion(), expectedVersion);
+                    ProductChangedEvent before = ProductChangedEvent.of(product);
+                    Long subcategoryBefore = subcategoryId(product);
                     product.setName(updatedProduct.getName());
                     product.setDescription(updatedProduct.getDescription());
                     product.setUnitPrice(updatedProduct.getUnitPrice());
@@ -42,19 +216,113 @@ public class ProductService {
                     product.setSku(updatedProduct.getSku());
                     product.setActive(updatedProduct.isActive());
                     if (updatedProduct.getSubcategory() != null && updatedProduct.getSubcategory().getId() != null) {
-                        subcategoryService.getSubcategoryById(updatedProduct.getSubcategory().getId())
-                                .ifPresent(product::setSubcategory);
+                        product.setSubcategory(requireSubcategory(updatedProduct.getSubcategory().getId()));
                     }
-                    product.setUpdatedAt(java.time.LocalDateTime.now());
-                    return productRepository.save(product);
+                    product.setUpdatedAt(LocalDateTime.now());
+                    Product saved = productRepository.save(product);
+                    // Bumps the version now, so the caller and the outbox see the one that commits
+                    productRepository.flush();
+                    outboxWriter.append(AggregateType.PRODUCT, id, EventType.UPDATED, ProductSnapshot.of(saved));
+                    afterCommit(() -> productSearchIndex.index(saved));
+                    publishIfChanged(before, saved);
+                    if (!Objects.equals(subcategoryBefore, subcategoryId(saved)) || before.active() != saved.isActive()) {
+                        eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+                    }
+                    return saved;
                 });
     }
 
-    public boolean deleteProduct(Long id) {
-        if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
-            return true;
+    /**
+     * Atomically takes {@code quantity} units out of stock without loading the product, so
+     * concurrent reservations can never oversell.
+     */
+    @Transactional
+    public StockUpdateResult reserveStock(Long id, int quantity) {
+        requirePositive(quantity);
+        if (productRepository.reserveStock(id, quantity, LocalDateTime.now()) == 1) {
+            announceStockChange(id);
+            return StockUpdateResult.APPLIED;
+        }
+        return productRepository.existsById(id) ? StockUpdateResult.INSUFFICIENT_STOCK : StockUpdateResult.NOT_FOUND;
+    }
+
+    @Transactional
+    public StockUpdateResult releaseStock(Long id, int quantity) {
+        requirePositive(quantity);
+        if (productRepository.releaseStock(id, quantity, LocalDateTime.now()) == 1) {
+            announceStockChange(id);
+            return StockUpdateResult.APPLIED;
         }
-        return false;
+        return productRepository.existsById(id) ? StockUpdateResult.STOCK_LIMIT_EXCEEDED : StockUpdateResult.NOT_FOUND;
+    }
+
+    // Stream subscribers only hear of price, stock and active-flag changes; any other update still bumps the version
+    private void publishIfChanged(ProductChangedEvent before, Product saved) {
+        ProductChangedEvent after = ProductChangedEvent.of(saved);
+        eventPublisher.publishEvent(after.differsFrom(before) ? after : new ProductVersionChangedEvent(after));
+    }
+
+    // The outbox row commits with the stock change; ProductEventBus delivers the event after the commit
+    private void announceStockChange(Long id) {
+        productRepository.findChangedEventById(id).ifPresent(event -> {
+            outboxWriter.append(AggregateType.PRODUCT, id, EventType.STOCK_CHANGED, event);
+            eventPublisher.publishEvent(event);
+        });
+    }
+
+    /**
+     * Runs {@code action} once the current transaction commits, or right away outside of one,
+     * so the search index never shows a change that is later rolled back.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Subcategory requireSubcategory(Long id) {
+        return subcategoryService.getSubcategoryById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown subcategory " + id));
+    }
+
+    private static Long subcategoryId(Product product) {
+        return product.getSubcategory() != null ? product.getSubcategory().getId() : null;
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+    }
+
+    /**
+     * Deletes the product and, in the same transaction, leaves a tombstone for the change feed
+     * and an outbox event.
+     */
+    @Transactional
+    public boolean deleteProduct(Long id, Long expectedVersion) {
+        return productRepository.findById(id)
+                .map(product -> {
+                    VersionChecks.requireVersion(Product.class, id, product.getVersion(), expectedVersion);
+                    productRepository.delete(product);
+                    LocalDateTime deletedAt = LocalDateTime.now();
+                    productTombstoneRepository.save(new ProductTombstone(id, product.getSku(), deletedAt));
+                    outboxWriter.append(AggregateType.PRODUCT, id, EventType.DELETED,
+                            ProductChange.delete(id, product.getSku(), deletedAt));
+                    afterCommit(() -> productSearchIndex.remove(id));
+                    eventPublisher.publishEvent(new ProductDeletedEvent(id));
+                    if (product.getSubcategory() != null) {
+                        eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+                    }
+                    return true;
+                })
+                .orElse(false);
     }
 }
\ No newline at end of file
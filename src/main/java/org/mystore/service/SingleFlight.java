@@ -0,0 +1,95 @@
+package org.mystore.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: while a load for a key is running, further callers for
+ * that key wait for its result instead of running their own. Nothing is kept once the load
+ * finishes, so this is no cache; a later call loads again.
+ * <p>
+ * The result is handed to every waiting caller, so callers must not modify it. A failure is
+ * rethrown to every waiting caller too. A caller that waits longer than {@code timeout} stops
+ * waiting and loads the key itself.
+ * <p>
+ * Each load is counted in {@code storeapp.singleflight.loads} with {@code result} set to
+ * {@code executed}, {@code coalesced} (answered by another caller's load) or {@code timeout}.
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter timedOut;
+
+    SingleFlight(String name, Duration timeout, MeterRegistry registry) {
+        this.timeout = timeout;
+        this.executed = counter(registry, name, "executed");
+        this.coalesced = counter(registry, name, "coalesced");
+        this.timedOut = counter(registry, name, "timeout");
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String result) {
+        return Counter.builder("storeapp.singleflight.loads")
+                .description("Reads executed, answered by a concurrent identical read, or that gave up waiting")
+                .tag("name", name)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running == null) {
+            return execute(key, flight, loader);
+        }
+        try {
+            V value = running.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            coalesced.increment();
+            return value;
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            coalesced.increment();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the load of " + key, e);
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V execute(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+        executed.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+}
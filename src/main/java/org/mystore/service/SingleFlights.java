@@ -0,0 +1,33 @@
+package org.mystore.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Creates the {@link SingleFlight}s of the read services, all with the same waiting timeout
+ * ({@code storeapp.single-flight.timeout}) and metrics registry.
+ */
+@Component
+public class SingleFlights {
+
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+
+    @Autowired
+    public SingleFlights(MeterRegistry meterRegistry,
+                         @Value("${storeapp.single-flight.timeout:2s}") Duration timeout) {
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param name the {@code name} tag of the flight's metrics
+     */
+    public <K, V> SingleFlight<K, V> create(String name) {
+        return new SingleFlight<>(name, timeout, meterRegistry);
+    }
+}
@@ -1,55 +1,138 @@
 package org.mystore.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.mystore.config.CacheConfig;
+import org.mystore.config.MetricsConfig;
+import org.mystore.dto.SubcategorySummary;
+import org.mystore.event.CatalogChangedEvent;
+import org.mystore.model.ProductCategory;
 import org.mystore.model.Subcategory;
+import org.mystore.repository.FieldSelection;
+import org.mystore.repository.SparseFieldRepository;
 import org.mystore.repository.SubcategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class SubcategoryService {
 
+    /**
+     * Fields that can be requested with {@code ?fields=}, mapped to Subcategory attribute paths.
+     */
+    public static final Map<String, String> SPARSE_FIELDS = FieldSelection.whitelist(
+            "id", "id",
+            "version", "version",
+            "name", "name",
+            "description", "description",
+            "categoryId", "category.id",
+            "categoryName", "category.name");
+
     private final SubcategoryRepository subcategoryRepository;
     private final ProductCategoryService productCategoryService;
+    private final SparseFieldRepository sparseFieldRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    // Concurrent cache misses share one database load
+    private final SingleFlight<String, List<SubcategorySummary>> allLoads;
+    private final SingleFlight<Long, Optional<Subcategory>> byIdLoads;
 
     @Autowired
-    public SubcategoryService(SubcategoryRepository subcategoryRepository, ProductCategoryService productCategoryService) {
+    public SubcategoryService(SubcategoryRepository subcategoryRepository, ProductCategoryService productCategoryService,
+                              SparseFieldRepository sparseFieldRepository, SingleFlights singleFlights,
+                              ApplicationEventPublisher eventPublisher) {
         this.subcategoryRepository = subcategoryRepository;
+        this.eventPublisher = eventPublisher;
         this.productCategoryService = productCategoryService;
+        this.sparseFieldRepository = sparseFieldRepository;
+        this.allLoads = singleFlights.create(CacheConfig.SUBCATEGORIES);
+        this.byIdLoads = singleFlights.create(CacheConfig.SUBCATEGORY_BY_ID);
+    }
+
+    @Cacheable(CacheConfig.SUBCATEGORIES)
+    public List<SubcategorySummary> getAllSubcategories() {
+        return allLoads.load(CacheConfig.SUBCATEGORIES, subcategoryRepository::findAllSummaries);
     }
 
-    public List<Subcategory> getAllSubcategories() {
-        return subcategoryRepository.findAll();
+    /**
+     * @throws IllegalArgumentException for an unknown field
+     */
+    public List<Map<String, Object>> getAllSubcategories(String fields) {
+        return sparseFieldRepository.findAll(FieldSelection.parse(Subcategory.class, SPARSE_FIELDS, fields));
     }
 
+    /**
+     * @throws IllegalArgumentException for an unknown field
+     */
+    public Optional<Map<String, Object>> getSubcategoryFields(Long id, String fields) {
+        return sparseFieldRepository.findById(FieldSelection.parse(Subcategory.class, SPARSE_FIELDS, fields), id);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.SUBCATEGORY_BY_ID, key = "#id", unless = "#result == null")
     public Optional<Subcategory> getSubcategoryById(Long id) {
-        return subcategoryRepository.findById(id);
+        return byIdLoads.load(id, () -> subcategoryRepository.findById(id));
     }
 
+    /**
+     * @throws IllegalArgumentException if the subcategory names a category that does not exist
+     */
+    @CacheEvict(cacheNames = CacheConfig.SUBCATEGORIES, allEntries = true)
     public Subcategory createSubcategory(Subcategory subcategory) {
-        return subcategoryRepository.save(subcategory);
+        // An id-only category carries no version and would be rejected as a stale detached entity
+        if (subcategory.getCategory() != null && subcategory.getCategory().getId() != null) {
+            subcategory.setCategory(requireCategory(subcategory.getCategory().getId()));
+        }
+        Subcategory saved = subcategoryRepository.save(subcategory);
+        eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+        return saved;
     }
 
-    public Optional<Subcategory> updateSubcategory(Long id, Subcategory updatedSubcategory) {
+    /**
+     * @throws IllegalArgumentException if the update names a category that does not exist
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBCATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.SUBCATEGORY_BY_ID, key = "#id")
+    })
+    public Optional<Subcategory> updateSubcategory(Long id, Subcategory updatedSubcategory, Long expectedVersion) {
         return subcategoryRepository.findById(id)
                 .map(subcategory -> {
+                    VersionChecks.requireVersion(Subcategory.class, id, subcategory.getVersion(), expectedVersion);
                     subcategory.setName(updatedSubcategory.getName());
                     subcategory.setDescription(updatedSubcategory.getDescription());
                     if (updatedSubcategory.getCategory() != null && updatedSubcategory.getCategory().getId() != null) {
-                        productCategoryService.getProductCategoryById(updatedSubcategory.getCategory().getId())
-                                .ifPresent(subcategory::setCategory);
+                        subcategory.setCategory(requireCategory(updatedSubcategory.getCategory().getId()));
                     }
-                    return subcategoryRepository.save(subcategory);
+                    Subcategory saved = subcategoryRepository.save(subcategory);
+                    eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+                    return saved;
                 });
     }
 
-    public boolean deleteSubcategory(Long id) {
-        if (subcategoryRepository.existsById(id)) {
-            subcategoryRepository.deleteById(id);
-            return true;
-        }
-        return false;
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBCATEGORIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.SUBCATEGORY_BY_ID, key = "#id")
+    })
+    public boolean deleteSubcategory(Long id, Long expectedVersion) {
+        return subcategoryRepository.findById(id)
+                .map(subcategory -> {
+                    VersionChecks.requireVersion(Subcategory.class, id, subcategory.getVersion(), expectedVersion);
+                    subcategoryRepository.delete(subcategory);
+                    eventPublisher.publishEvent(CatalogChangedEvent.INSTANCE);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    private ProductCategory requireCategory(Long id) {
+        return productCategoryService.getProductCategoryById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown category " + id));
     }
-}
\ No newline at end of file
+}
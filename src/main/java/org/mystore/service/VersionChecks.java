@@ -0,0 +1,23 @@
+package org.mystore.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Compares the version a client last saw (sent as If-Match) with the stored one.
+ */
+final class VersionChecks {
+
+    private VersionChecks() {
+    }
+
+    /**
+     * @throws OptimisticLockingFailureException if an expected version is given and differs
+     *                                           from the stored one
+     */
+    static void requireVersion(Class<?> type, Long id, Long storedVersion, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(storedVersion)) {
+            throw new OptimisticLockingFailureException(
+                    type.getSimpleName() + " " + id + " is at version " + storedVersion + ", expected " + expectedVersion);
+        }
+    }
+}
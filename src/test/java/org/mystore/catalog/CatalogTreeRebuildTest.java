@@ -0,0 +1,102 @@
+package org.mystore.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.CatalogTree;
+import org.mystore.dto.CatalogTree.CategoryNode;
+import org.mystore.dto.CatalogTree.SubcategoryNode;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.mystore.service.ProductCategoryService;
+import org.mystore.service.ProductService;
+import org.mystore.service.SubcategoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Taxonomy and product writes reach the catalog tree once committed.
+ */
+@SpringBootTest(properties = {
+        "storeapp.outbox.relay.enabled=false",
+        "spring.jpa.properties.hibernate.cache.region_prefix=catalog-tree-rebuild-test"
+})
+public class CatalogTreeRebuildTest {
+
+    @Autowired
+    private CatalogTreeSnapshot catalogTreeSnapshot;
+
+    @Autowired
+    private ProductCategoryService productCategoryService;
+
+    @Autowired
+    private SubcategoryService subcategoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void writesAreReflectedInTheTree() throws InterruptedException {
+        ProductCategory category = productCategoryService.createProductCategory(new ProductCategory("Garden", "Outdoor"));
+        Subcategory subcategory = subcategoryService.createSubcategory(new Subcategory("Tools", "Hand tools", category));
+        awaitTree(tree -> subcategory(tree, category.getId(), subcategory.getId()).isPresent());
+
+        Product rake = productService.createProduct(
+                new Product("Rake", "", new BigDecimal("19.00"), 4, "CAT-" + System.nanoTime(), true, subcategory));
+        productService.createProduct(
+                new Product("Spade", "", new BigDecimal("25.00"), 2, "CAT-" + System.nanoTime(), true, subcategory));
+        CatalogTree withProducts = awaitTree(tree -> productCount(tree, category.getId(), subcategory.getId()) == 2);
+        assertEquals(2, category(withProducts, category.getId()).orElseThrow().productCount());
+
+        rake.setActive(false);
+        productService.updateProduct(rake.getId(), rake, null);
+        CatalogTree deactivated = awaitTree(tree -> productCount(tree, category.getId(), subcategory.getId()) == 1);
+        assertTrue(deactivated.version() > withProducts.version());
+
+        subcategory.setName("Hand tools");
+        subcategoryService.updateSubcategory(subcategory.getId(), subcategory, null);
+        awaitTree(tree -> subcategory(tree, category.getId(), subcategory.getId())
+                .map(node -> node.name().equals("Hand tools")).orElse(false));
+    }
+
+    @Test
+    void unrelatedProductUpdateKeepsTheTreeVersion() throws InterruptedException {
+        Product product = productService.createProduct(
+                new Product("Hose", "", new BigDecimal("30.00"), 1, "CAT-" + System.nanoTime(), true, null));
+        CatalogTree before = catalogTreeSnapshot.rebuild();
+
+        product.setUnitPrice(new BigDecimal("28.00"));
+        productService.updateProduct(product.getId(), product, null);
+
+        assertSame(before, catalogTreeSnapshot.rebuild());
+    }
+
+    private CatalogTree awaitTree(Predicate<CatalogTree> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        CatalogTree tree = catalogTreeSnapshot.getTree();
+        while (!condition.test(tree)) {
+            assertTrue(System.nanoTime() < deadline, "catalog tree was not rebuilt");
+            Thread.sleep(20);
+            tree = catalogTreeSnapshot.getTree();
+        }
+        return tree;
+    }
+
+    private static Optional<CategoryNode> category(CatalogTree tree, Long categoryId) {
+        return tree.categories().stream().filter(node -> node.id().equals(categoryId)).findFirst();
+    }
+
+    private static Optional<SubcategoryNode> subcategory(CatalogTree tree, Long categoryId, Long subcategoryId) {
+        return category(tree, categoryId).flatMap(category -> category.subcategories().stream()
+                .filter(node -> node.id().equals(subcategoryId)).findFirst());
+    }
+
+    private static long productCount(CatalogTree tree, Long categoryId, Long subcategoryId) {
+        return subcategory(tree, categoryId, subcategoryId).map(SubcategoryNode::productCount).orElse(-1L);
+    }
+}
@@ -0,0 +1,173 @@
+package org.mystore.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.CatalogTree;
+import org.mystore.dto.CatalogTree.CategoryNode;
+import org.mystore.dto.CatalogTree.SubcategoryNode;
+import org.mystore.dto.SubcategoryProductCount;
+import org.mystore.dto.SubcategorySummary;
+import org.mystore.event.CatalogChangedEvent;
+import org.mystore.model.ProductCategory;
+import org.mystore.repository.ProductCategoryRepository;
+import org.mystore.repository.ProductRepository;
+import org.mystore.repository.SubcategoryRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogTreeSnapshotTest {
+
+    @Mock
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Mock
+    private SubcategoryRepository subcategoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final QueuedExecutor rebuilder = new QueuedExecutor();
+
+    private CatalogTreeSnapshot catalogTreeSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        catalogTreeSnapshot = new CatalogTreeSnapshot(productCategoryRepository, subcategoryRepository, productRepository,
+                transactionManager, false, rebuilder);
+        ProductCategory books = new ProductCategory("Books", "Printed books");
+        books.setId(2L);
+        ProductCategory electronics = new ProductCategory("Electronics", "Devices");
+        electronics.setId(1L);
+        lenient().when(productCategoryRepository.findAll()).thenReturn(List.of(books, electronics));
+        lenient().when(subcategoryRepository.findAllSummaries()).thenReturn(List.of(
+                new SubcategorySummary(10L, 0L, "Phones", "Mobile phones", 1L, 0L, "Electronics"),
+                new SubcategorySummary(11L, 0L, "Laptops", "Portable computers", 1L, 0L, "Electronics"),
+                new SubcategorySummary(20L, 0L, "Novels", "Fiction", 2L, 0L, "Books")));
+    }
+
+    @Test
+    void getTree_buildsCategoriesWithSubcategoriesAndActiveProductCounts() {
+        when(productRepository.countActiveBySubcategory()).thenReturn(List.of(
+                new SubcategoryProductCount(10L, 5L), new SubcategoryProductCount(20L, 2L)));
+
+        CatalogTree tree = catalogTreeSnapshot.getTree();
+
+        assertEquals(List.of(
+                new CategoryNode(1L, "Electronics", "Devices", 5L, List.of(
+                        new SubcategoryNode(10L, "Phones", "Mobile phones", 5L),
+                        new SubcategoryNode(11L, "Laptops", "Portable computers", 0L))),
+                new CategoryNode(2L, "Books", "Printed books", 2L, List.of(
+                        new SubcategoryNode(20L, "Novels", "Fiction", 2L)))), tree.categories());
+        assertEquals(7L, tree.productCount());
+        assertThrows(UnsupportedOperationException.class, () -> tree.categories().get(0).subcategories().clear());
+    }
+
+    @Test
+    void getTree_isServedFromMemoryAfterTheFirstBuild() {
+        when(productRepository.countActiveBySubcategory()).thenReturn(List.of());
+        CatalogTree first = catalogTreeSnapshot.getTree();
+
+        assertSame(first, catalogTreeSnapshot.getTree());
+        verify(productRepository, times(1)).countActiveBySubcategory();
+    }
+
+    @Test
+    void onCatalogChanged_burstOfChangesCausesOneRebuildThatSwapsInANewVersion() {
+        when(productRepository.countActiveBySubcategory())
+                .thenReturn(List.of(new SubcategoryProductCount(10L, 5L)))
+                .thenReturn(List.of(new SubcategoryProductCount(10L, 6L)));
+        CatalogTree before = catalogTreeSnapshot.getTree();
+
+        catalogTreeSnapshot.onCatalogChanged(CatalogChangedEvent.INSTANCE);
+        catalogTreeSnapshot.onCatalogChanged(CatalogChangedEvent.INSTANCE);
+        catalogTreeSnapshot.onCatalogChanged(CatalogChangedEvent.INSTANCE);
+        assertEquals(1, rebuilder.tasks.size());
+        assertSame(before, catalogTreeSnapshot.getTree());
+
+        rebuilder.runAll();
+
+        CatalogTree after = catalogTreeSnapshot.getTree();
+        assertEquals(6L, after.productCount());
+        assertTrue(after.version() > before.version());
+        verify(productRepository, times(2)).countActiveBySubcategory();
+    }
+
+    @Test
+    void rebuild_unchangedTreeKeepsVersion() {
+        when(productRepository.countActiveBySubcategory()).thenReturn(List.of(new SubcategoryProductCount(10L, 5L)));
+        CatalogTree before = catalogTreeSnapshot.getTree();
+
+        assertSame(before, catalogTreeSnapshot.rebuild());
+    }
+
+    @Test
+    void onCatalogChanged_changeDuringRebuildSchedulesAnother() {
+        when(productRepository.countActiveBySubcategory()).thenAnswer(invocation -> {
+            // Another change commits while the rebuild is reading
+            catalogTreeSnapshot.onCatalogChanged(CatalogChangedEvent.INSTANCE);
+            return List.of();
+        });
+        catalogTreeSnapshot.onCatalogChanged(CatalogChangedEvent.INSTANCE);
+
+        rebuilder.tasks.remove(0).run();
+
+        assertEquals(1, rebuilder.tasks.size());
+    }
+
+    /**
+     * Runs submitted tasks only when the test says so.
+     */
+    private static final class QueuedExecutor extends AbstractExecutorService {
+
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
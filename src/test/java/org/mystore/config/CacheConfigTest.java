@@ -0,0 +1,131 @@
+package org.mystore.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystore.catalog.CatalogTreeSnapshot;
+import org.mystore.dto.SubcategorySummary;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.mystore.repository.ProductCategoryRepository;
+import org.mystore.repository.SubcategoryRepository;
+import org.mystore.service.ProductCategoryService;
+import org.mystore.service.SubcategoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class CacheConfigTest {
+
+    @MockitoBean
+    private ProductCategoryRepository productCategoryRepository;
+
+    @MockitoBean
+    private SubcategoryRepository subcategoryRepository;
+
+    // Rebuilds on taxonomy writes would read the mocked repositories too
+    @MockitoBean
+    private CatalogTreeSnapshot catalogTreeSnapshot;
+
+    @Autowired
+    private ProductCategoryService productCategoryService;
+
+    @Autowired
+    private SubcategoryService subcategoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ProductCategory category1;
+    private Subcategory subcategory1;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        category1 = new ProductCategory(1L, "Electronics", "Electronic devices");
+        subcategory1 = new Subcategory(10L, "Smartphones", "Mobile phones", category1);
+    }
+
+    @Test
+    void getAllProductCategories_isServedFromCacheUntilCreate() {
+        when(productCategoryRepository.findAll()).thenReturn(List.of(category1));
+        when(productCategoryRepository.save(any(ProductCategory.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        productCategoryService.getAllProductCategories();
+        productCategoryService.getAllProductCategories();
+        verify(productCategoryRepository, times(1)).findAll();
+
+        productCategoryService.createProductCategory(new ProductCategory("Books", "Printed and digital books"));
+        productCategoryService.getAllProductCategories();
+        verify(productCategoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    void getProductCategoryById_missingIdIsNotCached() {
+        when(productCategoryRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertTrue(productCategoryService.getProductCategoryById(2L).isEmpty());
+        assertTrue(productCategoryService.getProductCategoryById(2L).isEmpty());
+
+        verify(productCategoryRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void updateProductCategory_evictsCategoryAndSubcategoryEntries() {
+        when(productCategoryRepository.findById(1L)).thenReturn(Optional.of(category1));
+        when(productCategoryRepository.save(any(ProductCategory.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(subcategoryRepository.findById(10L)).thenReturn(Optional.of(subcategory1));
+
+        productCategoryService.getProductCategoryById(1L);
+        subcategoryService.getSubcategoryById(10L);
+        productCategoryService.updateProductCategory(1L, new ProductCategory("Gadgets", "Renamed"), null);
+        productCategoryService.getProductCategoryById(1L);
+        subcategoryService.getSubcategoryById(10L);
+
+        // one read for the first lookup, one inside updateProductCategory, one after eviction
+        verify(productCategoryRepository, times(3)).findById(1L);
+        verify(subcategoryRepository, times(2)).findById(10L);
+    }
+
+    @Test
+    void deleteSubcategory_evictsSubcategoryEntries() {
+        when(subcategoryRepository.findAllSummaries()).thenReturn(
+                List.of(new SubcategorySummary(10L, 0L, "Smartphones", "Mobile phones", 1L, 0L, "Electronics")));
+        when(subcategoryRepository.findById(10L)).thenReturn(Optional.of(subcategory1));
+
+        subcategoryService.getAllSubcategories();
+        subcategoryService.deleteSubcategory(10L, null);
+        subcategoryService.getAllSubcategories();
+
+        verify(subcategoryRepository, times(2)).findAllSummaries();
+    }
+
+    @Test
+    void cacheHitsAndMissesAreExposedAsMetrics() {
+        when(subcategoryRepository.findById(10L)).thenReturn(Optional.of(subcategory1));
+        double hitsBefore = cacheGets(CacheConfig.SUBCATEGORY_BY_ID, "hit");
+        double missesBefore = cacheGets(CacheConfig.SUBCATEGORY_BY_ID, "miss");
+
+        subcategoryService.getSubcategoryById(10L);
+        subcategoryService.getSubcategoryById(10L);
+        subcategoryService.getSubcategoryById(10L);
+
+        assertEquals(2, cacheGets(CacheConfig.SUBCATEGORY_BY_ID, "hit") - hitsBefore);
+        assertEquals(1, cacheGets(CacheConfig.SUBCATEGORY_BY_ID, "miss") - missesBefore);
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+}
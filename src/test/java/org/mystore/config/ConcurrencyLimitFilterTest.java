@@ -0,0 +1,109 @@
+package org.mystore.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitFilterTest {
+
+    @Test
+    void testRequestWithinLimitPassesThroughAndReleasesPermit() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    void testRequestOverLimitIsRejectedWith503() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(10));
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        AtomicReference<Integer> permitsInFlight = new AtomicReference<>();
+
+        // The first request still holds the only permit while the second one arrives
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products/1"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    permitsInFlight.set(filter.availablePermits());
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/products/2"), nested, new MockFilterChain());
+                });
+
+        assertEquals(0, permitsInFlight.get());
+        assertEquals(503, nested.getStatus());
+        assertEquals("1", nested.getHeader("Retry-After"));
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    void testAsyncRequestKeepsPermitUntilCompletion() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/export");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> req.startAsync());
+
+        assertEquals(0, filter.availablePermits());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products/1"), rejected, new MockFilterChain());
+        assertEquals(503, rejected.getStatus());
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    void testEventStreamIsNotLimited() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(
+                        new MockHttpServletRequest("GET", "/api/products/stream"), nested, new MockFilterChain()));
+
+        assertEquals(200, nested.getStatus());
+    }
+
+    @Test
+    void testNonApiRequestsAreNotLimited() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(
+                        new MockHttpServletRequest("GET", "/actuator/health"), nested, new MockFilterChain()));
+
+        assertEquals(200, nested.getStatus());
+    }
+
+    @Test
+    void testFilterIsOnlyRegisteredInVirtualThreadMode() {
+        WebApplicationContextRunner runner = new WebApplicationContextRunner()
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withUserConfiguration(ConcurrencyLimitFilter.class);
+
+        runner.run(context -> assertThat(context).doesNotHaveBean(ConcurrencyLimitFilter.class));
+        runner.withPropertyValues("spring.threads.virtual.enabled=true", "spring.datasource.hikari.maximum-pool-size=7")
+                .run(context -> assertThat(context.getBean(ConcurrencyLimitFilter.class).availablePermits()).isEqualTo(7));
+    }
+
+    @Test
+    void testRejectsNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimitFilter(0, Duration.ZERO));
+    }
+}
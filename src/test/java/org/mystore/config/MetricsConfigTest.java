@@ -0,0 +1,51 @@
+package org.mystore.config;
+
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mystore.model.Client;
+import org.mystore.service.ClientService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "storeapp.outbox.relay.enabled=false",
+        "spring.jpa.properties.hibernate.cache.region_prefix=metrics-config-test"
+})
+@AutoConfigureObservability
+public class MetricsConfigTest {
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    @Test
+    void prometheusScrape_containsServiceRepositoryHibernateAndPoolMetrics() {
+        Client client = new Client();
+        client.setName("Metrics");
+        client.setEmail("metrics@example.com");
+        Client saved = clientService.createClient(client);
+        clientService.getClientById(saved.getId());
+
+        String scrape = prometheusMeterRegistry.scrape();
+
+        assertTrue(scrape.contains("storeapp_service_seconds_bucket{"));
+        assertTrue(scrape.contains("class=\"org.mystore.service.ClientService\""));
+        assertTrue(scrape.contains("method=\"createClient\""));
+        assertTrue(scrape.contains("spring_data_repository_invocations_seconds_count{"));
+        assertTrue(scrape.contains("repository=\"ClientRepository\""));
+        assertTrue(scrape.contains("hibernate_query_executions_total{"));
+        assertTrue(scrape.contains("hibernate_entities_inserts_total{"));
+        assertTrue(scrape.contains("hibernate_second_level_cache_requests_total{"));
+        assertTrue(scrape.contains("hikaricp_connections_active{"));
+        assertTrue(scrape.contains("storeapp_events_subscribers{"));
+        assertTrue(scrape.contains("storeapp_outbox_relayed_total{"));
+        assertTrue(scrape.contains("storeapp_search_documents{"));
+        assertTrue(scrape.contains("storeapp_pricing_entries{"));
+        assertTrue(scrape.contains("application=\"storeapp\""));
+    }
+}
@@ -64,34 +64,34 @@ public class AddressControllerTest {
 
     @Test
     void updateAddress_existingId_returnsOkWithUpdatedAddress() {
-        when(addressService.updateAddress(eq(1L), any(Address.class))).thenReturn(Optional.of(address1));
-        ResponseEntity<Address> response = addressController.updateAddress(1L, new Address("Updated St", "Updated City", "UT", "00000"));
+        when(addressService.updateAddress(eq(1L), any(Address.class), isNull())).thenReturn(Optional.of(address1));
+        ResponseEntity<Address> response = addressController.updateAddress(1L, new Address("Updated St", "Updated City", "UT", "00000"), null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("123 Main St", response.getBody().getStreet()); // Assuming service returns the original updated
-        verify(addressService, times(1)).updateAddress(eq(1L), any(Address.class));
+        verify(addressService, times(1)).updateAddress(eq(1L), any(Address.class), isNull());
     }
 
     @Test
     void updateAddress_nonExistingId_returnsNotFound() {
-        when(addressService.updateAddress(eq(100L), any(Address.class))).thenReturn(Optional.empty());
-        ResponseEntity<Address> response = addressController.updateAddress(100L, new Address("Updated St", "Updated City", "UT", "00000"));
+        when(addressService.updateAddress(eq(100L), any(Address.class), isNull())).thenReturn(Optional.empty());
+        ResponseEntity<Address> response = addressController.updateAddress(100L, new Address("Updated St", "Updated City", "UT", "00000"), null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(addressService, times(1)).updateAddress(eq(100L), any(Address.class));
+        verify(addressService, times(1)).updateAddress(eq(100L), any(Address.class), isNull());
     }
 
     @Test
     void deleteAddress_existingId_returnsNoContent() {
-        when(addressService.deleteAddress(1L)).thenReturn(true);
-        ResponseEntity<Void> response = addressController.deleteAddress(1L);
+        when(addressService.deleteAddress(1L, null)).thenReturn(true);
+        ResponseEntity<Void> response = addressController.deleteAddress(1L, null);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(addressService, times(1)).deleteAddress(1L);
+        verify(addressService, times(1)).deleteAddress(1L, null);
     }
 
     @Test
     void deleteAddress_nonExistingId_returnsNotFound() {
-        when(addressService.deleteAddress(100L)).thenReturn(false);
-        ResponseEntity<Void> response = addressController.deleteAddress(100L);
+        when(addressService.deleteAddress(100L, null)).thenReturn(false);
+        ResponseEntity<Void> response = addressController.deleteAddress(100L, null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(addressService, times(1)).deleteAddress(100L);
+        verify(addressService, times(1)).deleteAddress(100L, null);
     }
 }
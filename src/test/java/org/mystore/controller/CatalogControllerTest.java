@@ -0,0 +1,50 @@
+package org.mystore.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.catalog.CatalogTreeSnapshot;
+import org.mystore.dto.CatalogTree;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogControllerTest {
+
+    @Mock
+    private CatalogTreeSnapshot catalogTreeSnapshot;
+
+    @InjectMocks
+    private CatalogController catalogController;
+
+    private final CatalogTree tree = new CatalogTree(42L, LocalDateTime.now(), 0L, List.of());
+
+    @Test
+    void getCatalogTree_returnsTreeWithVersionAsETag() {
+        when(catalogTreeSnapshot.getTree()).thenReturn(tree);
+
+        ResponseEntity<CatalogTree> response = catalogController.getCatalogTree(null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(tree, response.getBody());
+        assertEquals("\"42\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getCatalogTree_unchangedTree_returnsNotModified() {
+        when(catalogTreeSnapshot.getTree()).thenReturn(tree);
+
+        ResponseEntity<CatalogTree> response = catalogController.getCatalogTree("\"42\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+}
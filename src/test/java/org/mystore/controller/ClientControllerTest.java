@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.ClientSummary;
 import org.mystore.model.Address;
 import org.mystore.model.Client;
 import org.mystore.service.ClientService;
@@ -14,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -44,13 +46,30 @@ public class ClientControllerTest {
 
     @Test
     void getAllClients_returnsOkWithClientList() {
-        when(clientService.getAllClients()).thenReturn(Arrays.asList(client1, client2));
-        ResponseEntity<List<Client>> response = clientController.getAllClients();
+        when(clientService.getAllClients()).thenReturn(Arrays.asList(
+                new ClientSummary(1L, 0L, "John Doe", "john.doe@example.com", "123-456-7890"),
+                new ClientSummary(2L, 0L, "Jane Smith", "jane.smith@example.com", "987-654-3210")));
+        ResponseEntity<List<ClientSummary>> response = clientController.getAllClients();
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
         verify(clientService, times(1)).getAllClients();
     }
 
+    @Test
+    void getAllClientFields_returnsOkWithSparseRows() {
+        when(clientService.getAllClients("email")).thenReturn(List.of(Map.of("id", 1L, "email", "john.doe@example.com")));
+        ResponseEntity<List<Map<String, Object>>> response = clientController.getAllClientFields("email");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("john.doe@example.com", response.getBody().get(0).get("email"));
+    }
+
+    @Test
+    void getAllClientFields_unknownField_returnsBadRequest() {
+        when(clientService.getAllClients("addresses")).thenThrow(new IllegalArgumentException("Unknown fields"));
+        ResponseEntity<List<Map<String, Object>>> response = clientController.getAllClientFields("addresses");
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     void getClientById_existingId_returnsOkWithClient() {
         when(clientService.getClientById(1L)).thenReturn(Optional.of(client1));
@@ -79,35 +98,35 @@ public class ClientControllerTest {
 
     @Test
     void updateClient_existingId_returnsOkWithUpdatedClient() {
-        when(clientService.updateClient(eq(1L), any(Client.class))).thenReturn(Optional.of(client1));
-        ResponseEntity<Client> response = clientController.updateClient(1L, new Client("Updated Name", "updated@example.com", "111-222-3333"));
+        when(clientService.updateClient(eq(1L), any(Client.class), isNull())).thenReturn(Optional.of(client1));
+        ResponseEntity<Client> response = clientController.updateClient(1L, new Client("Updated Name", "updated@example.com", "111-222-3333"), null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Pedro Doe", response.getBody().getName()); // Assuming service returns the original updated
-        verify(clientService, times(1)).updateClient(eq(1L), any(Client.class));
+        verify(clientService, times(1)).updateClient(eq(1L), any(Client.class), isNull());
     }
 
     @Test
     void updateClient_nonExistingId_returnsNotFound() {
-        when(clientService.updateClient(eq(100L), any(Client.class))).thenReturn(Optional.empty());
-        ResponseEntity<Client> response = clientController.updateClient(100L, new Client("Updated Name", "updated@example.com", "111-222-3333"));
+        when(clientService.updateClient(eq(100L), any(Client.class), isNull())).thenReturn(Optional.empty());
+        ResponseEntity<Client> response = clientController.updateClient(100L, new Client("Updated Name", "updated@example.com", "111-222-3333"), null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(clientService, times(1)).updateClient(eq(100L), any(Client.class));
+        verify(clientService, times(1)).updateClient(eq(100L), any(Client.class), isNull());
     }
 
     @Test
     void deleteClient_existingId_returnsNoContent() {
-        when(clientService.deleteClient(1L)).thenReturn(true);
-        ResponseEntity<Void> response = clientController.deleteClient(1L);
+        when(clientService.deleteClient(1L, null)).thenReturn(true);
+        ResponseEntity<Void> response = clientController.deleteClient(1L, null);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(clientService, times(1)).deleteClient(1L);
+        verify(clientService, times(1)).deleteClient(1L, null);
     }
 
     @Test
     void deleteClient_nonExistingId_returnsNotFound() {
-        when(clientService.deleteClient(100L)).thenReturn(false);
-        ResponseEntity<Void> response = clientController.deleteClient(100L);
+        when(clientService.deleteClient(100L, null)).thenReturn(false);
+        ResponseEntity<Void> response = clientController.deleteClient(100L, null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(clientService, times(1)).deleteClient(100L);
+        verify(clientService, times(1)).deleteClient(100L, null);
     }
 
     @Test
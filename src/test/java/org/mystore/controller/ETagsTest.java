@@ -0,0 +1,88 @@
+package org.mystore.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ETagsTest {
+
+    @Test
+    void of_quotesVersion() {
+        assertEquals("\"3\"", ETags.of(3L));
+        assertNull(ETags.of(null));
+    }
+
+    @Test
+    void of_appendsEmbeddedParentVersions() {
+        assertEquals("\"3.1.0\"", ETags.of(3L, 1L, null));
+        assertNotEquals(ETags.of(3L, 1L, 0L), ETags.of(3L, 2L, 0L));
+    }
+
+    @Test
+    void ok_omitsETagWithoutVersion() {
+        assertNull(ETags.ok("body", null).getHeaders().getETag());
+        assertEquals("\"1\"", ETags.ok("body", 1L).getHeaders().getETag());
+    }
+
+    @Test
+    void parseIfMatch_absentOrWildcardMeansUnconditional() {
+        assertNull(ETags.parseIfMatch(null));
+        assertNull(ETags.parseIfMatch(" "));
+        assertNull(ETags.parseIfMatch("*"));
+    }
+
+    @Test
+    void parseIfMatch_strongTag() {
+        assertEquals(12L, ETags.parseIfMatch("\"12\""));
+    }
+
+    @Test
+    void parseIfMatch_tagWithParentVersionsYieldsEntityVersion() {
+        assertEquals(12L, ETags.parseIfMatch(ETags.of(12L, 4L, 1L)));
+        assertEquals(-1L, ETags.parseIfMatch("\".4\""));
+    }
+
+    @Test
+    void parseIfMatch_foreignOrWeakTagsNeverMatch() {
+        assertEquals(-1L, ETags.parseIfMatch("W/\"12\""));
+        assertEquals(-1L, ETags.parseIfMatch("\"abc\""));
+        assertEquals(-1L, ETags.parseIfMatch("12"));
+    }
+
+    @Test
+    void matchesAny_weakComparisonOverTagLists() {
+        assertTrue(ETags.matchesAny("\"1\", W/\"2\"", "\"2\""));
+        assertTrue(ETags.matchesAny("*", "\"2\""));
+        assertFalse(ETags.matchesAny("\"1\"", "\"2\""));
+        assertFalse(ETags.matchesAny(null, "\"2\""));
+    }
+
+    @Test
+    void ofCollection_changesWithMembershipAndVersions() {
+        record Item(Long id, Long version) {
+        }
+        String base = ETags.ofCollection(List.of(new Item(1L, 0L), new Item(2L, 0L)), Item::id, Item::version);
+        assertEquals(base, ETags.ofCollection(List.of(new Item(1L, 0L), new Item(2L, 0L)), Item::id, Item::version));
+        assertNotEquals(base, ETags.ofCollection(List.of(new Item(1L, 0L), new Item(2L, 1L)), Item::id, Item::version));
+        assertNotEquals(base, ETags.ofCollection(List.of(new Item(1L, 0L)), Item::id, Item::version));
+    }
+
+    @Test
+    void conditional_returnsNotModifiedOnMatch() {
+        assertEquals(HttpStatus.NOT_MODIFIED, ETags.conditional("body", "\"1\"", "\"1\"").getStatusCode());
+        assertEquals(HttpStatus.OK, ETags.conditional("body", "\"1\"", "\"0\"").getStatusCode());
+        assertEquals(HttpStatus.OK, ETags.conditional("body", null, "*").getStatusCode());
+    }
+
+    @Test
+    void staleWrite_isMappedToPreconditionFailed() {
+        ResponseEntity<Void> response = new ApiExceptionHandler()
+                .handleStaleWrite(new ObjectOptimisticLockingFailureException(Object.class, 1L));
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+}
@@ -0,0 +1,46 @@
+package org.mystore.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.PriceStock;
+import org.mystore.pricing.PriceStockIndex;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PriceStockControllerTest {
+
+    @Mock
+    private PriceStockIndex priceStockIndex;
+
+    @InjectMocks
+    private PriceStockController priceStockController;
+
+    @Test
+    void getPriceStock_returnsEntryWithVersionAsETag() {
+        PriceStock priceStock = new PriceStock(100L, 4L, new BigDecimal("999.00"), 12, true);
+        when(priceStockIndex.find(100L)).thenReturn(Optional.of(priceStock));
+
+        ResponseEntity<PriceStock> response = priceStockController.getPriceStock(100L, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(priceStock, response.getBody());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getPriceStock_unknownProduct_returnsNotFound() {
+        when(priceStockIndex.find(999L)).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.NOT_FOUND, priceStockController.getPriceStock(999L, null).getStatusCode());
+    }
+}
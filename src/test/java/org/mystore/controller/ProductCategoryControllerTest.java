@@ -16,6 +16,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,10 +40,33 @@ public class ProductCategoryControllerTest {
         category2.setId(2L);
     }
 
+    @Test
+    void getAllProductCategories_unchangedListing_returnsNotModified() {
+        when(productCategoryService.getAllProductCategories()).thenReturn(Arrays.asList(category1, category2));
+        String etag = productCategoryController.getAllProductCategories(null).getHeaders().getETag();
+
+        ResponseEntity<List<ProductCategory>> response = productCategoryController.getAllProductCategories(etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void getAllProductCategories_changedListing_returnsOk() {
+        when(productCategoryService.getAllProductCategories()).thenReturn(Arrays.asList(category1, category2));
+        String etag = productCategoryController.getAllProductCategories(null).getHeaders().getETag();
+        category2.setVersion(1L);
+
+        ResponseEntity<List<ProductCategory>> response = productCategoryController.getAllProductCategories(etag);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(etag, response.getHeaders().getETag());
+    }
+
     @Test
     void getAllProductCategories_returnsOkWithCategoryList() {
         when(productCategoryService.getAllProductCategories()).thenReturn(Arrays.asList(category1, category2));
-        ResponseEntity<List<ProductCategory>> response = productCategoryController.getAllProductCategories();
+        ResponseEntity<List<ProductCategory>> response = productCategoryController.getAllProductCategories(null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
         verify(productCategoryService, times(1)).getAllProductCategories();
@@ -50,7 +75,7 @@ public class ProductCategoryControllerTest {
     @Test
     void getProductCategoryById_existingId_returnsOkWithCategory() {
         when(productCategoryService.getProductCategoryById(1L)).thenReturn(Optional.of(category1));
-        ResponseEntity<ProductCategory> response = productCategoryController.getProductCategoryById(1L);
+        ResponseEntity<ProductCategory> response = productCategoryController.getProductCategoryById(1L, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Electronics", response.getBody().getName());
         verify(productCategoryService, times(1)).getProductCategoryById(1L);
@@ -59,7 +84,7 @@ public class ProductCategoryControllerTest {
     @Test
     void getProductCategoryById_nonExistingId_returnsNotFound() {
         when(productCategoryService.getProductCategoryById(100L)).thenReturn(Optional.empty());
-        ResponseEntity<ProductCategory> response = productCategoryController.getProductCategoryById(100L);
+        ResponseEntity<ProductCategory> response = productCategoryController.getProductCategoryById(100L, null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         verify(productCategoryService, times(1)).getProductCategoryById(100L);
     }
@@ -75,34 +100,34 @@ public class ProductCategoryControllerTest {
 
     @Test
     void updateProductCategory_existingId_returnsOkWithUpdatedCategory() {
-        when(productCategoryService.updateProductCategory(eq(1L), any(ProductCategory.class))).thenReturn(Optional.of(category1));
-        ResponseEntity<ProductCategory> response = productCategoryController.updateProductCategory(1L, new ProductCategory("Updated Electronics", "Updated description"));
+        when(productCategoryService.updateProductCategory(eq(1L), any(ProductCategory.class), isNull())).thenReturn(Optional.of(category1));
+        ResponseEntity<ProductCategory> response = productCategoryController.updateProductCategory(1L, new ProductCategory("Updated Electronics", "Updated description"), null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Electronics", response.getBody().getName()); // Assuming service returns the original updated
-        verify(productCategoryService, times(1)).updateProductCategory(eq(1L), any(ProductCategory.class));
+        verify(productCategoryService, times(1)).updateProductCategory(eq(1L), any(ProductCategory.class), isNull());
     }
 
     @Test
     void updateProductCategory_nonExistingId_returnsNotFound() {
-        when(productCategoryService.updateProductCategory(eq(100L), any(ProductCategory.class))).thenReturn(Optional.empty());
-        ResponseEntity<ProductCategory> response = productCategoryController.updateProductCategory(100L, new ProductCategory("Updated Electronics", "Updated description"));
+        when(productCategoryService.updateProductCategory(eq(100L), any(ProductCategory.class), isNull())).thenReturn(Optional.empty());
+        ResponseEntity<ProductCategory> response = productCategoryController.updateProductCategory(100L, new ProductCategory("Updated Electronics", "Updated description"), null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(productCategoryService, times(1)).updateProductCategory(eq(100L), any(ProductCategory.class));
+        verify(productCategoryService, times(1)).updateProductCategory(eq(100L), any(ProductCategory.class), isNull());
     }
 
     @Test
     void deleteProductCategory_existingId_returnsNoContent() {
-        when(productCategoryService.deleteProductCategory(1L)).thenReturn(true);
-        ResponseEntity<Void> response = productCategoryController.deleteProductCategory(1L);
+        when(productCategoryService.deleteProductCategory(1L, null)).thenReturn(true);
+        ResponseEntity<Void> response = productCategoryController.deleteProductCategory(1L, null);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(productCategoryService, times(1)).deleteProductCategory(1L);
+        verify(productCategoryService, times(1)).deleteProductCategory(1L, null);
     }
 
     @Test
     void deleteProductCategory_nonExistingId_returnsNotFound() {
-        when(productCategoryService.deleteProductCategory(100L)).thenReturn(false);
-        ResponseEntity<Void> response = productCategoryController.deleteProductCategory(100L);
+        when(productCategoryService.deleteProductCategory(100L, null)).thenReturn(false);
+        ResponseEntity<Void> response = productCategoryController.deleteProductCategory(100L, null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(productCategoryService, times(1)).deleteProductCategory(100L);
+        verify(productCategoryService, times(1)).deleteProductCategory(100L, null);
     }
 }
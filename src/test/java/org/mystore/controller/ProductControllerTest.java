@@ -6,20 +6,45 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.BulkItemResult;
+import org.mystore.dto.CursorPage;
+import org.mystore.dto.ProductBatch;
+import org.mystore.dto.ProductChangePage;
+import org.mystore.dto.ProductSearchCriteria;
+import org.mystore.dto.ProductSearchHit;
+import org.mystore.dto.ProductSummary;
+import org.mystore.dto.StockUpdateResult;
 import org.mystore.model.Product;
 import org.mystore.model.ProductCategory;
 import org.mystore.model.Subcategory;
+import org.mystore.service.ProductBulkService;
+import org.mystore.service.ProductChangeService;
+import org.mystore.service.ProductExportService;
+import org.mystore.service.ProductLookupService;
 import org.mystore.service.ProductService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 public class ProductControllerTest {
@@ -27,6 +52,18 @@ public class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductExportService productExportService;
+
+    @Mock
+    private ProductBulkService productBulkService;
+
+    @Mock
+    private ProductChangeService productChangeService;
+
+    @Mock
+    private ProductLookupService productLookupService;
+
     @InjectMocks
     private ProductController productController;
 
@@ -48,26 +85,198 @@ public class ProductControllerTest {
     }
 
     @Test
-    void getAllProducts_returnsOkWithProductList() {
-        when(productService.getAllProducts()).thenReturn(Arrays.asList(product1, product2));
-        ResponseEntity<List<Product>> response = productController.getAllProducts();
+    void getAllProducts_returnsOkWithProductPage() {
+        when(productService.getProductPage(null, 50)).thenReturn(new CursorPage<>(Arrays.asList(
+                new ProductSummary(100L, 0L, "iPhone 15", "IPH15-128", new BigDecimal("999.00"), 100, true, 10L, "Smartphones"),
+                new ProductSummary(101L, 0L, "Samsung Galaxy S23", "SGS23-256", new BigDecimal("899.00"), 150, true, 10L, "Smartphones")),
+                "next"));
+        ResponseEntity<CursorPage<ProductSummary>> response = productController.getAllProducts(null, 50);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().items().size());
+        assertEquals("next", response.getBody().nextCursor());
+        verify(productService, times(1)).getProductPage(null, 50);
+    }
+
+    @Test
+    void getAllProducts_invalidCursor_returnsBadRequest() {
+        when(productService.getProductPage("garbage", 50)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+        ResponseEntity<CursorPage<ProductSummary>> response = productController.getAllProducts("garbage", 50);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void getAllProductFields_returnsOkWithSparsePage() {
+        when(productService.getProductPage(null, 50, "name")).thenReturn(
+                new CursorPage<>(List.of(Map.of("id", 100L, "name", "iPhone 15")), null));
+        ResponseEntity<CursorPage<Map<String, Object>>> response = productController.getAllProductFields("name", null, 50);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(2, response.getBody().size());
-        verify(productService, times(1)).getAllProducts();
+        assertEquals("iPhone 15", response.getBody().items().get(0).get("name"));
+    }
+
+    @Test
+    void getAllProductFields_unknownField_returnsBadRequest() {
+        when(productService.getProductPage(null, 50, "secret")).thenThrow(new IllegalArgumentException("Unknown fields"));
+        ResponseEntity<CursorPage<Map<String, Object>>> response = productController.getAllProductFields("secret", null, 50);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void getProductFieldsById_nonExistingId_returnsNotFound() {
+        when(productService.getProductFields(999L, "name")).thenReturn(Optional.empty());
+        ResponseEntity<Map<String, Object>> response = productController.getProductFieldsById(999L, "name");
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void getProductBatch_byIds_returnsProductsAndMissing() {
+        ProductSummary summary = new ProductSummary(100L, 0L, "iPhone 15", "IPH15-128", new BigDecimal("999.00"), 100, true, 10L, "Smartphones");
+        when(productLookupService.getProductsByIds(List.of(100L, 999L)))
+                .thenReturn(new ProductBatch<>(List.of(summary), List.of(999L)));
+        ResponseEntity<ProductBatch<?>> response = productController.getProductBatch(List.of(100L, 999L), null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(summary), response.getBody().products());
+        assertEquals(List.of(999L), response.getBody().missing());
+    }
+
+    @Test
+    void getProductBatch_bySkus_usesSkuLookup() {
+        when(productLookupService.getProductsBySkus(List.of("IPH15-128")))
+                .thenReturn(new ProductBatch<>(List.of(), List.of("IPH15-128")));
+        ResponseEntity<ProductBatch<?>> response = productController.getProductBatch(null, List.of("IPH15-128"));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(productLookupService, never()).getProductsByIds(any());
+    }
+
+    @Test
+    void getProductBatch_idsAndSkusOrNeither_returnsBadRequest() {
+        assertEquals(HttpStatus.BAD_REQUEST, productController.getProductBatch(null, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, productController.getProductBatch(List.of(1L), List.of("A")).getStatusCode());
+        verifyNoInteractions(productLookupService);
+    }
+
+    @Test
+    void getProductBatch_tooManyKeys_returnsBadRequest() {
+        when(productLookupService.getProductsByIds(List.of(1L))).thenThrow(new IllegalArgumentException("At most 0 keys"));
+        assertEquals(HttpStatus.BAD_REQUEST, productController.getProductBatch(List.of(1L), null).getStatusCode());
+    }
+
+    @Test
+    void searchProducts_passesCriteriaToService() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(null, "iPhone", new BigDecimal("500"), null, true, 10L);
+        when(productService.searchProducts(criteria, null, 20)).thenReturn(new CursorPage<>(List.of(), null));
+        ResponseEntity<CursorPage<ProductSummary>> response =
+                productController.searchProducts(null, "iPhone", new BigDecimal("500"), null, true, 10L, null, 20);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(productService, times(1)).searchProducts(criteria, null, 20);
+    }
+
+    @Test
+    void searchProducts_invalidRange_returnsBadRequest() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(null, null, new BigDecimal("10"), new BigDecimal("5"), null, null);
+        when(productService.searchProducts(criteria, null, 50)).thenThrow(new IllegalArgumentException("range"));
+        ResponseEntity<CursorPage<ProductSummary>> response =
+                productController.searchProducts(null, null, new BigDecimal("10"), new BigDecimal("5"), null, null, null, 50);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void getProductChanges_passesCursorAndSinceToService() {
+        LocalDateTime since = LocalDateTime.of(2026, 10, 1, 0, 0);
+        ProductChangePage page = new ProductChangePage(List.of(), "next", false);
+        when(productChangeService.getChanges(null, since, 100)).thenReturn(page);
+        ResponseEntity<ProductChangePage> response = productController.getProductChanges(null, since, 100);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    void getProductChanges_invalidCursor_returnsBadRequest() {
+        when(productChangeService.getChanges("bad", null, 200)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+        assertEquals(HttpStatus.BAD_REQUEST, productController.getProductChanges("bad", null, 200).getStatusCode());
+    }
+
+    @Test
+    void searchProductText_returnsRankedHits() {
+        List<ProductSearchHit> hits = List.of(new ProductSearchHit(
+                new ProductSummary(100L, 0L, "iPhone 15", "IPH15-128", new BigDecimal("999.00"), 100, true, 10L, "Smartphones"), 1.2f));
+        when(productService.searchProductText("iphone", 20)).thenReturn(hits);
+        ResponseEntity<List<ProductSearchHit>> response = productController.searchProductText("iphone", 20);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(hits, response.getBody());
+    }
+
+    @Test
+    void exportProducts_streamsNdjsonFromExportService() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = productController.exportProducts();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ProductController.NDJSON, response.getHeaders().getContentType());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(productExportService, times(1)).exportProducts(out);
     }
 
     @Test
     void getProductById_existingId_returnsOkWithProduct() {
         when(productService.getProductById(100L)).thenReturn(Optional.of(product1));
-        ResponseEntity<Product> response = productController.getProductById(100L);
+        ResponseEntity<Product> response = productController.getProductById(100L, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("iPhone 15", response.getBody().getName());
         verify(productService, times(1)).getProductById(100L);
     }
 
+    @Test
+    void getProductById_returnsVersionsOfProductAndEmbeddedParentsAsETag() {
+        product1.setVersion(7L);
+        subcategory1.setVersion(2L);
+        category1.setVersion(1L);
+        when(productService.getProductById(100L)).thenReturn(Optional.of(product1));
+        ResponseEntity<Product> response = productController.getProductById(100L, null);
+        assertEquals("\"7.2.1\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getProductById_renamedCategory_changesETag() {
+        product1.setVersion(7L);
+        subcategory1.setVersion(2L);
+        category1.setVersion(2L);
+        when(productService.getProductById(100L)).thenReturn(Optional.of(product1));
+        ResponseEntity<Product> response = productController.getProductById(100L, "\"7.2.1\"");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"7.2.2\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getProductById_withoutSubcategory_returnsOwnVersionAsETag() {
+        product1.setVersion(7L);
+        product1.setSubcategory(null);
+        when(productService.getProductById(100L)).thenReturn(Optional.of(product1));
+        ResponseEntity<Product> response = productController.getProductById(100L, null);
+        assertEquals("\"7\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getProductById_matchingIfNoneMatch_returnsNotModifiedWithoutBody() {
+        product1.setVersion(7L);
+        when(productService.getProductById(100L)).thenReturn(Optional.of(product1));
+        ResponseEntity<Product> response = productController.getProductById(100L, "\"7.0.0\"");
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"7.0.0\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void getProductById_staleIfNoneMatch_returnsOk() {
+        product1.setVersion(8L);
+        when(productService.getProductById(100L)).thenReturn(Optional.of(product1));
+        ResponseEntity<Product> response = productController.getProductById(100L, "\"7\"");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("iPhone 15", response.getBody().getName());
+    }
+
     @Test
     void getProductById_nonExistingId_returnsNotFound() {
         when(productService.getProductById(200L)).thenReturn(Optional.empty());
+        ResponseEntity<Product> response = productController.getProductById(200L, null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         verify(productService, times(1)).getProductById(200L);
     }
@@ -81,36 +290,138 @@ public class ProductControllerTest {
         verify(productService, times(1)).createProduct(any(Product.class));
     }
 
+    @Test
+    void createProduct_unknownSubcategory_returnsBadRequest() {
+        when(productService.createProduct(any(Product.class))).thenThrow(new IllegalArgumentException("Unknown subcategory 99"));
+        ResponseEntity<Product> response = productController.createProduct(new Product("iPhone 15", "Latest iPhone", new BigDecimal("999.00"), 100, "IPH15-128", true, subcategory1));
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void bulkUpsertProducts_returnsOkWithPerItemResults() {
+        List<Product> products = List.of(product1, product2);
+        when(productBulkService.upsertProducts(products)).thenReturn(List.of(
+                BulkItemResult.updated(0, 100L), BulkItemResult.notFound(1, 101L)));
+        ResponseEntity<List<BulkItemResult>> response = productController.bulkUpsertProducts(products);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(BulkItemResult.Status.NOT_FOUND, response.getBody().get(1).status());
+        verify(productBulkService, times(1)).upsertProducts(products);
+    }
+
+    @Test
+    void bulkUpsertProducts_tooManyItems_returnsBadRequest() {
+        when(productBulkService.upsertProducts(anyList())).thenThrow(new IllegalArgumentException("At most 1 products per request"));
+        ResponseEntity<List<BulkItemResult>> response = productController.bulkUpsertProducts(List.of(product1, product2));
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     void updateProduct_existingId_returnsOkWithUpdatedProduct() {
-        when(productService.updateProduct(eq(100L), any(Product.class))).thenReturn(Optional.of(product1));
-        ResponseEntity<Product> response = productController.updateProduct(100L, new Product("iPhone 16", "Newer iPhone", new BigDecimal("1099.00"), 90, "IPH16-128", true, subcategory1));
+        when(productService.updateProduct(eq(100L), any(Product.class), isNull())).thenReturn(Optional.of(product1));
+        ResponseEntity<Product> response = productController.updateProduct(100L, new Product("iPhone 16", "Newer iPhone", new BigDecimal("1099.00"), 90, "IPH16-128", true, subcategory1), null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("iPhone 15", response.getBody().getName()); // Assuming service returns the original updated
-        verify(productService, times(1)).updateProduct(eq(100L), any(Product.class));
+        verify(productService, times(1)).updateProduct(eq(100L), any(Product.class), isNull());
+    }
+
+    @Test
+    void createProduct_duplicateSku_returnsConflict() throws Exception {
+        when(productService.createProduct(any(Product.class)))
+                .thenThrow(new DataIntegrityViolationException("Unique index or primary key violation: UK_PRODUCT_SKU"));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController)
+                .setControllerAdvice(new ApiExceptionHandler()).build();
+
+        mockMvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Copy\",\"sku\":\"IPH15-128\",\"unitPrice\":1.00}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void updateProduct_duplicateSku_returnsConflict() throws Exception {
+        when(productService.updateProduct(eq(100L), any(Product.class), isNull()))
+                .thenThrow(new DataIntegrityViolationException("Unique index or primary key violation: UK_PRODUCT_SKU"));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController)
+                .setControllerAdvice(new ApiExceptionHandler()).build();
+
+        mockMvc.perform(put("/api/products/100").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Copy\",\"sku\":\"SGS23-256\",\"unitPrice\":1.00}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void updateProduct_passesIfMatchVersionToService() {
+        product1.setVersion(8L);
+        when(productService.updateProduct(eq(100L), any(Product.class), eq(7L))).thenReturn(Optional.of(product1));
+        ResponseEntity<Product> response = productController.updateProduct(100L, product2, "\"7\"");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"8.0.0\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void deleteProduct_passesIfMatchVersionToService() {
+        when(productService.deleteProduct(100L, 7L)).thenReturn(true);
+        ResponseEntity<Void> response = productController.deleteProduct(100L, "\"7\"");
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
 
     @Test
     void updateProduct_nonExistingId_returnsNotFound() {
-        when(productService.updateProduct(eq(200L), any(Product.class))).thenReturn(Optional.empty());
-        ResponseEntity<Product> response = productController.updateProduct(200L, new Product("iPhone 16", "Newer iPhone", new BigDecimal("1099.00"), 90, "IPH16-128", true, subcategory1));
+        when(productService.updateProduct(eq(200L), any(Product.class), isNull())).thenReturn(Optional.empty());
+        ResponseEntity<Product> response = productController.updateProduct(200L, new Product("iPhone 16", "Newer iPhone", new BigDecimal("1099.00"), 90, "IPH16-128", true, subcategory1), null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(productService, times(1)).updateProduct(eq(200L), any(Product.class));
+        verify(productService, times(1)).updateProduct(eq(200L), any(Product.class), isNull());
+    }
+
+    @Test
+    void reserveStock_applied_returnsOk() {
+        when(productService.reserveStock(100L, 2)).thenReturn(StockUpdateResult.APPLIED);
+        ResponseEntity<StockUpdateResult> response = productController.reserveStock(100L, 2);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(StockUpdateResult.APPLIED, response.getBody());
+    }
+
+    @Test
+    void reserveStock_insufficientStock_returnsConflict() {
+        when(productService.reserveStock(100L, 500)).thenReturn(StockUpdateResult.INSUFFICIENT_STOCK);
+        ResponseEntity<StockUpdateResult> response = productController.reserveStock(100L, 500);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void reserveStock_invalidQuantity_returnsBadRequest() {
+        when(productService.reserveStock(100L, -1)).thenThrow(new IllegalArgumentException("Quantity must be positive"));
+        ResponseEntity<StockUpdateResult> response = productController.reserveStock(100L, -1);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void releaseStock_nonExistingId_returnsNotFound() {
+        when(productService.releaseStock(200L, 1)).thenReturn(StockUpdateResult.NOT_FOUND);
+        ResponseEntity<StockUpdateResult> response = productController.releaseStock(200L, 1);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void releaseStock_stockLimitExceeded_returnsConflict() {
+        when(productService.releaseStock(100L, Integer.MAX_VALUE)).thenReturn(StockUpdateResult.STOCK_LIMIT_EXCEEDED);
+        ResponseEntity<StockUpdateResult> response = productController.releaseStock(100L, Integer.MAX_VALUE);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(StockUpdateResult.STOCK_LIMIT_EXCEEDED, response.getBody());
     }
 
     @Test
     void deleteProduct_existingId_returnsNoContent() {
-        when(productService.deleteProduct(100L)).thenReturn(true);
-        ResponseEntity<Void> response = productController.deleteProduct(100L);
+        when(productService.deleteProduct(100L, null)).thenReturn(true);
+        ResponseEntity<Void> response = productController.deleteProduct(100L, null);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(productService, times(1)).deleteProduct(100L);
+        verify(productService, times(1)).deleteProduct(100L, null);
     }
 
     @Test
     void deleteProduct_nonExistingId_returnsNotFound() {
-        when(productService.deleteProduct(200L)).thenReturn(false);
-        ResponseEntity<Void> response = productController.deleteProduct(200L);
+        when(productService.deleteProduct(200L, null)).thenReturn(false);
+        ResponseEntity<Void> response = productController.deleteProduct(200L, null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(productService, times(1)).deleteProduct(200L);
+        verify(productService, times(1)).deleteProduct(200L, null);
     }
 }
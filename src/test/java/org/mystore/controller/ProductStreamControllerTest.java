@@ -0,0 +1,55 @@
+package org.mystore.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.event.OverflowPolicy;
+import org.mystore.event.ProductEventBus;
+import org.mystore.event.Subscription;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductStreamControllerTest {
+
+    @Mock
+    private ProductEventBus productEventBus;
+
+    @Mock
+    private Subscription subscription;
+
+    private ProductStreamController productStreamController;
+
+    @BeforeEach
+    void setUp() {
+        productStreamController = new ProductStreamController(productEventBus, Duration.ofMinutes(30));
+    }
+
+    @Test
+    void streamProductChanges_subscribesWithFilterAndPolicy() {
+        when(productEventBus.subscribe(eq(Set.of(1L, 2L)), eq(OverflowPolicy.DISCONNECT), any())).thenReturn(subscription);
+        ResponseEntity<SseEmitter> response = productStreamController.streamProductChanges(Set.of(1L, 2L), OverflowPolicy.DISCONNECT);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Duration.ofMinutes(30).toMillis(), response.getBody().getTimeout());
+    }
+
+    @Test
+    void streamProductChanges_tooManySubscribers_returnsServiceUnavailable() {
+        when(productEventBus.subscribe(any(), any(), any())).thenThrow(new IllegalStateException("Too many subscribers"));
+        ResponseEntity<SseEmitter> response = productStreamController.streamProductChanges(null, OverflowPolicy.DROP_OLDEST);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNotNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.SubcategorySummary;
 import org.mystore.model.ProductCategory;
 import org.mystore.model.Subcategory;
 import org.mystore.service.SubcategoryService;
@@ -14,9 +15,12 @@ import org.springframework.http.ResponseEntity;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,17 +48,58 @@ public class SubcategoryControllerTest {
 
     @Test
     void getAllSubcategories_returnsOkWithSubcategoryList() {
-        when(subcategoryService.getAllSubcategories()).thenReturn(Arrays.asList(subcategory1, subcategory2));
-        ResponseEntity<List<Subcategory>> response = subcategoryController.getAllSubcategories();
+        when(subcategoryService.getAllSubcategories()).thenReturn(Arrays.asList(
+                new SubcategorySummary(10L, 0L, "Smartphones", "Mobile phones", 1L, 0L, "Electronics"),
+                new SubcategorySummary(11L, 0L, "Laptops", "Portable computers", 1L, 0L, "Electronics")));
+        ResponseEntity<List<SubcategorySummary>> response = subcategoryController.getAllSubcategories(null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
         verify(subcategoryService, times(1)).getAllSubcategories();
     }
 
+    @Test
+    void getSubcategoryFieldsById_returnsOkWithSparseRow() {
+        when(subcategoryService.getSubcategoryFields(10L, "categoryName")).thenReturn(
+                Optional.of(Map.of("id", 10L, "categoryName", "Electronics")));
+        ResponseEntity<Map<String, Object>> response = subcategoryController.getSubcategoryFieldsById(10L, "categoryName");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Electronics", response.getBody().get("categoryName"));
+    }
+
+    @Test
+    void getSubcategoryById_matchingIfNoneMatch_returnsNotModified() {
+        subcategory1.setVersion(2L);
+        when(subcategoryService.getSubcategoryById(10L)).thenReturn(Optional.of(subcategory1));
+        ResponseEntity<Subcategory> response = subcategoryController.getSubcategoryById(10L, "W/\"2.0\"");
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void getSubcategoryById_updatedCategory_changesETag() {
+        subcategory1.setVersion(2L);
+        subcategory1.getCategory().setVersion(1L);
+        when(subcategoryService.getSubcategoryById(10L)).thenReturn(Optional.of(subcategory1));
+        ResponseEntity<Subcategory> response = subcategoryController.getSubcategoryById(10L, "\"2.0\"");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"2.1\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getAllSubcategories_updatedCategory_changesETag() {
+        when(subcategoryService.getAllSubcategories())
+                .thenReturn(List.of(new SubcategorySummary(10L, 0L, "Smartphones", "Mobile phones", 1L, 0L, "Electronics")))
+                .thenReturn(List.of(new SubcategorySummary(10L, 0L, "Smartphones", "Mobile phones", 1L, 1L, "Electronic devices")));
+        String before = subcategoryController.getAllSubcategories(null).getHeaders().getETag();
+        ResponseEntity<List<SubcategorySummary>> response = subcategoryController.getAllSubcategories(before);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(before, response.getHeaders().getETag());
+    }
+
     @Test
     void getSubcategoryById_existingId_returnsOkWithSubcategory() {
         when(subcategoryService.getSubcategoryById(10L)).thenReturn(Optional.of(subcategory1));
-        ResponseEntity<Subcategory> response = subcategoryController.getSubcategoryById(10L);
+        ResponseEntity<Subcategory> response = subcategoryController.getSubcategoryById(10L, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Smartphones", response.getBody().getName());
         verify(subcategoryService, times(1)).getSubcategoryById(10L);
@@ -63,7 +108,7 @@ public class SubcategoryControllerTest {
     @Test
     void getSubcategoryById_nonExistingId_returnsNotFound() {
         when(subcategoryService.getSubcategoryById(100L)).thenReturn(Optional.empty());
-        ResponseEntity<Subcategory> response = subcategoryController.getSubcategoryById(100L);
+        ResponseEntity<Subcategory> response = subcategoryController.getSubcategoryById(100L, null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         verify(subcategoryService, times(1)).getSubcategoryById(100L);
     }
@@ -79,34 +124,34 @@ public class SubcategoryControllerTest {
 
     @Test
     void updateSubcategory_existingId_returnsOkWithUpdatedSubcategory() {
-        when(subcategoryService.updateSubcategory(eq(10L), any(Subcategory.class))).thenReturn(Optional.of(subcategory1));
-        ResponseEntity<Subcategory> response = subcategoryController.updateSubcategory(10L, new Subcategory("Updated Phones", "New description", category1));
+        when(subcategoryService.updateSubcategory(eq(10L), any(Subcategory.class), isNull())).thenReturn(Optional.of(subcategory1));
+        ResponseEntity<Subcategory> response = subcategoryController.updateSubcategory(10L, new Subcategory("Updated Phones", "New description", category1), null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Smartphones", response.getBody().getName()); // Assuming service returns the original updated
-        verify(subcategoryService, times(1)).updateSubcategory(eq(10L), any(Subcategory.class));
+        verify(subcategoryService, times(1)).updateSubcategory(eq(10L), any(Subcategory.class), isNull());
     }
 
     @Test
     void updateSubcategory_nonExistingId_returnsNotFound() {
-        when(subcategoryService.updateSubcategory(eq(100L), any(Subcategory.class))).thenReturn(Optional.empty());
-        ResponseEntity<Subcategory> response = subcategoryController.updateSubcategory(100L, new Subcategory("Updated Phones", "New description", category1));
+        when(subcategoryService.updateSubcategory(eq(100L), any(Subcategory.class), isNull())).thenReturn(Optional.empty());
+        ResponseEntity<Subcategory> response = subcategoryController.updateSubcategory(100L, new Subcategory("Updated Phones", "New description", category1), null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(subcategoryService, times(1)).updateSubcategory(eq(100L), any(Subcategory.class));
+        verify(subcategoryService, times(1)).updateSubcategory(eq(100L), any(Subcategory.class), isNull());
     }
 
     @Test
     void deleteSubcategory_existingId_returnsNoContent() {
-        when(subcategoryService.deleteSubcategory(10L)).thenReturn(true);
-        ResponseEntity<Void> response = subcategoryController.deleteSubcategory(10L);
+        when(subcategoryService.deleteSubcategory(10L, null)).thenReturn(true);
+        ResponseEntity<Void> response = subcategoryController.deleteSubcategory(10L, null);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(subcategoryService, times(1)).deleteSubcategory(10L);
+        verify(subcategoryService, times(1)).deleteSubcategory(10L, null);
     }
 
     @Test
     void deleteSubcategory_nonExistingId_returnsNotFound() {
-        when(subcategoryService.deleteSubcategory(100L)).thenReturn(false);
-        ResponseEntity<Void> response = subcategoryController.deleteSubcategory(100L);
+        when(subcategoryService.deleteSubcategory(100L, null)).thenReturn(false);
+        ResponseEntity<Void> response = subcategoryController.deleteSubcategory(100L, null);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(subcategoryService, times(1)).deleteSubcategory(100L);
+        verify(subcategoryService, times(1)).deleteSubcategory(100L, null);
     }
 }
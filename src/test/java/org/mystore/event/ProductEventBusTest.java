@@ -0,0 +1,298 @@
+package org.mystore.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductEventBusTest {
+
+    private static final Duration SEND_TIMEOUT = Duration.ofMillis(200);
+
+    private ManualExecutor dispatcher;
+    private ProductEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new ManualExecutor();
+        bus = new ProductEventBus(2, 3, SEND_TIMEOUT, dispatcher);
+    }
+
+    @Test
+    void deliversEventsInOrderOnDispatchThreads() {
+        RecordingSink sink = new RecordingSink();
+        bus.subscribe(null, OverflowPolicy.DROP_OLDEST, sink);
+
+        bus.publish(event(1L, 10));
+        bus.publish(event(1L, 9));
+        assertTrue(sink.received.isEmpty());
+
+        dispatcher.runAll();
+        assertEquals(List.of(10, 9), stocks(sink));
+    }
+
+    @Test
+    void onlyDeliversSubscribedProducts() {
+        RecordingSink sink = new RecordingSink();
+        bus.subscribe(Set.of(2L), OverflowPolicy.DROP_OLDEST, sink);
+
+        bus.publish(event(1L, 10));
+        bus.publish(event(2L, 20));
+        dispatcher.runAll();
+
+        assertEquals(List.of(20), stocks(sink));
+    }
+
+    @Test
+    void dropOldestKeepsTheLatestEvents() {
+        RecordingSink sink = new RecordingSink();
+        Subscription subscription = bus.subscribe(null, OverflowPolicy.DROP_OLDEST, sink);
+
+        bus.publish(event(1L, 3));
+        bus.publish(event(1L, 2));
+        bus.publish(event(1L, 1));
+        dispatcher.runAll();
+
+        assertEquals(List.of(2, 1), stocks(sink));
+        assertEquals(1, subscription.droppedCount());
+    }
+
+    @Test
+    void dropNewestKeepsTheBufferedEvents() {
+        RecordingSink sink = new RecordingSink();
+        Subscription subscription = bus.subscribe(null, OverflowPolicy.DROP_NEWEST, sink);
+
+        bus.publish(event(1L, 3));
+        bus.publish(event(1L, 2));
+        bus.publish(event(1L, 1));
+        dispatcher.runAll();
+
+        assertEquals(List.of(3, 2), stocks(sink));
+        assertEquals(1, subscription.droppedCount());
+    }
+
+    @Test
+    void disconnectClosesTheSlowSubscriberOnly() {
+        RecordingSink slow = new RecordingSink();
+        RecordingSink fast = new RecordingSink();
+        Subscription slowSubscription = bus.subscribe(null, OverflowPolicy.DISCONNECT, slow);
+        bus.subscribe(Set.of(2L), OverflowPolicy.DISCONNECT, fast);
+
+        bus.publish(event(1L, 3));
+        bus.publish(event(1L, 2));
+        bus.publish(event(1L, 1));
+        bus.publish(event(2L, 5));
+        dispatcher.runAll();
+
+        assertTrue(slowSubscription.isCancelled());
+        assertTrue(slow.closed);
+        assertTrue(slow.received.isEmpty());
+        assertEquals(List.of(5), stocks(fast));
+        assertEquals(1, bus.subscriberCount());
+    }
+
+    @Test
+    void failingSinkIsUnsubscribed() {
+        RecordingSink sink = new RecordingSink();
+        sink.fail = true;
+        Subscription subscription = bus.subscribe(null, OverflowPolicy.DROP_OLDEST, sink);
+
+        bus.publish(event(1L, 1));
+        dispatcher.runAll();
+
+        assertTrue(subscription.isCancelled());
+        assertTrue(sink.closed);
+        assertEquals(0, bus.subscriberCount());
+    }
+
+    @Test
+    void stalledSinkIsDisconnectedAfterSendTimeout() throws Exception {
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        try {
+            bus = new ProductEventBus(2, 3, SEND_TIMEOUT, singleThread);
+            StalledSink stalled = new StalledSink();
+            Subscription stalledSubscription = bus.subscribe(Set.of(1L), OverflowPolicy.DROP_OLDEST, stalled);
+            BlockingQueue<ProductChangedEvent> healthy = new LinkedBlockingQueue<>();
+            bus.subscribe(Set.of(2L), OverflowPolicy.DROP_OLDEST, healthy::add);
+
+            bus.publish(event(1L, 1));
+            assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+            bus.publish(event(2L, 2));
+            bus.expireStalledSends();
+            assertNull(healthy.poll(50, TimeUnit.MILLISECONDS), "the only dispatch thread is still blocked");
+            assertFalse(stalledSubscription.isCancelled());
+
+            Thread.sleep(SEND_TIMEOUT.toMillis());
+            bus.expireStalledSends();
+
+            assertEquals(2, healthy.poll(5, TimeUnit.SECONDS).stockQuantity());
+            assertTrue(stalledSubscription.isCancelled());
+            assertTrue(stalled.closed);
+            assertEquals(1, bus.subscriberCount());
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    @Test
+    void limitsSubscribersAndReleasesSlotsOnCancel() {
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            subscriptions.add(bus.subscribe(null, OverflowPolicy.DROP_OLDEST, new RecordingSink()));
+        }
+        assertThrows(IllegalStateException.class, () -> bus.subscribe(null, OverflowPolicy.DROP_OLDEST, new RecordingSink()));
+
+        subscriptions.get(0).cancel();
+        subscriptions.get(0).cancel();
+        assertEquals(2, bus.subscriberCount());
+        assertNotNull(bus.subscribe(null, OverflowPolicy.DROP_OLDEST, new RecordingSink()));
+    }
+
+    @Test
+    void oneDrainTaskPerSubscriptionAtATime() {
+        bus = new ProductEventBus(100, 3, SEND_TIMEOUT, dispatcher);
+        RecordingSink sink = new RecordingSink();
+        bus.subscribe(null, OverflowPolicy.DROP_OLDEST, sink);
+
+        for (int i = 0; i < Subscription.DRAIN_BATCH + 10; i++) {
+            bus.publish(event(1L, i));
+        }
+        assertEquals(1, dispatcher.tasks.size());
+
+        dispatcher.runNext();
+        assertEquals(Subscription.DRAIN_BATCH, sink.received.size());
+        dispatcher.runAll();
+        assertEquals(Subscription.DRAIN_BATCH + 10, sink.received.size());
+    }
+
+    @Test
+    void differsFromIgnoresVersionTimeAndPriceScale() {
+        ProductChangedEvent event = new ProductChangedEvent(1L, 1L, new BigDecimal("9.90"), 5, true, LocalDateTime.now());
+        assertFalse(event.differsFrom(new ProductChangedEvent(1L, 2L, new BigDecimal("9.9"), 5, true, null)));
+        assertTrue(event.differsFrom(new ProductChangedEvent(1L, 1L, new BigDecimal("9.91"), 5, true, null)));
+        assertTrue(event.differsFrom(new ProductChangedEvent(1L, 1L, new BigDecimal("9.90"), 4, true, null)));
+        assertTrue(event.differsFrom(new ProductChangedEvent(1L, 1L, new BigDecimal("9.90"), 5, false, null)));
+    }
+
+    private static ProductChangedEvent event(Long productId, int stock) {
+        return new ProductChangedEvent(productId, 1L, BigDecimal.TEN, stock, true, LocalDateTime.now());
+    }
+
+    private static List<Integer> stocks(RecordingSink sink) {
+        return sink.received.stream().map(ProductChangedEvent::stockQuantity).toList();
+    }
+
+    private static final class RecordingSink implements ProductEventBus.Sink {
+
+        final List<ProductChangedEvent> received = new ArrayList<>();
+        boolean fail;
+        boolean closed;
+
+        @Override
+        public void send(ProductChangedEvent event) throws IOException {
+            if (fail) {
+                throw new IOException("Broken pipe");
+            }
+            received.add(event);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * Blocks in send like a write to a client that stopped reading, until interrupted.
+     */
+    private static final class StalledSink implements ProductEventBus.Sink {
+
+        final CountDownLatch sending = new CountDownLatch(1);
+        volatile boolean closed;
+
+        @Override
+        public void send(ProductChangedEvent event) throws IOException {
+            sending.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("write interrupted");
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * Runs dispatched drains only when the test says so.
+     */
+    private static final class ManualExecutor extends AbstractExecutorService {
+
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        private boolean shutdown;
+
+        void runNext() {
+            tasks.remove().run();
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                runNext();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> pending = new ArrayList<>(tasks);
+            tasks.clear();
+            return pending;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && tasks.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return isTerminated();
+        }
+    }
+}
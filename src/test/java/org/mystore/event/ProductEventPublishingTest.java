@@ -0,0 +1,86 @@
+package org.mystore.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.StockUpdateResult;
+import org.mystore.model.Product;
+import org.mystore.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Product writes reach bus subscribers once committed, and not at all when rolled back.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.cache.region_prefix=product-event-publishing-test")
+public class ProductEventPublishingTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductEventBus productEventBus;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final BlockingQueue<ProductChangedEvent> received = new LinkedBlockingQueue<>();
+    private Product product;
+    private Subscription subscription;
+
+    @BeforeEach
+    void setUp() {
+        product = productService.createProduct(
+                new Product("Desk lamp", "LED lamp", new BigDecimal("39.00"), 10, "EVT-" + System.nanoTime(), true, null));
+        subscription = productEventBus.subscribe(Set.of(product.getId()), OverflowPolicy.DROP_OLDEST, received::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscription.cancel();
+    }
+
+    @Test
+    void stockReservationIsPublishedWithNewStock() throws InterruptedException {
+        assertEquals(StockUpdateResult.APPLIED, productService.reserveStock(product.getId(), 3));
+
+        ProductChangedEvent event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(7, event.stockQuantity());
+        assertEquals(product.getVersion() + 1, event.version());
+    }
+
+    @Test
+    void priceUpdateIsPublishedButNameOnlyUpdateIsNot() throws InterruptedException {
+        product.setName("Desk lamp v2");
+        product = productService.updateProduct(product.getId(), product, null).orElseThrow();
+        product.setUnitPrice(new BigDecimal("35.00"));
+        productService.updateProduct(product.getId(), product, null);
+
+        ProductChangedEvent event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(0, new BigDecimal("35.00").compareTo(event.unitPrice()));
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void rolledBackReservationIsNotPublished() throws InterruptedException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            productService.reserveStock(product.getId(), 3);
+            status.setRollbackOnly();
+        });
+
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+}
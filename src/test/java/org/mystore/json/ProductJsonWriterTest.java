@@ -0,0 +1,199 @@
+package org.mystore.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.CursorPage;
+import org.mystore.dto.ProductSummary;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductJsonWriterTest {
+
+    // Configured like the application's ObjectMapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private ProductJsonWriters writers;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        writers = new ProductJsonWriters(2);
+        ProductCategory category = new ProductCategory(1L, "Électronique", "Tabs\tand \"quotes\"");
+        category.setVersion(3L);
+        Subcategory subcategory = new Subcategory(10L, "Phones 📱", "ctrl\u0001\u001f\u007f / back\\slash", category);
+        subcategory.setVersion(0L);
+        product = new Product("Phone ü 日本  ", "line\nbreak\r\b\f", new BigDecimal("999.50"), 7, "P-1", true, subcategory);
+        product.setId(100L);
+        product.setVersion(2L);
+        product.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 106_399_305));
+        product.setUpdatedAt(LocalDateTime.of(2024, 12, 31, 23, 59, 0, 0));
+    }
+
+    @Test
+    void writeProduct_matchesObjectMapper() throws Exception {
+        assertSameAsJackson(product);
+    }
+
+    @Test
+    void writeProduct_nullPropertiesAndGraph() throws Exception {
+        Product empty = new Product();
+        empty.setCreatedAt(null);
+        empty.setUpdatedAt(null);
+        assertSameAsJackson(empty);
+
+        product.getSubcategory().setCategory(null);
+        assertSameAsJackson(product);
+
+        product.setSubcategory(null);
+        assertSameAsJackson(product);
+    }
+
+    @Test
+    void writeProduct_numbers() throws Exception {
+        product.setVersion(Long.MIN_VALUE);
+        product.setId(Long.MAX_VALUE);
+        product.setStockQuantity(Integer.MIN_VALUE);
+        for (String price : List.of("0", "0.10", "1E+3", "-12.345", "123456789012345678901234567890.5", "1E-10")) {
+            product.setUnitPrice(new BigDecimal(price));
+            assertSameAsJackson(product);
+        }
+    }
+
+    @Test
+    void writeProduct_dateTimes() throws Exception {
+        List<LocalDateTime> dateTimes = List.of(
+                LocalDateTime.of(2024, 6, 1, 0, 0),
+                LocalDateTime.of(2024, 6, 1, 12, 30, 15, 100_000_000),
+                LocalDateTime.of(2024, 6, 1, 12, 30, 15, 1_000),
+                LocalDateTime.of(2024, 6, 1, 12, 30, 15, 1),
+                LocalDateTime.of(1, 1, 1, 0, 0),
+                LocalDateTime.of(12024, 6, 1, 0, 0),
+                LocalDateTime.of(-5, 6, 1, 0, 0),
+                LocalDateTime.MIN,
+                LocalDateTime.MAX);
+        for (LocalDateTime dateTime : dateTimes) {
+            product.setCreatedAt(dateTime);
+            assertSameAsJackson(product);
+        }
+    }
+
+    @Test
+    void writeProduct_longStringsCrossBufferBoundaries() throws Exception {
+        char[] text = new char[3 * ProductJsonWriters.BUFFER_SIZE];
+        String pattern = "aé日📱\"\n";
+        for (int i = 0; i < text.length; i++) {
+            text[i] = pattern.charAt(i % pattern.length());
+        }
+        product.setDescription(new String(text));
+
+        assertSameAsJackson(product);
+    }
+
+    @Test
+    void writeSummaryPage_matchesObjectMapper() throws Exception {
+        List<ProductSummary> items = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            items.add(new ProductSummary(id, id % 3, "Product \"" + id + "\" ü", "SKU-" + id,
+                    new BigDecimal(id + ".99"), (int) id, id % 2 == 0, id % 7 == 0 ? null : id % 20,
+                    id % 7 == 0 ? null : "Subcategory " + id % 20));
+        }
+        items.add(null);
+
+        assertSummaryPageSameAsJackson(new CursorPage<>(items, "eyJpZCI6NTAwfQ"));
+        assertSummaryPageSameAsJackson(new CursorPage<>(List.of(), null));
+        assertSummaryPageSameAsJackson(new CursorPage<>(null, null));
+    }
+
+    @Test
+    void writeNewLine_separatesProducts() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ProductJsonWriter writer = writers.open(out)) {
+            writer.writeProduct(product);
+            writer.writeNewLine();
+            writer.writeProduct(null);
+            writer.writeNewLine();
+        }
+
+        byte[] expected = (new String(objectMapper.writeValueAsBytes(product), StandardCharsets.UTF_8) + "\nnull\n")
+                .getBytes(StandardCharsets.UTF_8);
+        assertBytesEqual(expected, out.toByteArray());
+    }
+
+    @Test
+    void close_returnsBufferToBoundedPool() throws Exception {
+        ProductJsonWriter first = writers.open(new ByteArrayOutputStream());
+        ProductJsonWriter second = writers.open(new ByteArrayOutputStream());
+        ProductJsonWriter third = writers.open(new ByteArrayOutputStream());
+        assertEquals(0, writers.pooled());
+
+        first.close();
+        first.close();
+        assertEquals(1, writers.pooled());
+        second.close();
+        third.close();
+        assertEquals(2, writers.pooled());
+    }
+
+    @Test
+    void close_returnsBufferWhenFlushFails() {
+        ByteArrayOutputStream failing = new ByteArrayOutputStream() {
+            @Override
+            public void write(byte[] b, int off, int len) {
+                throw new IllegalStateException("client went away");
+            }
+        };
+        ProductJsonWriter writer = writers.open(failing);
+
+        assertThrows(IllegalStateException.class, () -> {
+            try (writer) {
+                writer.writeProduct(product);
+            }
+        });
+        assertEquals(1, writers.pooled());
+    }
+
+    @Test
+    void constructor_rejectsEmptyPool() {
+        assertThrows(IllegalArgumentException.class, () -> new ProductJsonWriters(0));
+    }
+
+    private void assertSameAsJackson(Product value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ProductJsonWriter writer = writers.open(out)) {
+            writer.writeProduct(value);
+        }
+        assertBytesEqual(objectMapper.writeValueAsBytes(value), out.toByteArray());
+    }
+
+    private void assertSummaryPageSameAsJackson(CursorPage<ProductSummary> page) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ProductJsonWriter writer = writers.open(out)) {
+            writer.writeSummaryPage(page);
+        }
+        assertBytesEqual(objectMapper.writeValueAsBytes(page), out.toByteArray());
+    }
+
+    private static void assertBytesEqual(byte[] expected, byte[] actual) {
+        if (!Arrays.equals(expected, actual)) {
+            assertEquals(new String(expected, StandardCharsets.UTF_8), new String(actual, StandardCharsets.UTF_8));
+            fail("Same text, different bytes");
+        }
+    }
+}
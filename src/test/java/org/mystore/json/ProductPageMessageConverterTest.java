@@ -0,0 +1,55 @@
+package org.mystore.json;
+
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.CursorPage;
+import org.mystore.dto.ProductSummary;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductPageMessageConverterTest {
+
+    private static final Type SUMMARY_PAGE = new ParameterizedTypeReference<CursorPage<ProductSummary>>() { }.getType();
+    private static final Type FIELDS_PAGE = new ParameterizedTypeReference<CursorPage<Map<String, Object>>>() { }.getType();
+
+    private final ProductPageMessageConverter converter = new ProductPageMessageConverter(new ProductJsonWriters(1));
+
+    @Test
+    void canWrite_onlySummaryPagesAsJson() {
+        assertTrue(converter.canWrite(SUMMARY_PAGE, CursorPage.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(SUMMARY_PAGE, CursorPage.class, MediaType.ALL));
+        assertTrue(converter.canWrite(SUMMARY_PAGE, CursorPage.class, null));
+        assertFalse(converter.canWrite(SUMMARY_PAGE, CursorPage.class, MediaType.APPLICATION_XML));
+        assertFalse(converter.canWrite(FIELDS_PAGE, CursorPage.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(CursorPage.class, CursorPage.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(ProductSummary.class, ProductSummary.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(CursorPage.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void canRead_never() {
+        assertFalse(converter.canRead(SUMMARY_PAGE, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(CursorPage.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void write_streamsPageAsJson() throws Exception {
+        CursorPage<ProductSummary> page = new CursorPage<>(List.of(new ProductSummary(1L, 0L, "iPhone 15", "IPH15-128",
+                new BigDecimal("999.00"), 100, true, 10L, "Smartphones")), "next");
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        converter.write(page, SUMMARY_PAGE, MediaType.APPLICATION_JSON, message);
+
+        assertEquals(MediaType.APPLICATION_JSON, message.getHeaders().getContentType());
+        assertEquals("{\"items\":[{\"id\":1,\"version\":0,\"name\":\"iPhone 15\",\"sku\":\"IPH15-128\",\"unitPrice\":999.00,"
+                + "\"stockQuantity\":100,\"active\":true,\"subcategoryId\":10,\"subcategoryName\":\"Smartphones\"}],"
+                + "\"nextCursor\":\"next\"}", message.getBodyAsString());
+    }
+}
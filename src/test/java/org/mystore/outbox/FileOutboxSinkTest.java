@@ -0,0 +1,56 @@
+package org.mystore.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mystore.model.OutboxEvent.AggregateType;
+import org.mystore.model.OutboxEvent.EventType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileOutboxSinkTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendsOneJsonLinePerMessageWithPayloadInline() throws IOException {
+        Path file = directory.resolve("nested/events.ndjson");
+        FileOutboxSink sink = new FileOutboxSink(file, objectMapper);
+
+        sink.publish(List.of(message(1L, "{\"id\":7,\"sku\":\"A\"}"), message(2L, "{\"id\":7}")));
+        sink.publish(List.of(message(3L, "{\"id\":8}")));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("PRODUCT", first.get("aggregateType").asText());
+        assertEquals("A", first.get("payload").get("sku").asText());
+        assertEquals(3L, objectMapper.readTree(lines.get(2)).get("id").asLong());
+    }
+
+    @Test
+    void queueSinkRejectsBatchesThatDoNotFit() throws Exception {
+        QueueOutboxSink sink = new QueueOutboxSink(2);
+        sink.publish(List.of(message(1L, "{}")));
+        assertThrows(IOException.class, () -> sink.publish(List.of(message(2L, "{}"), message(3L, "{}"))));
+        assertEquals(1, sink.size());
+        sink.publish(List.of(message(2L, "{}")));
+        assertEquals(2, sink.size());
+    }
+
+    private static OutboxMessage message(Long id, String payload) {
+        return new OutboxMessage(id, AggregateType.PRODUCT, 7L, EventType.UPDATED, payload, LocalDateTime.now());
+    }
+}
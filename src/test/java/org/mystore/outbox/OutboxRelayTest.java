@@ -0,0 +1,184 @@
+package org.mystore.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystore.model.Address;
+import org.mystore.model.Client;
+import org.mystore.model.OutboxEvent.AggregateType;
+import org.mystore.model.OutboxEvent.EventType;
+import org.mystore.model.Product;
+import org.mystore.repository.OutboxEventRepository;
+import org.mystore.service.AddressService;
+import org.mystore.service.ClientService;
+import org.mystore.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox rows are written with the change they describe and relayed at least once. The
+ * background relay is off here; tests drain it explicitly.
+ */
+@SpringBootTest(properties = {
+        "storeapp.outbox.relay.enabled=false",
+        "spring.jpa.properties.hibernate.cache.region_prefix=outbox-relay-test"})
+public class OutboxRelayTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final RecordingSink sink = new RecordingSink();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxEventRepository, transactionManager, sink, 2, 3, Duration.ofSeconds(1), false);
+        relay.drainAll();
+        sink.messages.clear();
+    }
+
+    @Test
+    void productLifecycleIsRelayedInOrder() throws IOException {
+        Product product = productService.createProduct(
+                new Product("Outbox kettle", "", new BigDecimal("20.00"), 5, "OBX-" + System.nanoTime(), true, null));
+        product.setUnitPrice(new BigDecimal("18.00"));
+        productService.updateProduct(product.getId(), product, null);
+        productService.reserveStock(product.getId(), 2);
+        productService.deleteProduct(product.getId(), null);
+
+        assertEquals(4, relay.drainAll());
+
+        List<OutboxMessage> messages = sink.messages.stream().filter(m -> m.aggregateId().equals(product.getId())).toList();
+        assertEquals(List.of(EventType.CREATED, EventType.UPDATED, EventType.STOCK_CHANGED, EventType.DELETED),
+                messages.stream().map(OutboxMessage::eventType).toList());
+        JsonNode updated = objectMapper.readTree(messages.get(1).payload());
+        assertEquals(1L, updated.get("version").asLong());
+        assertEquals(0, new BigDecimal("18.00").compareTo(updated.get("unitPrice").decimalValue()));
+        assertEquals(3, objectMapper.readTree(messages.get(2).payload()).get("stockQuantity").asInt());
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void clientChangesAreRelayed() throws IOException {
+        Client client = clientService.createClient(new Client("Ada", "ada@example.com", "555"));
+        clientService.deleteClient(client.getId(), null);
+
+        relay.drainAll();
+
+        assertEquals(List.of(EventType.CREATED, EventType.DELETED), sink.messages.stream()
+                .filter(m -> m.aggregateType() == AggregateType.CLIENT && m.aggregateId().equals(client.getId()))
+                .map(OutboxMessage::eventType).toList());
+        assertEquals("Ada", objectMapper.readTree(sink.messages.get(0).payload()).get("name").asText());
+    }
+
+    @Test
+    void addressChangesAreRelayedAsClientUpdates() throws IOException {
+        Client client = clientService.createClient(new Client("Grace", "grace@example.com", "556"));
+        Address address = new Address("1 Loop Rd", "Arlington", "VA", "22201");
+        address.setClient(client);
+        address = addressService.createAddress(address);
+        address.setStreet("2 Loop Rd");
+        addressService.updateAddress(address.getId(), address, null);
+        addressService.deleteAddress(address.getId(), null);
+
+        relay.drainAll();
+
+        List<OutboxMessage> updates = sink.messages.stream()
+                .filter(m -> m.aggregateType() == AggregateType.CLIENT && m.aggregateId().equals(client.getId())
+                        && m.eventType() == EventType.UPDATED)
+                .toList();
+        assertEquals(3, updates.size());
+        assertEquals("1 Loop Rd", objectMapper.readTree(updates.get(0).payload()).get("addresses").get(0).get("street").asText());
+        assertEquals("2 Loop Rd", objectMapper.readTree(updates.get(1).payload()).get("addresses").get(0).get("street").asText());
+        assertTrue(objectMapper.readTree(updates.get(2).payload()).get("addresses").isEmpty());
+    }
+
+    @Test
+    void rolledBackChangeLeavesNoEvent() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productService.createProduct(new Product("Ghost", "", BigDecimal.ONE, 1, "OBX-" + System.nanoTime(), true, null));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, relay.drainAll());
+    }
+
+    @Test
+    void failedBatchesAreRedeliveredAndDeletedOnlyAfterSuccess() {
+        for (int i = 0; i < 3; i++) {
+            productService.createProduct(new Product("Retry " + i, "", BigDecimal.ONE, 1, "OBX-" + System.nanoTime(), true, null));
+        }
+        sink.failuresLeft.set(1);
+
+        int firstPass = relay.drainAll();
+        assertEquals(1, relay.failedBatchCount());
+        assertEquals(3, firstPass + outboxEventRepository.count());
+
+        relay.drainAll();
+        assertEquals(0, outboxEventRepository.count());
+        assertEquals(3, sink.messages.stream().map(OutboxMessage::id).distinct().count());
+    }
+
+    @Test
+    void withoutSinkEventsStayInTheOutbox() {
+        OutboxRelay idle = new OutboxRelay(outboxEventRepository, transactionManager, (OutboxSink) null, 2, 3, Duration.ofSeconds(1), true);
+        productService.createProduct(new Product("Parked", "", BigDecimal.ONE, 1, "OBX-" + System.nanoTime(), true, null));
+
+        idle.start();
+        assertEquals(0, idle.drainAll());
+        assertEquals(1, outboxEventRepository.count());
+        idle.stop();
+    }
+
+    @Test
+    void writerRequiresTheCallersTransaction() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> outboxWriter.append(AggregateType.PRODUCT, 1L, EventType.UPDATED, Map.of("id", 1L)));
+    }
+
+    private static final class RecordingSink implements OutboxSink {
+
+        final List<OutboxMessage> messages = new ArrayList<>();
+        final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @Override
+        public synchronized void publish(List<OutboxMessage> batch) throws IOException {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IOException("Broker unavailable");
+            }
+            messages.addAll(batch);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.mystore.pricing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.PriceStock;
+import org.mystore.event.ProductChangedEvent;
+import org.mystore.event.ProductDeletedEvent;
+import org.mystore.repository.ProductRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PriceStockIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PriceStockIndex index(boolean enabled) {
+        return new PriceStockIndex(productRepository, transactionManager, enabled, 16);
+    }
+
+    @Test
+    void find_disabledReadsTheDatabase() {
+        PriceStock priceStock = new PriceStock(7L, 1L, new BigDecimal("19.99"), 5, true);
+        when(productRepository.findPriceStockById(7L)).thenReturn(Optional.of(priceStock));
+        PriceStockIndex index = index(false);
+
+        assertEquals(Optional.of(priceStock), index.find(7L));
+        assertEquals(Optional.of(priceStock), index.find(7L));
+        verify(productRepository, times(2)).findPriceStockById(7L);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void find_loadsMissOnceAndServesItFromMemory() {
+        when(productRepository.findPriceStockById(7L))
+                .thenReturn(Optional.of(new PriceStock(7L, 1L, new BigDecimal("19.99"), 5, true)));
+        PriceStockIndex index = index(true);
+
+        index.find(7L);
+        PriceStock cached = index.find(7L).orElseThrow();
+
+        assertEquals(new BigDecimal("19.99"), cached.unitPrice());
+        assertEquals(5, cached.stockQuantity());
+        verify(productRepository, times(1)).findPriceStockById(7L);
+    }
+
+    @Test
+    void load_fillsTableFromDatabase() {
+        when(productRepository.streamAllPriceStock()).thenReturn(Stream.of(
+                new PriceStock(1L, 0L, new BigDecimal("5.00"), 1, true),
+                new PriceStock(2L, 0L, null, 0, false)));
+        PriceStockIndex index = index(true);
+
+        index.load();
+
+        assertEquals(2, index.size());
+        assertNull(index.find(2L).orElseThrow().unitPrice());
+        verify(productRepository, never()).findPriceStockById(anyLong());
+    }
+
+    @Test
+    void onProductChanged_appliesNewerStateOnly() {
+        PriceStockIndex index = index(true);
+        index.onProductChanged(new ProductChangedEvent(7L, 3L, new BigDecimal("18.50"), 4, true, LocalDateTime.now()));
+        index.onProductChanged(new ProductChangedEvent(7L, 2L, new BigDecimal("99.00"), 9, true, LocalDateTime.now()));
+
+        PriceStock priceStock = index.find(7L).orElseThrow();
+
+        assertEquals(new BigDecimal("18.50"), priceStock.unitPrice());
+        assertEquals(3L, priceStock.version());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void onProductDeleted_answersNotFoundWithoutDatabase() {
+        PriceStockIndex index = index(true);
+        index.onProductChanged(new ProductChangedEvent(7L, 1L, new BigDecimal("18.50"), 4, true, LocalDateTime.now()));
+
+        index.onProductDeleted(new ProductDeletedEvent(7L));
+
+        assertTrue(index.find(7L).isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void toUnits_roundsToTwoDecimalPlaces() {
+        assertEquals(1999L, PriceStockIndex.toUnits(new BigDecimal("19.99")));
+        assertEquals(2000L, PriceStockIndex.toUnits(new BigDecimal("19.995")));
+        assertEquals(1900L, PriceStockIndex.toUnits(new BigDecimal("19")));
+    }
+}
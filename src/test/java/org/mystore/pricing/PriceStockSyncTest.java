@@ -0,0 +1,65 @@
+package org.mystore.pricing;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.PriceStock;
+import org.mystore.model.Product;
+import org.mystore.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Committed product writes reach the price table, and lookups then need no SQL.
+ */
+@SpringBootTest(properties = {
+        "storeapp.outbox.relay.enabled=false",
+        "spring.jpa.properties.hibernate.cache.region_prefix=price-stock-sync-test"
+})
+public class PriceStockSyncTest {
+
+    @Autowired
+    private PriceStockIndex priceStockIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void writesAreVisibleWithoutQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Product product = productService.createProduct(
+                new Product("Kettle", "", new BigDecimal("49.90"), 10, "PS-" + System.nanoTime(), true, null));
+        assertEquals(new BigDecimal("49.90"), priceStockIndex.find(product.getId()).orElseThrow().unitPrice());
+
+        productService.reserveStock(product.getId(), 3);
+        Product repriced = productService.getProductById(product.getId()).orElseThrow();
+        Product update = new Product("Kettle", "", new BigDecimal("44.90"), 7, repriced.getSku(), false, null);
+        productService.updateProduct(product.getId(), update, null);
+
+        statistics.clear();
+        PriceStock priceStock = priceStockIndex.find(product.getId()).orElseThrow();
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(new BigDecimal("44.90"), priceStock.unitPrice());
+        assertEquals(7, priceStock.stockQuantity());
+        assertFalse(priceStock.active());
+
+        Product renamed = productService.updateProduct(product.getId(),
+                new Product("Electric kettle", "", new BigDecimal("44.90"), 7, repriced.getSku(), false, null), null).orElseThrow();
+        statistics.clear();
+        assertEquals(renamed.getVersion(), priceStockIndex.find(product.getId()).orElseThrow().version());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        productService.deleteProduct(product.getId(), null);
+        statistics.clear();
+        assertTrue(priceStockIndex.find(product.getId()).isEmpty());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
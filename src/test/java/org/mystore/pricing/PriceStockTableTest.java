@@ -0,0 +1,87 @@
+package org.mystore.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceStockTableTest {
+
+    private final PriceStockTable table = new PriceStockTable(16);
+
+    @Test
+    void get_returnsStoredEntry() {
+        assertTrue(table.put(7L, 1L, 1999L, 5, true));
+
+        assertEquals("7:1:1999:5:true", table.get(7L, PriceStockTableTest::describe));
+        assertNull(table.get(8L, PriceStockTableTest::describe));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void put_ignoresSameOrOlderVersions() {
+        table.put(7L, 3L, 1999L, 5, true);
+
+        assertFalse(table.put(7L, 2L, 1L, 1, false));
+        assertFalse(table.put(7L, 3L, 1L, 1, false));
+        assertTrue(table.put(7L, 4L, 1899L, 4, false));
+
+        assertEquals("7:4:1899:4:false", table.get(7L, PriceStockTableTest::describe));
+    }
+
+    @Test
+    void remove_leavesTombstoneThatRejectsLaterPuts() {
+        table.put(7L, 1L, 1999L, 5, true);
+
+        table.remove(7L);
+        table.remove(9L);
+
+        assertNull(table.get(7L, PriceStockTableTest::describe));
+        assertTrue(table.contains(7L));
+        assertTrue(table.contains(9L));
+        assertFalse(table.put(7L, 2L, 1999L, 5, true));
+        assertFalse(table.put(9L, 1L, 1999L, 5, true));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void put_growsAndKeepsEveryEntry() {
+        for (long id = 1; id <= 100_000; id++) {
+            table.put(id, 1L, id * 100, (int) id % 50, id % 2 == 0);
+        }
+
+        assertEquals(100_000, table.size());
+        assertTrue(table.capacity() >= 100_000 * 4 / 3);
+        for (long id = 1; id <= 100_000; id++) {
+            assertEquals(id + ":1:" + id * 100 + ":" + (int) id % 50 + ":" + (id % 2 == 0),
+                    table.get(id, PriceStockTableTest::describe));
+        }
+    }
+
+    @Test
+    void get_neverSeesHalfWrittenEntries() throws Exception {
+        table.put(1L, 1L, 1L, 1, true);
+        AtomicBoolean stop = new AtomicBoolean();
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int version = 2; version < 200_000; version++) {
+                // Price and stock always move together; other ids force the table to grow meanwhile
+                table.put(1L, version, version, version, true);
+                table.put(version, 1L, 0L, 0, false);
+            }
+            stop.set(true);
+        });
+
+        while (!stop.get()) {
+            Boolean consistent = table.get(1L, (id, version, price, stock, active) -> price == stock && price == version);
+            assertTrue(consistent);
+        }
+        writer.get(10, TimeUnit.SECONDS);
+    }
+
+    private static String describe(long id, long version, long price, int stock, boolean active) {
+        return id + ":" + version + ":" + price + ":" + stock + ":" + active;
+    }
+}
@@ -0,0 +1,88 @@
+package org.mystore.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.AddressSummary;
+import org.mystore.dto.ClientSummary;
+import org.mystore.model.Address;
+import org.mystore.model.Client;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ClientRepositoryTest {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAllSummaries_statementCountIsIndependentOfClientCount() {
+        persistClients(2);
+        long fewClients = countStatementsLoadingAllClients(2);
+
+        persistClients(18);
+        long manyClients = countStatementsLoadingAllClients(20);
+
+        assertEquals(2, fewClients);
+        assertEquals(fewClients, manyClients);
+    }
+
+    @Test
+    void findWithAddressesById_loadsAddressesInSameStatement() {
+        Long id = persistClients(1).get(0).getId();
+        entityManager.clear();
+        statistics.clear();
+
+        Client client = clientRepository.findWithAddressesById(id).orElseThrow();
+
+        assertEquals(2, client.getAddresses().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private long countStatementsLoadingAllClients(int expectedClients) {
+        entityManager.clear();
+        statistics.clear();
+        List<ClientSummary> clients = clientRepository.findAllSummaries();
+        List<AddressSummary> addresses = addressRepository.findAllClientAddressSummaries();
+        assertEquals(expectedClients, clients.size());
+        assertEquals(2 * expectedClients, addresses.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Client> persistClients(int count) {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Client client = new Client("Client " + i, "client" + i + "@example.com", "555-000" + i);
+            client.addAddress(new Address(i + " Main St", "Anytown", "CA", "12345"));
+            client.addAddress(new Address(i + " Second St", "Anytown", "CA", "12345"));
+            clients.add(entityManager.persist(client));
+        }
+        entityManager.flush();
+        return clients;
+    }
+}
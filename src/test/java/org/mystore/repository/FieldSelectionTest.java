@@ -0,0 +1,32 @@
+package org.mystore.repository;
+
+import org.junit.jupiter.api.Test;
+import org.mystore.model.Product;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FieldSelectionTest {
+
+    private static final Map<String, String> ALLOWED = FieldSelection.whitelist(
+            "id", "id",
+            "name", "name",
+            "subcategoryName", "subcategory.name");
+
+    @Test
+    void parse_alwaysSelectsIdFirst() {
+        FieldSelection selection = FieldSelection.parse(Product.class, ALLOWED, " subcategoryName , name,,name");
+
+        assertEquals(List.of("id", "subcategoryName", "name"), List.copyOf(selection.fields().keySet()));
+        assertEquals("subcategory.name", selection.fields().get("subcategoryName"));
+    }
+
+    @Test
+    void parse_rejectsUnknownFields() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FieldSelection.parse(Product.class, ALLOWED, "name,description,subcategory"));
+        assertTrue(e.getMessage().contains("[description, subcategory]"));
+    }
+}
@@ -0,0 +1,126 @@
+package org.mystore.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystore.model.Product;
+import org.mystore.model.ProductTombstone;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.mystore.repository.RecordingStatementInspector")
+public class ProductChangeFeedTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 12, 0);
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long a;
+    private Long b;
+    private Long c;
+
+    @BeforeEach
+    void setUp() {
+        a = entityManager.persistAndGetId(product("A"), Long.class);
+        b = entityManager.persistAndGetId(product("B"), Long.class);
+        c = entityManager.persistAndGetId(product("C"), Long.class);
+        entityManager.flush();
+        // Bypass @PrePersist to place the changes at known times; a and b share a timestamp
+        stamp(a, T0);
+        stamp(b, T0);
+        stamp(c, T0.plusMinutes(1));
+        entityManager.clear();
+    }
+
+    @Test
+    void persistIgnoresClientSuppliedUpdatedAt() {
+        Product product = product("D");
+        product.setUpdatedAt(T0.minusYears(5));
+        entityManager.persistAndFlush(product);
+        assertTrue(product.getUpdatedAt().isAfter(T0));
+    }
+
+    @Test
+    void findChangedAfter_ordersByUpdatedAtThenId() {
+        assertEquals(List.of(a, b, c), ids(productRepository.findChangedAfter(T0.minusDays(1), 0L, FAR_FUTURE, Limit.of(10))));
+        assertEquals(List.of(b, c), ids(productRepository.findChangedAfter(T0, a, FAR_FUTURE, Limit.of(10))));
+        assertEquals(List.of(c), ids(productRepository.findChangedAfter(T0, b, FAR_FUTURE, Limit.of(10))));
+        assertEquals(List.of(a), ids(productRepository.findChangedAfter(T0.minusDays(1), 0L, FAR_FUTURE, Limit.of(1))));
+    }
+
+    @Test
+    void findChangedAfter_stopsBeforeUpperBound() {
+        assertEquals(List.of(a, b), ids(productRepository.findChangedAfter(T0.minusDays(1), 0L, T0.plusMinutes(1), Limit.of(10))));
+    }
+
+    @Test
+    void findChangedAfter_loadsSubcategoryGraphInOneStatement() {
+        RecordingStatementInspector.STATEMENTS.clear();
+        productRepository.findChangedAfter(T0.minusDays(1), 0L, FAR_FUTURE, Limit.of(10));
+        assertEquals(1, RecordingStatementInspector.STATEMENTS.size());
+    }
+
+    @Test
+    void findDeletedAfter_ordersByDeletedAtThenProductId() {
+        productTombstoneRepository.save(new ProductTombstone(20L, "T-20", T0));
+        productTombstoneRepository.save(new ProductTombstone(10L, "T-10", T0));
+        productTombstoneRepository.save(new ProductTombstone(30L, "T-30", T0.minusMinutes(1)));
+        productTombstoneRepository.flush();
+
+        List<ProductTombstone> deleted = productTombstoneRepository.findDeletedAfter(T0.minusDays(1), 0L, FAR_FUTURE, Limit.of(10));
+        assertEquals(List.of(30L, 10L, 20L), deleted.stream().map(ProductTombstone::getProductId).toList());
+        assertEquals(List.of(20L), productTombstoneRepository.findDeletedAfter(T0, 10L, FAR_FUTURE, Limit.of(10))
+                .stream().map(ProductTombstone::getProductId).toList());
+    }
+
+    @Test
+    void changeQueriesUseTheTimestampIndexes() {
+        productRepository.findChangedAfter(T0, a, FAR_FUTURE, Limit.of(10));
+        assertUsesIndex("\"PUBLIC\".\"PRODUCT\"", "IDX_PRODUCT_UPDATED");
+        productTombstoneRepository.findDeletedAfter(T0, 0L, FAR_FUTURE, Limit.of(10));
+        assertUsesIndex("\"PUBLIC\".\"PRODUCT_TOMBSTONE\"", "IDX_PRODUCT_TOMBSTONE_DELETED");
+    }
+
+    private void assertUsesIndex(String table, String index) {
+        String sql = RecordingStatementInspector.STATEMENTS.get(RecordingStatementInspector.STATEMENTS.size() - 1);
+        String plan = jdbcTemplate.query(con -> con.prepareStatement("EXPLAIN " + sql),
+                rs -> rs.next() ? rs.getString(1) : null);
+        assertNotNull(plan);
+        String scan = plan.substring(plan.indexOf(table));
+        scan = scan.substring(0, scan.indexOf("*/"));
+        assertTrue(scan.contains(index), "expected " + index + " in plan:\n" + plan);
+        assertFalse(scan.contains("tableScan"), plan);
+    }
+
+    private void stamp(Long id, LocalDateTime updatedAt) {
+        jdbcTemplate.update("update product set updated_at = ? where id = ?", updatedAt, id);
+    }
+
+    private static Product product(String name) {
+        return new Product(name, "", BigDecimal.ONE, 1, "CHG-" + name, true, null);
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
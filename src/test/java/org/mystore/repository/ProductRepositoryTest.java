@@ -0,0 +1,139 @@
+package org.mystore.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.ProductSummary;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.mystore.repository.RecordingStatementInspector"
+})
+public class ProductRepositoryTest {
+
+    private static final int CATEGORIES = 3;
+    private static final int SUBCATEGORIES_PER_CATEGORY = 4;
+    private static final int PRODUCTS_PER_SUBCATEGORY = 5;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int c = 0; c < CATEGORIES; c++) {
+            ProductCategory category = entityManager.persist(new ProductCategory("Category " + c, "Category " + c));
+            for (int s = 0; s < SUBCATEGORIES_PER_CATEGORY; s++) {
+                Subcategory subcategory = entityManager.persist(new Subcategory("Subcategory " + c + "." + s, "", category));
+                for (int p = 0; p < PRODUCTS_PER_SUBCATEGORY; p++) {
+                    String sku = "SKU-" + c + "-" + s + "-" + p;
+                    entityManager.persist(new Product(sku, "", new BigDecimal("10.00"), 1, sku, true, subcategory));
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void findSummariesByIdGreaterThan_usesOneStatementPerPage() {
+        long afterId = 0L;
+        int pages = 0;
+        List<ProductSummary> page;
+        do {
+            statistics.clear();
+            page = productRepository.findSummariesByIdGreaterThan(afterId, Limit.of(7));
+            page.forEach(summary -> assertNotNull(summary.subcategoryName()));
+            assertEquals(1, statistics.getPrepareStatementCount());
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).id();
+                pages++;
+            }
+        } while (!page.isEmpty());
+        assertEquals(9, pages);
+    }
+
+    @Test
+    void findSummariesByIdGreaterThan_selectsFewerColumnsAndSerializesSmallerThanEntities() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Product> entities = productRepository.findAll();
+        int entityColumns = RecordingStatementInspector.lastSelectedColumnCount();
+        List<ProductSummary> summaries = productRepository.findSummariesByIdGreaterThan(0L, Limit.of(entities.size()));
+        int summaryColumns = RecordingStatementInspector.lastSelectedColumnCount();
+
+        assertEquals(entities.size(), summaries.size());
+        assertEquals(9, summaryColumns);
+        assertTrue(2 * summaryColumns <= entityColumns, summaryColumns + " vs " + entityColumns + " columns");
+        int entityBytes = objectMapper.writeValueAsBytes(entities).length;
+        int summaryBytes = objectMapper.writeValueAsBytes(summaries).length;
+        assertTrue(summaryBytes < entityBytes / 2, summaryBytes + " vs " + entityBytes + " bytes");
+    }
+
+    @Test
+    void findAll_loadsWholeGraphInOneStatement() {
+        List<Product> products = productRepository.findAll();
+        products.forEach(ProductRepositoryTest::touchGraph);
+
+        assertEquals(CATEGORIES * SUBCATEGORIES_PER_CATEGORY * PRODUCTS_PER_SUBCATEGORY, products.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findById_loadsWholeGraphInOneStatement() {
+        Long id = productRepository.findAll().get(0).getId();
+        entityManager.clear();
+        statistics.clear();
+
+        touchGraph(productRepository.findById(id).orElseThrow());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findSummariesBySkuIn_loadsAllSkusInOneStatementWithPaddedInList() {
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        List<ProductSummary> summaries = productRepository.findSummariesBySkuIn(
+                List.of("SKU-0-0-0", "SKU-2-3-4", "SKU-9-9-9"));
+
+        assertEquals(Set.of("SKU-0-0-0", "SKU-2-3-4"),
+                summaries.stream().map(ProductSummary::sku).collect(Collectors.toSet()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        // Three SKUs are bound as four parameters, so lists of three and four share one statement
+        String sql = RecordingStatementInspector.STATEMENTS.get(0);
+        assertEquals(4, sql.chars().filter(c -> c == '?').count());
+    }
+
+    private static void touchGraph(Product product) {
+        assertNotNull(product.getSubcategory().getName());
+        assertNotNull(product.getSubcategory().getCategory().getName());
+    }
+}
@@ -0,0 +1,122 @@
+package org.mystore.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.ProductSearchCriteria;
+import org.mystore.dto.ProductSummary;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.mystore.repository.RecordingStatementInspector")
+public class ProductSearchTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Subcategory phones;
+    private Subcategory laptops;
+
+    @BeforeEach
+    void setUp() {
+        ProductCategory category = entityManager.persist(new ProductCategory("Electronics", "Electronic devices"));
+        phones = entityManager.persist(new Subcategory("Smartphones", "Mobile phones", category));
+        laptops = entityManager.persist(new Subcategory("Laptops", "Portable computers", category));
+        entityManager.persist(new Product("iPhone 15", "", new BigDecimal("999.00"), 10, "IPH15-128", true, phones));
+        entityManager.persist(new Product("iPhone 14", "", new BigDecimal("799.00"), 0, "IPH14-128", false, phones));
+        entityManager.persist(new Product("Pixel 8", "", new BigDecimal("699.00"), 5, "PX8-128", true, phones));
+        entityManager.persist(new Product("100% Cotton Sleeve", "", new BigDecimal("19.00"), 5, "SLV-1", true, laptops));
+        entityManager.persist(new Product("1000 Series", "", new BigDecimal("1499.00"), 5, "LAP-1000", true, laptops));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void skuExactMatch() {
+        assertEquals(List.of("PX8-128"), skus(search(criteria("PX8-128", null, null, null, null, null))));
+    }
+
+    @Test
+    void namePrefixIsCaseSensitiveAndLiteral() {
+        assertEquals(List.of("IPH15-128", "IPH14-128"), skus(search(criteria(null, "iPhone", null, null, null, null))));
+        assertEquals(List.of(), skus(search(criteria(null, "iphone", null, null, null, null))));
+        assertEquals(List.of("SLV-1"), skus(search(criteria(null, "100%", null, null, null, null))));
+    }
+
+    @Test
+    void successorOfPrefix() {
+        assertEquals("iPhonf", ProductSpecifications.successor("iPhone"));
+        assertEquals("b", ProductSpecifications.successor("a" + Character.MAX_VALUE));
+        assertNull(ProductSpecifications.successor(String.valueOf(Character.MAX_VALUE)));
+    }
+
+    @Test
+    void activePriceRangeAndSubcategoryCombine() {
+        List<ProductSummary> results = search(criteria(null, null, new BigDecimal("700"), new BigDecimal("1000"), true, phones.getId()));
+        assertEquals(List.of("IPH15-128"), skus(results));
+        assertEquals("Smartphones", results.get(0).subcategoryName());
+    }
+
+    @Test
+    void openEndedPriceRange() {
+        assertEquals(List.of("LAP-1000"), skus(search(criteria(null, null, new BigDecimal("1000"), null, null, null))));
+        assertEquals(List.of("SLV-1"), skus(search(criteria(null, null, null, new BigDecimal("100"), null, null))));
+    }
+
+    @Test
+    void skuIsUnique() {
+        entityManager.persist(new Product("Duplicate", "", BigDecimal.ONE, 1, "PX8-128", true, phones));
+        assertThrows(DataIntegrityViolationException.class, () -> productRepository.flush());
+    }
+
+    @Test
+    void indexedSearchesDoNotScanTheProductTable() {
+        assertUsesIndex(criteria("PX8-128", null, null, null, null, null), "UK_PRODUCT_SKU");
+        assertUsesIndex(criteria(null, "iPhone", null, null, null, null), "IDX_PRODUCT_NAME");
+        assertUsesIndex(criteria(null, null, null, null, null, phones.getId()), "IDX_PRODUCT_SUBCATEGORY");
+        assertUsesIndex(criteria(null, null, new BigDecimal("700"), new BigDecimal("1000"), true, null), "IDX_PRODUCT_ACTIVE_PRICE");
+    }
+
+    private void assertUsesIndex(ProductSearchCriteria criteria, String index) {
+        search(criteria);
+        String sql = RecordingStatementInspector.STATEMENTS.get(RecordingStatementInspector.STATEMENTS.size() - 1);
+        String plan = jdbcTemplate.query(con -> con.prepareStatement("EXPLAIN " + sql),
+                rs -> rs.next() ? rs.getString(1) : null);
+        assertNotNull(plan);
+        String productScan = plan.substring(plan.indexOf("\"PUBLIC\".\"PRODUCT\""));
+        productScan = productScan.substring(0, productScan.indexOf("*/"));
+        assertTrue(productScan.contains(index), "expected " + index + " in plan:\n" + plan);
+        assertFalse(productScan.contains("tableScan"), plan);
+    }
+
+    private List<ProductSummary> search(ProductSearchCriteria criteria) {
+        return productRepository.searchSummaries(ProductSpecifications.matching(criteria), Limit.of(50));
+    }
+
+    private static ProductSearchCriteria criteria(String sku, String namePrefix, BigDecimal minPrice, BigDecimal maxPrice,
+                                                  Boolean active, Long subcategoryId) {
+        return new ProductSearchCriteria(sku, namePrefix, minPrice, maxPrice, active, subcategoryId);
+    }
+
+    private static List<String> skus(List<ProductSummary> results) {
+        return results.stream().map(ProductSummary::sku).toList();
+    }
+}
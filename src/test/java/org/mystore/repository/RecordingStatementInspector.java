@@ -0,0 +1,29 @@
+package org.mystore.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records every SQL statement Hibernate prepares, so tests can assert on its shape.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    /**
+     * Number of columns in the select list of the most recent statement.
+     */
+    static int lastSelectedColumnCount() {
+        String sql = STATEMENTS.get(STATEMENTS.size() - 1).toLowerCase();
+        String selectList = sql.substring(sql.indexOf("select") + "select".length(), sql.indexOf(" from "));
+        return selectList.split(",").length;
+    }
+}
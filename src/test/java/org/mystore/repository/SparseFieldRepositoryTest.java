@@ -0,0 +1,106 @@
+package org.mystore.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.mystore.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.mystore.repository.RecordingStatementInspector")
+@Import(SparseFieldRepository.class)
+public class SparseFieldRepositoryTest {
+
+    @Autowired
+    private SparseFieldRepository sparseFieldRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Subcategory subcategory;
+    private Long firstId;
+
+    @BeforeEach
+    void setUp() {
+        ProductCategory category = entityManager.persist(new ProductCategory("Electronics", "Electronic devices"));
+        subcategory = entityManager.persist(new Subcategory("Smartphones", "Mobile phones", category));
+        for (int i = 0; i < 5; i++) {
+            Product product = entityManager.persist(new Product("Phone " + i, "A long description " + i,
+                    new BigDecimal("10" + i + ".00"), i, "SKU-" + i, true, subcategory));
+            if (i == 0) {
+                firstId = product.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findPage_selectsOnlyRequestedColumns() {
+        FieldSelection selection = FieldSelection.parse(Product.class, ProductService.SPARSE_FIELDS, "name,unitPrice,sku");
+
+        List<Map<String, Object>> rows = sparseFieldRepository.findPage(selection, firstId, 2);
+
+        assertEquals(4, RecordingStatementInspector.lastSelectedColumnCount());
+        assertFalse(lastStatement().contains(" join "));
+        assertEquals(2, rows.size());
+        assertEquals(List.of("id", "name", "unitPrice", "sku"), List.copyOf(rows.get(0).keySet()));
+        assertEquals(firstId + 1, rows.get(0).get("id"));
+        assertEquals("Phone 1", rows.get(0).get("name"));
+        assertEquals(0, new BigDecimal("101.00").compareTo((BigDecimal) rows.get(0).get("unitPrice")));
+    }
+
+    @Test
+    void foreignKeyIsReadWithoutJoin() {
+        FieldSelection selection = FieldSelection.parse(Product.class, ProductService.SPARSE_FIELDS, "subcategoryId");
+
+        Map<String, Object> row = sparseFieldRepository.findById(selection, firstId).orElseThrow();
+
+        assertFalse(lastStatement().contains(" join "));
+        assertEquals(subcategory.getId(), row.get("subcategoryId"));
+    }
+
+    @Test
+    void nestedAttributeIsLeftJoinedOnce() {
+        FieldSelection selection = FieldSelection.parse(Product.class, ProductService.SPARSE_FIELDS,
+                "subcategoryId,subcategoryName");
+
+        Map<String, Object> row = sparseFieldRepository.findById(selection, firstId).orElseThrow();
+
+        assertEquals(1, lastStatement().split(" left join ").length - 1);
+        assertEquals("Smartphones", row.get("subcategoryName"));
+    }
+
+    @Test
+    void findById_missing() {
+        FieldSelection selection = FieldSelection.parse(Product.class, ProductService.SPARSE_FIELDS, "name");
+        assertTrue(sparseFieldRepository.findById(selection, -1L).isEmpty());
+    }
+
+    @Test
+    void findAll_ordersById() {
+        FieldSelection selection = FieldSelection.parse(Product.class, ProductService.SPARSE_FIELDS, "sku");
+
+        List<Map<String, Object>> rows = sparseFieldRepository.findAll(selection);
+
+        assertEquals(5, rows.size());
+        assertEquals("SKU-0", rows.get(0).get("sku"));
+        assertEquals("SKU-4", rows.get(4).get("sku"));
+    }
+
+    private static String lastStatement() {
+        List<String> statements = RecordingStatementInspector.STATEMENTS;
+        return statements.get(statements.size() - 1).toLowerCase();
+    }
+}
@@ -0,0 +1,92 @@
+package org.mystore.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.put(1L, "iPhone 15", "Latest Apple smartphone");
+        index.put(2L, "iPhone 15 Pro", "Pro model with titanium frame");
+        index.put(3L, "Samsung Galaxy S23", "Android smartphone");
+        index.put(4L, "Phone case", "Fits the iPhone 15");
+        index.put(5L, "Café grinder", "Burr grinder for espresso");
+    }
+
+    @Test
+    void tokenize_lowercasesSplitsAndFoldsAccents() {
+        assertEquals(List.of("iphone", "15", "pro", "cafe", "x"), Tokenizer.tokenize("iPhone-15 PRO, Café/x"));
+        assertTrue(Tokenizer.tokenize(null).isEmpty());
+        assertTrue(Tokenizer.tokenize(" -- ").isEmpty());
+    }
+
+    @Test
+    void search_requiresEveryTerm() {
+        assertEquals(List.of(2L), ids(index.search("iphone pro", 10)));
+        assertEquals(List.of(3L), ids(index.search("android smartphone", 10)));
+        assertTrue(index.search("iphone android", 10).isEmpty());
+    }
+
+    @Test
+    void search_ranksNameMatchesAboveDescriptionMatches() {
+        List<Long> ids = ids(index.search("iphone", 10));
+        assertEquals(3, ids.size());
+        assertEquals(4L, ids.get(2));
+    }
+
+    @Test
+    void search_matchesPrefixes() {
+        assertEquals(List.of(1L, 3L), ids(index.search("smart", 10)));
+        assertEquals(List.of(2L), ids(index.search("tita", 10)));
+    }
+
+    @Test
+    void search_exactMatchBeatsPrefixMatch() {
+        index.put(6L, "Pro", null);
+        index.put(7L, "Professional tripod", null);
+        List<Long> ids = ids(index.search("pro", 10));
+        assertTrue(ids.indexOf(6L) < ids.indexOf(7L));
+    }
+
+    @Test
+    void search_foldsCaseAndAccents() {
+        assertEquals(List.of(5L), ids(index.search("CAFE", 10)));
+        assertEquals(List.of(5L), ids(index.search("café", 10)));
+    }
+
+    @Test
+    void search_honoursLimit() {
+        assertEquals(2, index.search("iphone", 2).size());
+        assertTrue(index.search("iphone", 0).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void put_replacesPreviousVersion() {
+        index.put(1L, "Pixel 8", "Google smartphone");
+        assertFalse(ids(index.search("iphone", 10)).contains(1L));
+        assertEquals(List.of(1L), ids(index.search("pixel", 10)));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void remove_dropsDocumentAndUnusedTerms() {
+        index.remove(5L);
+        assertTrue(index.search("grinder", 10).isEmpty());
+        assertEquals(4, index.size());
+        index.remove(5L);
+        assertEquals(4, index.size());
+    }
+
+    private static List<Long> ids(List<ScoredId> hits) {
+        return hits.stream().map(ScoredId::id).toList();
+    }
+}
@@ -0,0 +1,114 @@
+package org.mystore.search;
+
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.ProductSearchHit;
+import org.mystore.dto.ProductText;
+import org.mystore.model.Product;
+import org.mystore.repository.ProductRepository;
+import org.mystore.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Keeps the index in step with product writes and rebuilds it from the database.
+ * <p>
+ * Every test context gets its own database but shares the JVM-wide second-level cache, so this
+ * one uses its own cache regions to avoid exchanging stale entries with other contexts.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.cache.region_prefix=product-search-index-test")
+public class ProductSearchIndexTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void productWritesAreSearchableImmediately() {
+        Product created = productService.createProduct(product("Zephyrine kettle", "Stovetop kettle"));
+        assertEquals(List.of(created.getId()), ids(productService.searchProductText("zephyr", 10)));
+
+        created.setName("Quillback kettle");
+        productService.updateProduct(created.getId(), created, null);
+        assertTrue(productService.searchProductText("zephyrine", 10).isEmpty());
+        assertEquals(List.of(created.getId()), ids(productService.searchProductText("quillback kettle", 10)));
+
+        productService.deleteProduct(created.getId(), null);
+        assertTrue(productService.searchProductText("quillback", 10).isEmpty());
+    }
+
+    @Test
+    void rolledBackWritesAreNotIndexed() {
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            productService.createProduct(product("Brindlewick candle", "Beeswax candle"));
+            throw new IllegalStateException("rolled back");
+        }));
+
+        assertTrue(productSearchIndex.search("brindlewick", 10).isEmpty());
+    }
+
+    @Test
+    void rebuildReloadsTheIndexFromTheDatabase() {
+        // Written behind the service's back, so only a rebuild can find it
+        Product stored = productRepository.save(product("Marrowfield lantern", "Brass lantern"));
+        assertTrue(productSearchIndex.search("marrowfield", 10).isEmpty());
+
+        int indexed = productSearchIndex.rebuild();
+
+        assertEquals(productRepository.count(), indexed);
+        List<ProductSearchHit> hits = productService.searchProductText("marrowfield lantern", 10);
+        assertEquals(List.of(stored.getId()), ids(hits));
+        assertEquals(stored.getSku(), hits.get(0).product().sku());
+    }
+
+    @Test
+    void rebuildReReadDoesNotOverwriteANewerWrite() throws Exception {
+        ProductRepository repository = mock(ProductRepository.class);
+        ProductSearchIndex searchIndex = new ProductSearchIndex(repository, mock(PlatformTransactionManager.class), false);
+        when(repository.streamAllText()).thenAnswer(invocation -> {
+            searchIndex.index(7L, "Quillon dagger", "Steel");
+            return Stream.of(new ProductText(7L, "Quillon dagger", "Steel"));
+        });
+        Thread newerWrite = new Thread(() -> searchIndex.index(7L, "Brightwater dagger", "Steel"));
+        when(repository.findById(7L)).thenAnswer(invocation -> {
+            // The stale row was read before the newer write could land
+            newerWrite.start();
+            newerWrite.join(200);
+            Product stale = product("Quillon dagger", "Steel");
+            stale.setId(7L);
+            return Optional.of(stale);
+        });
+
+        searchIndex.rebuild();
+        newerWrite.join();
+
+        assertEquals(1, searchIndex.search("brightwater", 10).size());
+        assertTrue(searchIndex.search("quillon", 10).isEmpty());
+    }
+
+    private static Product product(String name, String description) {
+        return new Product(name, description, new BigDecimal("19.99"), 5, "TXT-" + System.nanoTime(), true, null);
+    }
+
+    private static List<Long> ids(List<ProductSearchHit> hits) {
+        return hits.stream().map(hit -> hit.product().id()).toList();
+    }
+}
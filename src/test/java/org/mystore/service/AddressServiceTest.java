@@ -7,6 +7,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mystore.model.Address;
+import org.mystore.model.Client;
 import org.mystore.repository.AddressRepository;
 
 import java.util.Optional;
@@ -20,6 +21,9 @@ public class AddressServiceTest {
     @Mock
     private AddressRepository addressRepository;
 
+    @Mock
+    private ClientService clientService;
+
     @InjectMocks
     private AddressService addressService;
 
@@ -65,7 +69,7 @@ public class AddressServiceTest {
         when(addressRepository.findById(1L)).thenReturn(Optional.of(address1));
         when(addressRepository.save(address1)).thenReturn(address1);
 
-        Optional<Address> result = addressService.updateAddress(1L, updatedAddress);
+        Optional<Address> result = addressService.updateAddress(1L, updatedAddress, null);
 
         assertTrue(result.isPresent());
         assertEquals("Updated St", result.get().getStreet());
@@ -81,7 +85,7 @@ public class AddressServiceTest {
         Address updatedAddress = new Address("Updated St", "Updated City", "UT", "00000");
         when(addressRepository.findById(100L)).thenReturn(Optional.empty());
 
-        Optional<Address> result = addressService.updateAddress(100L, updatedAddress);
+        Optional<Address> result = addressService.updateAddress(100L, updatedAddress, null);
 
         assertFalse(result.isPresent());
         verify(addressRepository, times(1)).findById(100L);
@@ -90,24 +94,35 @@ public class AddressServiceTest {
 
     @Test
     void deleteAddress_existingId() {
-        when(addressRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(addressRepository).deleteById(1L);
+        when(addressRepository.findById(1L)).thenReturn(Optional.of(address1));
 
-        boolean result = addressService.deleteAddress(1L);
+        boolean result = addressService.deleteAddress(1L, null);
 
         assertTrue(result);
-        verify(addressRepository, times(1)).existsById(1L);
-        verify(addressRepository, times(1)).deleteById(1L);
+        verify(addressRepository, times(1)).findById(1L);
+        verify(addressRepository, times(1)).delete(address1);
+        verify(clientService, never()).recordAddressChange(any());
+    }
+
+    @Test
+    void deleteAddress_recordsClientChange() {
+        Client client = new Client("Ada", "ada@example.com", "555");
+        client.addAddress(address1);
+        when(addressRepository.findById(1L)).thenReturn(Optional.of(address1));
+
+        addressService.deleteAddress(1L, null);
+
+        verify(clientService, times(1)).recordAddressChange(client);
     }
 
     @Test
     void deleteAddress_nonExistingId() {
-        when(addressRepository.existsById(100L)).thenReturn(false);
+        when(addressRepository.findById(100L)).thenReturn(Optional.empty());
 
-        boolean result = addressService.deleteAddress(100L);
+        boolean result = addressService.deleteAddress(100L, null);
 
         assertFalse(result);
-        verify(addressRepository, times(1)).existsById(100L);
-        verify(addressRepository, never()).deleteById(anyLong());
+        verify(addressRepository, times(1)).findById(100L);
+        verify(addressRepository, never()).delete(any(Address.class));
     }
 }
\ No newline at end of file
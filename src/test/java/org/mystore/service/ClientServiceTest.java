@@ -8,12 +8,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.AddressSummary;
+import org.mystore.dto.ClientSummary;
 import org.mystore.model.Address;
 import org.mystore.model.Client;
+import org.mystore.model.OutboxEvent.AggregateType;
+import org.mystore.model.OutboxEvent.EventType;
+import org.mystore.outbox.OutboxWriter;
+import org.mystore.repository.AddressRepository;
 import org.mystore.repository.ClientRepository;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -28,6 +35,12 @@ public class ClientServiceTest {
     @Mock
     private ClientRepository clientRepository;
 
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private ClientService clientService;
 
@@ -48,27 +61,35 @@ public class ClientServiceTest {
 
     @Test
     void getAllClients() {
-        when(clientRepository.findAll()).thenReturn(Arrays.asList(client1, client2));
-        List<Client> clients = clientService.getAllClients();
+        when(clientRepository.findAllSummaries()).thenReturn(Arrays.asList(
+                new ClientSummary(1L, 0L, "John Doe", "john.doe@example.com", "123-456-7890"),
+                new ClientSummary(2L, 0L, "Jane Smith", "jane.smith@example.com", "987-654-3210")));
+        when(addressRepository.findAllClientAddressSummaries()).thenReturn(List.of(
+                new AddressSummary(2L, 10L, "123 Main St", "Anytown", "CA", "12345"),
+                new AddressSummary(2L, 11L, "456 Oak Ave", "Othertown", "NY", "67890")));
+        List<ClientSummary> clients = clientService.getAllClients();
         assertEquals(2, clients.size());
-        verify(clientRepository, times(1)).findAll();
+        assertTrue(clients.get(0).addresses().isEmpty());
+        assertEquals(List.of(10L, 11L), clients.get(1).addresses().stream().map(AddressSummary::id).toList());
+        verify(clientRepository, times(1)).findAllSummaries();
+        verify(addressRepository, times(1)).findAllClientAddressSummaries();
     }
 
     @Test
     void getClientById_existingId() {
-        when(clientRepository.findById(1L)).thenReturn(Optional.of(client1));
+        when(clientRepository.findWithAddressesById(1L)).thenReturn(Optional.of(client1));
         Optional<Client> client = clientService.getClientById(1L);
         assertTrue(client.isPresent());
         assertEquals("John Doe", client.get().getName());
-        verify(clientRepository, times(1)).findById(1L);
+        verify(clientRepository, times(1)).findWithAddressesById(1L);
     }
 
     @Test
     void getClientById_nonExistingId() {
-        when(clientRepository.findById(100L)).thenReturn(Optional.empty());
+        when(clientRepository.findWithAddressesById(100L)).thenReturn(Optional.empty());
         Optional<Client> client = clientService.getClientById(100L);
         assertFalse(client.isPresent());
-        verify(clientRepository, times(1)).findById(100L);
+        verify(clientRepository, times(1)).findWithAddressesById(100L);
     }
 
     @Test
@@ -77,6 +98,8 @@ public class ClientServiceTest {
         Client createdClient = clientService.createClient(client1);
         assertEquals("John Doe", createdClient.getName());
         verify(clientRepository, times(1)).save(client1);
+        verify(outboxWriter, times(1)).append(eq(AggregateType.CLIENT), eq(client1.getId()), eq(EventType.CREATED),
+                argThat((Object payload) -> payload instanceof ClientSummary summary && "John Doe".equals(summary.name())));
     }
 
     @Test
@@ -85,7 +108,7 @@ public class ClientServiceTest {
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client1));
         when(clientRepository.save(client1)).thenReturn(client1);
 
-        Optional<Client> result = clientService.updateClient(1L, updatedClient);
+        Optional<Client> result = clientService.updateClient(1L, updatedClient, null);
 
         assertTrue(result.isPresent());
         assertEquals("Updated Name", result.get().getName());
@@ -100,7 +123,7 @@ public class ClientServiceTest {
         Client updatedClient = new Client("Updated Name", "updated.email@example.com", "111-222-3333");
         when(clientRepository.findById(100L)).thenReturn(Optional.empty());
 
-        Optional<Client> result = clientService.updateClient(100L, updatedClient);
+        Optional<Client> result = clientService.updateClient(100L, updatedClient, null);
 
         assertFalse(result.isPresent());
         verify(clientRepository, times(1)).findById(100L);
@@ -109,25 +132,25 @@ public class ClientServiceTest {
 
     @Test
     void deleteClient_existingId() {
-        when(clientRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(clientRepository).deleteById(1L);
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client1));
 
-        boolean result = clientService.deleteClient(1L);
+        boolean result = clientService.deleteClient(1L, null);
 
         assertTrue(result);
-        verify(clientRepository, times(1)).existsById(1L);
-        verify(clientRepository, times(1)).deleteById(1L);
+        verify(clientRepository, times(1)).findById(1L);
+        verify(clientRepository, times(1)).delete(client1);
+        verify(outboxWriter, times(1)).append(AggregateType.CLIENT, 1L, EventType.DELETED, Map.of("id", 1L));
     }
 
     @Test
     void deleteClient_nonExistingId() {
-        when(clientRepository.existsById(100L)).thenReturn(false);
+        when(clientRepository.findById(100L)).thenReturn(Optional.empty());
 
-        boolean result = clientService.deleteClient(100L);
+        boolean result = clientService.deleteClient(100L, null);
 
         assertFalse(result);
-        verify(clientRepository, times(1)).existsById(100L);
-        verify(clientRepository, never()).deleteById(anyLong());
+        verify(clientRepository, times(1)).findById(100L);
+        verify(clientRepository, never()).delete(any(Client.class));
     }
 
     @Test
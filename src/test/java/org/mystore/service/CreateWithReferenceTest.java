@@ -0,0 +1,86 @@
+package org.mystore.service;
+
+import org.junit.jupiter.api.Test;
+import org.mystore.model.Address;
+import org.mystore.model.Client;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Creates entities the way the REST API receives them: with associations given as id-only
+ * references, which carry no version.
+ */
+@SpringBootTest
+public class CreateWithReferenceTest {
+
+    @Autowired
+    private ProductCategoryService productCategoryService;
+
+    @Autowired
+    private SubcategoryService subcategoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Test
+    void createSubcategoryAndProductWithIdOnlyReferences() {
+        ProductCategory category = productCategoryService.createProductCategory(new ProductCategory("Electronics", "Electronic devices"));
+        ProductCategory categoryRef = new ProductCategory();
+        categoryRef.setId(category.getId());
+
+        Subcategory subcategory = subcategoryService.createSubcategory(new Subcategory("Smartphones", "Mobile phones", categoryRef));
+        Subcategory subcategoryRef = new Subcategory();
+        subcategoryRef.setId(subcategory.getId());
+
+        Product product = productService.createProduct(
+                new Product("iPhone 15", "Latest iPhone", new BigDecimal("999.00"), 100, "IPH15-" + System.nanoTime(), true, subcategoryRef));
+
+        assertEquals(category.getId(), subcategory.getCategory().getId());
+        assertEquals(subcategory.getId(), product.getSubcategory().getId());
+        assertEquals("Smartphones", product.getSubcategory().getName());
+    }
+
+    @Test
+    void createAddressWithIdOnlyClient() {
+        Client client = clientService.createClient(new Client("John Doe", "john.doe@example.com", "123-456-7890"));
+        Client clientRef = new Client();
+        clientRef.setId(client.getId());
+        Address address = new Address("123 Main St", "Anytown", "CA", "12345");
+        address.setClient(clientRef);
+
+        Address created = addressService.createAddress(address);
+
+        assertEquals(client.getId(), created.getClient().getId());
+    }
+
+    @Test
+    void createWithUnknownReferences_isRejected() {
+        ProductCategory categoryRef = new ProductCategory();
+        categoryRef.setId(Long.MAX_VALUE);
+        Subcategory subcategoryRef = new Subcategory();
+        subcategoryRef.setId(Long.MAX_VALUE);
+        Client clientRef = new Client();
+        clientRef.setId(Long.MAX_VALUE);
+        Address address = new Address("123 Main St", "Anytown", "CA", "12345");
+        address.setClient(clientRef);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> subcategoryService.createSubcategory(new Subcategory("Smartphones", "Mobile phones", categoryRef)));
+        assertThrows(IllegalArgumentException.class, () -> productService.createProduct(
+                new Product("iPhone 15", "Latest iPhone", new BigDecimal("999.00"), 100, "IPH15-" + System.nanoTime(), true, subcategoryRef)));
+        assertThrows(IllegalArgumentException.class, () -> addressService.createAddress(address));
+    }
+}
@@ -0,0 +1,88 @@
+package org.mystore.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InFlightBatchesTest {
+
+    private final InFlightBatches<Long, String> batches = new InFlightBatches<>();
+
+    @Test
+    void load_sharesKeysAlreadyBeingLoaded() throws Exception {
+        CountDownLatch firstLoading = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CompletableFuture<Map<Long, String>> first = CompletableFuture.supplyAsync(() -> batches.load(List.of(1L, 2L), keys -> {
+            firstLoading.countDown();
+            await(releaseFirst);
+            return values(keys);
+        }));
+        assertTrue(firstLoading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<List<Long>> secondClaimed = new CompletableFuture<>();
+        CompletableFuture<Map<Long, String>> second = CompletableFuture.supplyAsync(() -> batches.load(List.of(2L, 3L), keys -> {
+            secondClaimed.complete(keys);
+            return values(keys);
+        }));
+
+        assertEquals(List.of(3L), secondClaimed.get(5, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+        releaseFirst.countDown();
+
+        assertEquals(Map.of(1L, "v1", 2L, "v2"), first.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(2L, 3L), List.copyOf(second.get(5, TimeUnit.SECONDS).keySet()));
+        assertEquals(0, batches.inFlightCount());
+    }
+
+    @Test
+    void load_leavesOutKeysTheLoaderDidNotFind() {
+        Map<Long, String> loaded = batches.load(List.of(4L, 5L), keys -> Map.of(5L, "v5"));
+
+        assertEquals(Map.of(5L, "v5"), loaded);
+    }
+
+    @Test
+    void load_failureReachesWaitersAndReleasesKeys() throws Exception {
+        CountDownLatch firstLoading = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CompletableFuture<Map<Long, String>> first = CompletableFuture.supplyAsync(() -> batches.load(List.of(1L), keys -> {
+            firstLoading.countDown();
+            await(releaseFirst);
+            throw new IllegalStateException("database down");
+        }));
+        assertTrue(firstLoading.await(5, TimeUnit.SECONDS));
+        // By the time the second caller loads key 2 it has already joined the load of key 1
+        CompletableFuture<Map<Long, String>> second = CompletableFuture.supplyAsync(() -> batches.load(List.of(1L, 2L), keys -> {
+            assertEquals(List.of(2L), keys);
+            releaseFirst.countDown();
+            return values(keys);
+        }));
+
+        Exception firstFailure = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        Exception secondFailure = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, firstFailure.getCause());
+        assertInstanceOf(IllegalStateException.class, secondFailure.getCause());
+        assertEquals(0, batches.inFlightCount());
+        assertEquals(Map.of(1L, "v1"), batches.load(List.of(1L), InFlightBatchesTest::values));
+    }
+
+    private static Map<Long, String> values(List<Long> keys) {
+        return keys.stream().collect(Collectors.toMap(Function.identity(), key -> "v" + key));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
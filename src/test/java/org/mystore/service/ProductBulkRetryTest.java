@@ -0,0 +1,74 @@
+package org.mystore.service;
+
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.BulkItemResult;
+import org.mystore.model.OutboxEvent;
+import org.mystore.model.OutboxEvent.EventType;
+import org.mystore.model.Product;
+import org.mystore.repository.OutboxEventRepository;
+import org.mystore.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A chunk that fails on flush is rolled back and retried item by item against the database,
+ * after Hibernate has already assigned ids and versions to its new products.
+ */
+@SpringBootTest(properties = {
+        "storeapp.products.bulk.chunk-size=3",
+        "storeapp.outbox.relay.enabled=false",
+        "spring.jpa.properties.hibernate.cache.region_prefix=product-bulk-retry-test"
+})
+public class ProductBulkRetryTest {
+
+    @Autowired
+    private ProductBulkService productBulkService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void failingChunk_createsItsGoodItemsWithIds() {
+        String prefix = "RETRY-" + System.nanoTime() + "-";
+        productRepository.save(product("Existing", prefix + "TAKEN"));
+        Product first = product("First", prefix + "1");
+        Product duplicate = product("Duplicate", prefix + "TAKEN");
+        Product third = product("Third", prefix + "3");
+        Product fourth = product("Fourth", prefix + "4");
+
+        List<BulkItemResult> results = productBulkService.upsertProducts(List.of(first, duplicate, third, fourth));
+
+        assertEquals(BulkItemResult.Status.CREATED, results.get(0).status());
+        assertEquals(BulkItemResult.Status.FAILED, results.get(1).status());
+        assertNull(results.get(1).id());
+        assertEquals(BulkItemResult.Status.CREATED, results.get(2).status());
+        assertEquals(BulkItemResult.Status.CREATED, results.get(3).status());
+        for (int i : new int[]{0, 2, 3}) {
+            Long id = results.get(i).id();
+            assertNotNull(id);
+            assertEquals(prefix + (i + 1), productRepository.findById(id).orElseThrow().getSku());
+        }
+        assertEquals(results.get(0).id(), first.getId());
+        assertEquals(results.get(2).id(), third.getId());
+
+        Set<Long> created = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getEventType() == EventType.CREATED)
+                .map(OutboxEvent::getAggregateId)
+                .collect(Collectors.toSet());
+        assertTrue(created.containsAll(List.of(results.get(0).id(), results.get(2).id(), results.get(3).id())));
+    }
+
+    private static Product product(String name, String sku) {
+        return new Product(name, "", new BigDecimal("9.99"), 5, sku, true, null);
+    }
+}
@@ -0,0 +1,120 @@
+package org.mystore.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.BulkItemResult;
+import org.mystore.event.ProductChangedEvent;
+import org.mystore.model.OutboxEvent.AggregateType;
+import org.mystore.model.OutboxEvent.EventType;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.mystore.outbox.OutboxWriter;
+import org.mystore.repository.ProductRepository;
+import org.mystore.repository.SubcategoryRepository;
+import org.mystore.search.ProductSearchIndex;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductBulkServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private SubcategoryRepository subcategoryRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductBulkService productBulkService;
+
+    private Subcategory subcategory1;
+    private Product existingProduct;
+
+    @BeforeEach
+    void setUp() {
+        productBulkService = new ProductBulkService(productRepository, subcategoryRepository, entityManager, productSearchIndex, eventPublisher, outboxWriter, transactionManager, 2, 5);
+        ProductCategory category1 = new ProductCategory("Electronics", "Electronic devices");
+        category1.setId(1L);
+        subcategory1 = new Subcategory("Smartphones", "Mobile phones", category1);
+        subcategory1.setId(10L);
+        existingProduct = new Product("iPhone 15", "Latest iPhone", new BigDecimal("999.00"), 100, "IPH15-128", true, subcategory1);
+        existingProduct.setId(100L);
+    }
+
+    @Test
+    void upsertProducts_createsUpdatesAndReportsMissingInOrder() {
+        Product newProduct = newProduct("Pixel 8", "PX8-128");
+        Product update = new Product("iPhone 15 Pro", "Pro model", new BigDecimal("1199.00"), 80, "IPH15P-128", true, null);
+        update.setId(100L);
+        Product missing = new Product("Ghost", "", BigDecimal.ONE, 1, "GHOST", true, null);
+        missing.setId(999L);
+        when(productRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.contains(100L) ? List.of(existingProduct) : List.of();
+        });
+        when(subcategoryRepository.getReferenceById(10L)).thenReturn(subcategory1);
+        when(productRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Product> created = invocation.getArgument(0);
+            created.forEach(product -> product.setId(500L));
+            return created;
+        });
+
+        List<BulkItemResult> results = productBulkService.upsertProducts(List.of(newProduct, update, missing));
+
+        assertEquals(3, results.size());
+        assertEquals(BulkItemResult.created(0, 500L), results.get(0));
+        assertEquals(BulkItemResult.updated(1, 100L), results.get(1));
+        assertEquals(BulkItemResult.notFound(2, 999L), results.get(2));
+        assertEquals("iPhone 15 Pro", existingProduct.getName());
+        assertEquals(80, existingProduct.getStockQuantity());
+        verify(entityManager, times(4)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(productSearchIndex).index(500L, "Pixel 8", newProduct.getDescription());
+        verify(productSearchIndex).index(100L, "iPhone 15 Pro", "Pro model");
+        verify(productSearchIndex, never()).index(eq(999L), any(), any());
+        verify(outboxWriter, times(1)).append(eq(AggregateType.PRODUCT), eq(500L), eq(EventType.CREATED), any());
+        verify(outboxWriter, times(1)).append(eq(AggregateType.PRODUCT), eq(100L), eq(EventType.UPDATED), any());
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof ProductChangedEvent changed && changed.productId() == 100L && changed.stockQuantity() == 80));
+    }
+
+    @Test
+    void upsertProducts_rejectsTooManyItems() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            products.add(newProduct("Product " + i, "SKU-" + i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> productBulkService.upsertProducts(products));
+        verifyNoInteractions(productRepository);
+    }
+
+    private Product newProduct(String name, String sku) {
+        return new Product(name, "", new BigDecimal("10.00"), 5, sku, true, new Subcategory(10L, "Smartphones", "", null));
+    }
+}
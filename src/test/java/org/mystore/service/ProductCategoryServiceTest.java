@@ -1,14 +1,18 @@
 package org.mystore.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mystore.model.ProductCategory;
 import org.mystore.repository.ProductCategoryRepository;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +26,12 @@ public class ProductCategoryServiceTest {
     @Mock
     private ProductCategoryRepository productCategoryRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SingleFlights singleFlights = new SingleFlights(new SimpleMeterRegistry(), Duration.ofSeconds(2));
+
     @InjectMocks
     private ProductCategoryService productCategoryService;
 
@@ -75,7 +85,7 @@ public class ProductCategoryServiceTest {
         when(productCategoryRepository.findById(1L)).thenReturn(Optional.of(category1));
         when(productCategoryRepository.save(any(ProductCategory.class))).thenReturn(updatedCategory);
 
-        Optional<ProductCategory> result = productCategoryService.updateProductCategory(1L, updatedCategory);
+        Optional<ProductCategory> result = productCategoryService.updateProductCategory(1L, updatedCategory, null);
 
         assertTrue(result.isPresent());
         assertEquals("Updated Electronics", result.get().getName());
@@ -89,7 +99,7 @@ public class ProductCategoryServiceTest {
         ProductCategory updatedCategory = new ProductCategory("Updated Electronics", "Updated description");
         when(productCategoryRepository.findById(100L)).thenReturn(Optional.empty());
 
-        Optional<ProductCategory> result = productCategoryService.updateProductCategory(100L, updatedCategory);
+        Optional<ProductCategory> result = productCategoryService.updateProductCategory(100L, updatedCategory, null);
 
         assertFalse(result.isPresent());
         verify(productCategoryRepository, times(1)).findById(100L);
@@ -98,24 +108,23 @@ public class ProductCategoryServiceTest {
 
     @Test
     void deleteProductCategory_existingId() {
-        when(productCategoryRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(productCategoryRepository).deleteById(1L);
+        when(productCategoryRepository.findById(1L)).thenReturn(Optional.of(category1));
 
-        boolean result = productCategoryService.deleteProductCategory(1L);
+        boolean result = productCategoryService.deleteProductCategory(1L, null);
 
         assertTrue(result);
-        verify(productCategoryRepository, times(1)).existsById(1L);
-        verify(productCategoryRepository, times(1)).deleteById(1L);
+        verify(productCategoryRepository, times(1)).findById(1L);
+        verify(productCategoryRepository, times(1)).delete(category1);
     }
 
     @Test
     void deleteProductCategory_nonExistingId() {
-        when(productCategoryRepository.existsById(100L)).thenReturn(false);
+        when(productCategoryRepository.findById(100L)).thenReturn(Optional.empty());
 
-        boolean result = productCategoryService.deleteProductCategory(100L);
+        boolean result = productCategoryService.deleteProductCategory(100L, null);
 
         assertFalse(result);
-        verify(productCategoryRepository, times(1)).existsById(100L);
-        verify(productCategoryRepository, never()).deleteById(anyLong());
+        verify(productCategoryRepository, times(1)).findById(100L);
+        verify(productCategoryRepository, never()).delete(any(ProductCategory.class));
     }
 }
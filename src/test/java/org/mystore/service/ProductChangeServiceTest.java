@@ -0,0 +1,125 @@
+package org.mystore.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.ProductChange;
+import org.mystore.dto.ProductChangePage;
+import org.mystore.model.Product;
+import org.mystore.model.ProductTombstone;
+import org.mystore.repository.ProductRepository;
+import org.mystore.repository.ProductTombstoneRepository;
+import org.mystore.service.PageCursors.ChangePosition;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductChangeServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    private ProductChangeService productChangeService;
+
+    @BeforeEach
+    void setUp() {
+        productChangeService = new ProductChangeService(productRepository, productTombstoneRepository, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void getChanges_mergesUpdatesAndDeletionsInFeedOrder() {
+        when(productRepository.findChangedAfter(eq(ChangePosition.START.changedAt()), eq(0L), any(), eq(Limit.of(4))))
+                .thenReturn(List.of(product(7L, T0), product(3L, T0.plusSeconds(2))));
+        when(productTombstoneRepository.findDeletedAfter(eq(ChangePosition.START.changedAt()), eq(0L), any(), eq(Limit.of(4))))
+                .thenReturn(List.of(new ProductTombstone(5L, "SKU-5", T0.plusSeconds(1))));
+
+        ProductChangePage page = productChangeService.getChanges(null, null, 3);
+
+        assertEquals(List.of(7L, 5L, 3L), page.changes().stream().map(ProductChange::id).toList());
+        assertEquals(ProductChange.Type.DELETE, page.changes().get(1).type());
+        assertNull(page.changes().get(1).product());
+        assertFalse(page.hasMore());
+        assertEquals(new ChangePosition(T0.plusSeconds(2), 3L), PageCursors.decodeChange(page.nextCursor()));
+    }
+
+    @Test
+    void getChanges_fullPageResumesAfterLastChange() {
+        when(productRepository.findChangedAfter(any(), anyLong(), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(product(1L, T0), product(2L, T0), product(4L, T0)));
+        when(productTombstoneRepository.findDeletedAfter(any(), anyLong(), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(new ProductTombstone(3L, "SKU-3", T0)));
+
+        ProductChangePage page = productChangeService.getChanges(null, null, 2);
+
+        assertEquals(List.of(1L, 2L), page.changes().stream().map(ProductChange::id).toList());
+        assertTrue(page.hasMore());
+        assertEquals(new ChangePosition(T0, 2L), PageCursors.decodeChange(page.nextCursor()));
+    }
+
+    @Test
+    void getChanges_emptyPageKeepsCursor() {
+        String cursor = PageCursors.encodeChange(new ChangePosition(T0, 9L));
+        when(productRepository.findChangedAfter(eq(T0), eq(9L), any(), any())).thenReturn(List.of());
+        when(productTombstoneRepository.findDeletedAfter(eq(T0), eq(9L), any(), any())).thenReturn(List.of());
+
+        ProductChangePage page = productChangeService.getChanges(cursor, null, 50);
+
+        assertTrue(page.changes().isEmpty());
+        assertFalse(page.hasMore());
+        assertEquals(cursor, page.nextCursor());
+    }
+
+    @Test
+    void getChanges_sinceStartsAtTimestamp() {
+        when(productRepository.findChangedAfter(eq(T0), eq(0L), any(), any())).thenReturn(List.of());
+        when(productTombstoneRepository.findDeletedAfter(eq(T0), eq(0L), any(), any())).thenReturn(List.of());
+
+        productChangeService.getChanges(null, T0, 50);
+
+        verify(productRepository).findChangedAfter(eq(T0), eq(0L), any(), eq(Limit.of(51)));
+    }
+
+    @Test
+    void getChanges_stopsSettleTimeBeforeNow() {
+        when(productRepository.findChangedAfter(any(), anyLong(), any(), any())).thenReturn(List.of());
+        when(productTombstoneRepository.findDeletedAfter(any(), anyLong(), any(), any())).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        productChangeService.getChanges(null, null, 50);
+
+        verify(productRepository).findChangedAfter(any(), anyLong(),
+                argThat(upTo -> !upTo.isAfter(LocalDateTime.now().minusSeconds(2)) && !upTo.isBefore(before.minusSeconds(2))), any());
+    }
+
+    @Test
+    void getChanges_malformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> productChangeService.getChanges("bm9wZQ", null, 50));
+        assertThrows(IllegalArgumentException.class,
+                () -> productChangeService.getChanges(PageCursors.encodeId(5L), null, 50));
+        verifyNoInteractions(productRepository, productTombstoneRepository);
+    }
+
+    private static Product product(Long id, LocalDateTime updatedAt) {
+        Product product = new Product("Product " + id, "", BigDecimal.ONE, 1, "SKU-" + id, true, null);
+        product.setId(id);
+        product.setUpdatedAt(updatedAt);
+        return product;
+    }
+}
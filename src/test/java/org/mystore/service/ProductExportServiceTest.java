@@ -0,0 +1,88 @@
+package org.mystore.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.json.ProductJsonWriters;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.mystore.repository.ProductRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductExportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ProductExportService productExportService;
+
+    private Product product1;
+    private Product product2;
+
+    @BeforeEach
+    void setUp() {
+        productExportService = new ProductExportService(productRepository, entityManager, new ProductJsonWriters(1));
+        ProductCategory category1 = new ProductCategory("Electronics", "Electronic devices");
+        category1.setId(1L);
+        Subcategory subcategory1 = new Subcategory("Smartphones", "Mobile phones", category1);
+        subcategory1.setId(10L);
+        product1 = new Product("iPhone 15", "Latest iPhone", new BigDecimal("999.00"), 100, "IPH15-128", true, subcategory1);
+        product1.setId(100L);
+        product2 = new Product("Samsung Galaxy S23", "New Samsung phone", new BigDecimal("899.00"), 150, "SGS23-256", true, subcategory1);
+        product2.setId(101L);
+    }
+
+    @Test
+    void exportProducts_writesOneJsonObjectPerLine() throws Exception {
+        when(productRepository.streamAllForExport()).thenReturn(Stream.of(product1, product2));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = productExportService.exportProducts(out);
+
+        assertEquals(2, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(100L, first.get("id").asLong());
+        assertEquals("Smartphones", first.get("subcategory").get("name").asText());
+        assertEquals(101L, objectMapper.readTree(lines[1]).get("id").asLong());
+    }
+
+    @Test
+    void exportProducts_detachesEveryWrittenProduct() throws Exception {
+        when(productRepository.streamAllForExport()).thenReturn(Stream.of(product1, product2));
+
+        productExportService.exportProducts(new ByteArrayOutputStream());
+
+        verify(entityManager, times(1)).detach(product1);
+        verify(entityManager, times(1)).detach(product2);
+    }
+
+    @Test
+    void exportProducts_emptyCatalog() throws Exception {
+        when(productRepository.streamAllForExport()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, productExportService.exportProducts(out));
+        assertEquals(0, out.size());
+    }
+}
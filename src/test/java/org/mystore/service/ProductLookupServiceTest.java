@@ -0,0 +1,86 @@
+package org.mystore.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.ProductBatch;
+import org.mystore.dto.ProductSummary;
+import org.mystore.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductLookupServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductLookupService productLookupService;
+
+    @BeforeEach
+    void setUp() {
+        productLookupService = new ProductLookupService(productRepository, 3, 10);
+    }
+
+    @Test
+    void getProductsByIds_keepsRequestOrderAndReportsMissing() {
+        when(productRepository.findSummariesByIdIn(List.of(7L, 2L, 9L)))
+                .thenReturn(List.of(summary(2L), summary(7L)));
+
+        ProductBatch<Long> batch = productLookupService.getProductsByIds(List.of(7L, 2L, 9L));
+
+        assertEquals(List.of(7L, 2L), batch.products().stream().map(ProductSummary::id).toList());
+        assertEquals(List.of(9L), batch.missing());
+    }
+
+    @Test
+    void getProductsByIds_queriesEachIdOnceInChunks() {
+        List<Collection<Long>> queried = new ArrayList<>();
+        when(productRepository.findSummariesByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            queried.add(List.copyOf(ids));
+            return ids.stream().map(ProductLookupServiceTest::summary).toList();
+        });
+
+        ProductBatch<Long> batch = productLookupService.getProductsByIds(List.of(1L, 2L, 1L, 3L, 4L, 5L, 2L));
+
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L, 5L)), queried);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), batch.products().stream().map(ProductSummary::id).toList());
+        assertTrue(batch.missing().isEmpty());
+    }
+
+    @Test
+    void getProductsBySkus_matchesBySku() {
+        when(productRepository.findSummariesBySkuIn(List.of("SKU-3", "SKU-1", "NOPE")))
+                .thenReturn(List.of(summary(1L), summary(3L)));
+
+        ProductBatch<String> batch = productLookupService.getProductsBySkus(List.of("SKU-3", "SKU-1", "NOPE"));
+
+        assertEquals(List.of("SKU-3", "SKU-1"), batch.products().stream().map(ProductSummary::sku).toList());
+        assertEquals(List.of("NOPE"), batch.missing());
+    }
+
+    @Test
+    void getProductsByIds_rejectsEmptyNullOrTooManyKeys() {
+        assertThrows(IllegalArgumentException.class, () -> productLookupService.getProductsByIds(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> productLookupService.getProductsByIds(Arrays.asList(1L, null)));
+        List<Long> tooMany = LongStream.rangeClosed(1, 11).boxed().toList();
+        assertThrows(IllegalArgumentException.class, () -> productLookupService.getProductsByIds(tooMany));
+        verifyNoInteractions(productRepository);
+    }
+
+    private static ProductSummary summary(long id) {
+        return new ProductSummary(id, 0L, "Product " + id, "SKU-" + id, new BigDecimal("9.99"), 5, true, 1L, "Sub");
+    }
+}
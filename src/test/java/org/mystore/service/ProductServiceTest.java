@@ -1,19 +1,46 @@
 package org.mystore.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.CursorPage;
+import org.mystore.dto.ProductSearchCriteria;
+import org.mystore.dto.ProductChange;
+import org.mystore.dto.ProductSearchHit;
+import org.mystore.dto.ProductSnapshot;
+import org.mystore.dto.ProductSummary;
+import org.mystore.dto.StockUpdateResult;
+import org.mystore.event.ProductChangedEvent;
+import org.mystore.event.ProductVersionChangedEvent;
+import org.mystore.model.OutboxEvent.AggregateType;
+import org.mystore.model.OutboxEvent.EventType;
 import org.mystore.model.Product;
 import org.mystore.model.ProductCategory;
 import org.mystore.model.Subcategory;
+import org.mystore.repository.FieldSelection;
+import org.mystore.outbox.OutboxWriter;
 import org.mystore.repository.ProductRepository;
+import org.mystore.repository.ProductTombstoneRepository;
+import org.mystore.repository.SparseFieldRepository;
+import org.mystore.search.ProductSearchIndex;
+import org.mystore.search.ScoredId;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +55,24 @@ public class ProductServiceTest {
     @Mock
     private SubcategoryService subcategoryService;
 
+    @Mock
+    private SparseFieldRepository sparseFieldRepository;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Spy
+    private SingleFlights singleFlights = new SingleFlights(new SimpleMeterRegistry(), Duration.ofSeconds(2));
+
     @InjectMocks
     private ProductService productService;
 
@@ -56,6 +101,96 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).findAll();
     }
 
+    @Test
+    void getProductPage_firstPageWithMoreResults() {
+        when(productRepository.findSummariesByIdGreaterThan(0L, Limit.of(2))).thenReturn(Arrays.asList(summaryOf(product1), summaryOf(product2)));
+        CursorPage<ProductSummary> page = productService.getProductPage(null, 1);
+        assertEquals(1, page.items().size());
+        assertEquals(100L, page.items().get(0).id());
+        assertEquals(100L, PageCursors.decodeId(page.nextCursor()));
+    }
+
+    @Test
+    void getProductPage_lastPage() {
+        when(productRepository.findSummariesByIdGreaterThan(100L, Limit.of(3))).thenReturn(List.of(summaryOf(product2)));
+        CursorPage<ProductSummary> page = productService.getProductPage(PageCursors.encodeId(100L), 2);
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getProductPage_capsPageSize() {
+        when(productRepository.findSummariesByIdGreaterThan(0L, Limit.of(ProductService.MAX_PAGE_SIZE + 1))).thenReturn(List.of());
+        productService.getProductPage(null, 100_000);
+        verify(productRepository, times(1)).findSummariesByIdGreaterThan(0L, Limit.of(ProductService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void getProductPage_invalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductPage("not a cursor!", 10));
+        verify(productRepository, never()).findSummariesByIdGreaterThan(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void getProductPage_withFields_queriesOnlySelectedColumns() {
+        FieldSelection expected = FieldSelection.parse(Product.class, ProductService.SPARSE_FIELDS, "name,sku");
+        when(sparseFieldRepository.findPage(expected, 100L, 2)).thenReturn(List.of(
+                Map.of("id", 101L, "name", "Samsung Galaxy S23", "sku", "SGS23-256"),
+                Map.of("id", 102L, "name", "Pixel 8", "sku", "PX8-128")));
+        CursorPage<Map<String, Object>> page = productService.getProductPage(PageCursors.encodeId(100L), 1, "name,sku");
+        assertEquals(1, page.items().size());
+        assertEquals(101L, PageCursors.decodeId(page.nextCursor()));
+    }
+
+    @Test
+    void getProductPage_withUnknownField() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductPage(null, 10, "name,secret"));
+        verifyNoInteractions(sparseFieldRepository);
+    }
+
+    @Test
+    void getProductFields_existingId() {
+        FieldSelection expected = FieldSelection.parse(Product.class, ProductService.SPARSE_FIELDS, "unitPrice");
+        when(sparseFieldRepository.findById(expected, 100L)).thenReturn(Optional.of(Map.of("id", 100L, "unitPrice", new BigDecimal("999.00"))));
+        Optional<Map<String, Object>> product = productService.getProductFields(100L, "unitPrice");
+        assertTrue(product.isPresent());
+        assertEquals(new BigDecimal("999.00"), product.get().get("unitPrice"));
+    }
+
+    @Test
+    void searchProducts_pagesByIdWithLookAheadRow() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(null, "iPhone", null, null, true, null);
+        when(productRepository.searchSummaries(any(), eq(Limit.of(2)))).thenReturn(Arrays.asList(summaryOf(product1), summaryOf(product2)));
+        CursorPage<ProductSummary> page = productService.searchProducts(criteria, null, 1);
+        assertEquals(1, page.items().size());
+        assertEquals(100L, PageCursors.decodeId(page.nextCursor()));
+    }
+
+    @Test
+    void searchProducts_invertedPriceRange() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria(null, null, new BigDecimal("10"), new BigDecimal("5"), null, null);
+        assertThrows(IllegalArgumentException.class, () -> productService.searchProducts(criteria, null, 10));
+        verify(productRepository, never()).searchSummaries(any(), any());
+    }
+
+    @Test
+    void searchProductText_keepsRankOrderAndSkipsDeletedProducts() {
+        when(productSearchIndex.search("iphone", 20))
+                .thenReturn(List.of(new ScoredId(101L, 2.5f), new ScoredId(999L, 1.5f), new ScoredId(100L, 1.0f)));
+        when(productRepository.findSummariesByIdIn(List.of(101L, 999L, 100L)))
+                .thenReturn(List.of(summaryOf(product1), summaryOf(product2)));
+        List<ProductSearchHit> hits = productService.searchProductText("iphone", 20);
+        assertEquals(List.of(101L, 100L), hits.stream().map(hit -> hit.product().id()).toList());
+        assertEquals(2.5f, hits.get(0).score());
+    }
+
+    @Test
+    void searchProductText_noMatchesSkipsRepository() {
+        when(productSearchIndex.search("nothing", 20)).thenReturn(List.of());
+        assertTrue(productService.searchProductText("nothing", 20).isEmpty());
+        verify(productRepository, never()).findSummariesByIdIn(any());
+    }
+
     @Test
     void getProductById_existingId() {
         when(productRepository.findById(100L)).thenReturn(Optional.of(product1));
@@ -74,13 +209,27 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).findById(200L);
     }
 
+    @Test
+    void createProduct_resolvesSubcategoryById() {
+        subcategory1.setVersion(3L);
+        Subcategory reference = new Subcategory();
+        reference.setId(10L);
+        when(subcategoryService.getSubcategoryById(10L)).thenReturn(Optional.of(subcategory1));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Product createdProduct = productService.createProduct(new Product("iPhone 15", "Latest iPhone", new BigDecimal("999.00"), 100, "IPH15-128", true, reference));
+        assertSame(subcategory1, createdProduct.getSubcategory());
+    }
+
     @Test
     void createProduct() {
+        when(subcategoryService.getSubcategoryById(10L)).thenReturn(Optional.of(subcategory1));
         when(productRepository.save(any(Product.class))).thenReturn(product1);
         Product createdProduct = productService.createProduct(new Product("iPhone 15", "Latest iPhone", new BigDecimal("999.00"), 100, "IPH15-128", true, subcategory1));
         assertEquals("iPhone 15", createdProduct.getName());
         assertEquals(subcategory1, createdProduct.getSubcategory());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(productSearchIndex, times(1)).index(product1);
+        verify(outboxWriter, times(1)).append(AggregateType.PRODUCT, 100L, EventType.CREATED, ProductSnapshot.of(product1));
     }
 
     @Test
@@ -90,7 +239,7 @@ public class ProductServiceTest {
         when(subcategoryService.getSubcategoryById(10L)).thenReturn(Optional.of(subcategory1));
         when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
 
-        Optional<Product> result = productService.updateProduct(100L, updatedProduct);
+        Optional<Product> result = productService.updateProduct(100L, updatedProduct, null);
 
         assertTrue(result.isPresent());
         assertEquals("iPhone 16", result.get().getName());
@@ -98,6 +247,25 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).findById(100L);
         verify(subcategoryService, times(1)).getSubcategoryById(10L);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(productSearchIndex, times(1)).index(updatedProduct);
+    }
+
+    @Test
+    void updateProduct_indexesAfterCommit() {
+        Product updatedProduct = new Product("iPhone 16", "Newer iPhone", new BigDecimal("1099.00"), 90, "IPH16-128", true, subcategory1);
+        when(productRepository.findById(100L)).thenReturn(Optional.of(product1));
+        when(subcategoryService.getSubcategoryById(10L)).thenReturn(Optional.of(subcategory1));
+        when(productRepository.save(any(Product.class))).thenReturn(product1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.updateProduct(100L, updatedProduct, null);
+            verify(productSearchIndex, never()).index(any(Product.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(productSearchIndex, times(1)).index(product1);
     }
 
     @Test
@@ -105,7 +273,7 @@ public class ProductServiceTest {
         Product updatedProduct = new Product("iPhone 16", "Newer iPhone", new BigDecimal("1099.00"), 90, "IPH16-128", true, subcategory1);
         when(productRepository.findById(200L)).thenReturn(Optional.empty());
 
-        Optional<Product> result = productService.updateProduct(200L, updatedProduct);
+        Optional<Product> result = productService.updateProduct(200L, updatedProduct, null);
 
         assertFalse(result.isPresent());
         verify(productRepository, times(1)).findById(200L);
@@ -114,25 +282,147 @@ public class ProductServiceTest {
     }
 
     @Test
-    void deleteProduct_existingId() {
+    void updateProduct_matchingVersion() {
+        product1.setVersion(3L);
+        Product updatedProduct = new Product("iPhone 16", "Newer iPhone", new BigDecimal("1099.00"), 90, "IPH16-128", true, null);
+        when(productRepository.findById(100L)).thenReturn(Optional.of(product1));
+        when(productRepository.save(product1)).thenReturn(product1);
+
+        Optional<Product> result = productService.updateProduct(100L, updatedProduct, 3L);
+
+        assertTrue(result.isPresent());
+        assertEquals("iPhone 16", result.get().getName());
+    }
+
+    @Test
+    void updateProduct_staleVersion() {
+        product1.setVersion(4L);
+        Product updatedProduct = new Product("iPhone 16", "Newer iPhone", new BigDecimal("1099.00"), 90, "IPH16-128", true, null);
+        when(productRepository.findById(100L)).thenReturn(Optional.of(product1));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> productService.updateProduct(100L, updatedProduct, 3L));
+        assertEquals("iPhone 15", product1.getName());
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void deleteProduct_staleVersion() {
+        product1.setVersion(4L);
+        when(productRepository.findById(100L)).thenReturn(Optional.of(product1));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> productService.deleteProduct(100L, 3L));
+        verify(productRepository, never()).delete(any(Product.class));
+    }
+
+    @Test
+    void reserveStock_enoughStock() {
+        when(productRepository.reserveStock(eq(100L), eq(5), any(LocalDateTime.class))).thenReturn(1);
+        assertEquals(StockUpdateResult.APPLIED, productService.reserveStock(100L, 5));
+        verify(productRepository, never()).findById(anyLong());
+        verify(productRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void reserveStock_publishesNewStockLevel() {
+        ProductChangedEvent event = new ProductChangedEvent(100L, 2L, new BigDecimal("999.00"), 95, true, LocalDateTime.now());
+        when(productRepository.reserveStock(eq(100L), eq(5), any(LocalDateTime.class))).thenReturn(1);
+        when(productRepository.findChangedEventById(100L)).thenReturn(Optional.of(event));
+        productService.reserveStock(100L, 5);
+        verify(eventPublisher, times(1)).publishEvent(event);
+        verify(outboxWriter, times(1)).append(AggregateType.PRODUCT, 100L, EventType.STOCK_CHANGED, event);
+    }
+
+    @Test
+    void updateProduct_publishesOnlyPriceStockOrActiveChanges() {
+        when(productRepository.findById(100L)).thenReturn(Optional.of(product1));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Product renamed = new Product("iPhone 15 (2023)", "Latest iPhone", new BigDecimal("999.00"), 100, "IPH15-128", true, null);
+        productService.updateProduct(100L, renamed, null);
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductVersionChangedEvent.class));
+
+        Product repriced = new Product("iPhone 15 (2023)", "Latest iPhone", new BigDecimal("949.00"), 100, "IPH15-128", true, null);
+        productService.updateProduct(100L, repriced, null);
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof ProductChangedEvent changed && changed.unitPrice().compareTo(new BigDecimal("949.00")) == 0));
+    }
+
+    @Test
+    void reserveStock_insufficientStock() {
+        when(productRepository.reserveStock(eq(100L), eq(500), any(LocalDateTime.class))).thenReturn(0);
         when(productRepository.existsById(100L)).thenReturn(true);
-        doNothing().when(productRepository).deleteById(100L);
+        assertEquals(StockUpdateResult.INSUFFICIENT_STOCK, productService.reserveStock(100L, 500));
+        verifyNoInteractions(eventPublisher, outboxWriter);
+    }
 
-        boolean result = productService.deleteProduct(100L);
+    @Test
+    void reserveStock_nonExistingId() {
+        when(productRepository.reserveStock(eq(200L), eq(1), any(LocalDateTime.class))).thenReturn(0);
+        when(productRepository.existsById(200L)).thenReturn(false);
+        assertEquals(StockUpdateResult.NOT_FOUND, productService.reserveStock(200L, 1));
+    }
+
+    @Test
+    void reserveStock_nonPositiveQuantity() {
+        assertThrows(IllegalArgumentException.class, () -> productService.reserveStock(100L, 0));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void releaseStock_existingAndNonExistingId() {
+        when(productRepository.releaseStock(eq(100L), eq(3), any(LocalDateTime.class))).thenReturn(1);
+        when(productRepository.releaseStock(eq(200L), eq(3), any(LocalDateTime.class))).thenReturn(0);
+        when(productRepository.existsById(200L)).thenReturn(false);
+        assertEquals(StockUpdateResult.APPLIED, productService.releaseStock(100L, 3));
+        assertEquals(StockUpdateResult.NOT_FOUND, productService.releaseStock(200L, 3));
+    }
+
+    @Test
+    void deleteProduct_existingId() {
+        when(productRepository.findById(100L)).thenReturn(Optional.of(product1));
+
+        boolean result = productService.deleteProduct(100L, null);
 
         assertTrue(result);
-        verify(productRepository, times(1)).existsById(100L);
-        verify(productRepository, times(1)).deleteById(100L);
+        verify(productRepository, times(1)).findById(100L);
+        verify(productRepository, times(1)).delete(product1);
+        verify(productSearchIndex, times(1)).remove(100L);
+        verify(outboxWriter, times(1)).append(eq(AggregateType.PRODUCT), eq(100L), eq(EventType.DELETED),
+                argThat((Object payload) -> payload instanceof ProductChange change && "IPH15-128".equals(change.sku())));
+        verify(productTombstoneRepository, times(1)).save(argThat(tombstone ->
+                tombstone.getProductId() == 100L && "IPH15-128".equals(tombstone.getSku()) && tombstone.getDeletedAt() != null));
+    }
+
+    @Test
+    void deleteProduct_removesFromSearchIndexAfterCommit() {
+        when(productRepository.findById(100L)).thenReturn(Optional.of(product1));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.deleteProduct(100L, null);
+            verify(productSearchIndex, never()).remove(anyLong());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(productSearchIndex, times(1)).remove(100L);
     }
 
     @Test
     void deleteProduct_nonExistingId() {
-        when(productRepository.existsById(200L)).thenReturn(false);
+        when(productRepository.findById(200L)).thenReturn(Optional.empty());
 
-        boolean result = productService.deleteProduct(200L);
+        boolean result = productService.deleteProduct(200L, null);
 
         assertFalse(result);
-        verify(productRepository, times(1)).existsById(200L);
-        verify(productRepository, never()).deleteById(anyLong());
+        verify(productRepository, times(1)).findById(200L);
+        verify(productRepository, never()).delete(any(Product.class));
+    }
+
+    private static ProductSummary summaryOf(Product product) {
+        return new ProductSummary(product.getId(), product.getVersion(), product.getName(), product.getSku(),
+                product.getUnitPrice(), product.getStockQuantity(), product.isActive(),
+                product.getSubcategory().getId(), product.getSubcategory().getName());
     }
 }
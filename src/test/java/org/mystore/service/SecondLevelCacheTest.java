@@ -0,0 +1,106 @@
+package org.mystore.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mystore.model.Product;
+import org.mystore.model.ProductCategory;
+import org.mystore.model.Subcategory;
+import org.mystore.repository.ProductCategoryRepository;
+import org.mystore.repository.ProductRepository;
+import org.mystore.repository.SubcategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SubcategoryRepository subcategoryRepository;
+
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Subcategory subcategory;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        ProductCategory category = productCategoryRepository.save(new ProductCategory("Electronics", "Electronic devices"));
+        subcategory = subcategoryRepository.save(new Subcategory("Smartphones", "Mobile phones", category));
+    }
+
+    @Test
+    void repeatedGetProductById_issuesNoSql() {
+        Product product = productRepository.save(new Product("iPhone 15", "Latest iPhone", new BigDecimal("999.00"), 100, "IPH15-" + System.nanoTime(), true, subcategory));
+        productService.getProductById(product.getId());
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            Product loaded = productService.getProductById(product.getId()).orElseThrow();
+            assertEquals("Smartphones", loaded.getSubcategory().getName());
+            assertEquals("Electronics", loaded.getSubcategory().getCategory().getName());
+        }
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 3);
+    }
+
+    @Test
+    void updatedProductIsReadBackFromCacheWithNewValues() {
+        Product product = productRepository.save(new Product("Pixel 8", "Google phone", new BigDecimal("699.00"), 10, "PX8-" + System.nanoTime(), true, subcategory));
+        productService.getProductById(product.getId());
+
+        product.setUnitPrice(new BigDecimal("649.00"));
+        productRepository.save(product);
+        statistics.clear();
+
+        assertEquals(0, new BigDecimal("649.00").compareTo(productService.getProductById(product.getId()).orElseThrow().getUnitPrice()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void stockReservation_evictsOnlyTheReservedProduct() {
+        Product reserved = productRepository.save(new Product("Galaxy S24", "Samsung phone", new BigDecimal("899.00"), 10, "GS24-" + System.nanoTime(), true, subcategory));
+        Product other = productRepository.save(new Product("Galaxy A55", "Samsung phone", new BigDecimal("449.00"), 10, "GA55-" + System.nanoTime(), true, subcategory));
+        productService.getProductById(reserved.getId());
+        productService.getProductById(other.getId());
+
+        productService.reserveStock(reserved.getId(), 3);
+        statistics.clear();
+
+        assertEquals(10, productService.getProductById(other.getId()).orElseThrow().getStockQuantity());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(7, productService.getProductById(reserved.getId()).orElseThrow().getStockQuantity());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void repeatedTaxonomyListings_areServedFromQueryCache() {
+        subcategoryRepository.findAll();
+        productCategoryRepository.findAll();
+        statistics.clear();
+
+        subcategoryRepository.findAll();
+        productCategoryRepository.findAll();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getQueryCacheHitCount());
+    }
+}
@@ -0,0 +1,106 @@
+package org.mystore.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private static final Duration SLOW_LOAD = Duration.ofMillis(300);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void load_concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5), registry);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> leader = startSlowLoad(flight, () -> {
+            loads.incrementAndGet();
+            return "product-1";
+        });
+
+        String follower = flight.load(1L, () -> {
+            loads.incrementAndGet();
+            return "loaded again";
+        });
+
+        assertEquals("product-1", follower);
+        assertEquals("product-1", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(1.0, count("executed"));
+        assertEquals(1.0, count("coalesced"));
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void load_failureReachesWaitingCallers() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5), registry);
+        CompletableFuture<String> leader = startSlowLoad(flight, () -> {
+            throw new IllegalStateException("database down");
+        });
+
+        assertThrows(IllegalStateException.class, () -> flight.load(1L, () -> "loaded again"));
+
+        Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+        assertEquals(0, flight.inFlightCount());
+        assertEquals("next", flight.load(1L, () -> "next"));
+    }
+
+    @Test
+    void load_waiterLoadsItselfAfterTimeout() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofMillis(20), registry);
+        CompletableFuture<String> leader = startSlowLoad(flight, () -> "slow");
+
+        assertEquals("own", flight.load(1L, () -> "own"));
+        assertEquals(1.0, count("timeout"));
+        assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void load_sequentialCallsAreNotCached() {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5), registry);
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.load(1L, () -> "v" + loads.incrementAndGet());
+        assertEquals("v2", flight.load(1L, () -> "v" + loads.incrementAndGet()));
+        assertEquals(2.0, count("executed"));
+        assertEquals(0.0, count("coalesced"));
+    }
+
+    private double count(String result) {
+        return registry.get("storeapp.singleflight.loads").tag("name", "test").tag("result", result).counter().count();
+    }
+
+    /**
+     * Starts loading key 1 on another thread and returns once the load is running. The load
+     * itself takes {@link #SLOW_LOAD} before it calls {@code loader}.
+     */
+    private static CompletableFuture<String> startSlowLoad(SingleFlight<Long, String> flight, Supplier<String> loader)
+            throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CompletableFuture<String> load = CompletableFuture.supplyAsync(() -> flight.load(1L, () -> {
+            loading.countDown();
+            sleep(SLOW_LOAD);
+            return loader.get();
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        return load;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
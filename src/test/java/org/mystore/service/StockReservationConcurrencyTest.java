@@ -0,0 +1,85 @@
+package org.mystore.service;
+
+import org.junit.jupiter.api.Test;
+import org.mystore.dto.StockUpdateResult;
+import org.mystore.model.Product;
+import org.mystore.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class StockReservationConcurrencyTest {
+
+    private static final int INITIAL_STOCK = 25;
+    private static final int THREADS = 16;
+    private static final int RESERVATIONS_PER_THREAD = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void concurrentReservations_neverOversell() throws Exception {
+        Product product = productRepository.save(new Product("Flash sale item", "", new BigDecimal("9.99"), INITIAL_STOCK, "FLASH-" + System.nanoTime(), true, null));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int reserved = 0;
+                    for (int i = 0; i < RESERVATIONS_PER_THREAD; i++) {
+                        if (productService.reserveStock(product.getId(), 1) == StockUpdateResult.APPLIED) {
+                            reserved++;
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            start.countDown();
+            int totalReserved = 0;
+            for (Future<Integer> future : futures) {
+                totalReserved += future.get();
+            }
+
+            assertEquals(INITIAL_STOCK, totalReserved);
+            assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+            assertEquals(StockUpdateResult.INSUFFICIENT_STOCK, productService.reserveStock(product.getId(), 1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void releaseStock_returnsUnitsToStock() {
+        Product product = productRepository.save(new Product("Returned item", "", new BigDecimal("5.00"), 1, "RET-" + System.nanoTime(), true, null));
+
+        assertEquals(StockUpdateResult.APPLIED, productService.reserveStock(product.getId(), 1));
+        assertEquals(StockUpdateResult.APPLIED, productService.releaseStock(product.getId(), 3));
+
+        assertEquals(3, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void releaseStock_rejectsOverflow() {
+        Product product = productRepository.save(new Product("Full shelf", "", new BigDecimal("5.00"), 10, "FULL-" + System.nanoTime(), true, null));
+
+        assertEquals(StockUpdateResult.STOCK_LIMIT_EXCEEDED, productService.releaseStock(product.getId(), Integer.MAX_VALUE));
+        assertEquals(StockUpdateResult.APPLIED, productService.releaseStock(product.getId(), Integer.MAX_VALUE - 10));
+
+        assertEquals(Integer.MAX_VALUE, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+}
@@ -1,15 +1,20 @@
 package org.mystore.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mystore.dto.SubcategorySummary;
 import org.mystore.model.ProductCategory;
 import org.mystore.model.Subcategory;
 import org.mystore.repository.SubcategoryRepository;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +31,12 @@ public class SubcategoryServiceTest {
     @Mock
     private ProductCategoryService productCategoryService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SingleFlights singleFlights = new SingleFlights(new SimpleMeterRegistry(), Duration.ofSeconds(2));
+
     @InjectMocks
     private SubcategoryService subcategoryService;
 
@@ -45,10 +56,12 @@ public class SubcategoryServiceTest {
 
     @Test
     void getAllSubcategories() {
-        when(subcategoryRepository.findAll()).thenReturn(Arrays.asList(subcategory1, subcategory2));
-        List<Subcategory> subcategories = subcategoryService.getAllSubcategories();
+        when(subcategoryRepository.findAllSummaries()).thenReturn(Arrays.asList(
+                new SubcategorySummary(10L, 0L, "Smartphones", "Mobile phones", 1L, 0L, "Electronics"),
+                new SubcategorySummary(11L, 0L, "Laptops", "Portable computers", 1L, 0L, "Electronics")));
+        List<SubcategorySummary> subcategories = subcategoryService.getAllSubcategories();
         assertEquals(2, subcategories.size());
-        verify(subcategoryRepository, times(1)).findAll();
+        verify(subcategoryRepository, times(1)).findAllSummaries();
     }
 
     @Test
@@ -71,6 +84,7 @@ public class SubcategoryServiceTest {
 
     @Test
     void createSubcategory() {
+        when(productCategoryService.getProductCategoryById(1L)).thenReturn(Optional.of(category1));
         when(subcategoryRepository.save(any(Subcategory.class))).thenReturn(subcategory1);
         Subcategory createdSubcategory = subcategoryService.createSubcategory(new Subcategory("Smartphones", "Mobile phones", category1));
         assertEquals("Smartphones", createdSubcategory.getName());
@@ -85,7 +99,7 @@ public class SubcategoryServiceTest {
         when(productCategoryService.getProductCategoryById(1L)).thenReturn(Optional.of(category1));
         when(subcategoryRepository.save(any(Subcategory.class))).thenReturn(updatedSubcategory);
 
-        Optional<Subcategory> result = subcategoryService.updateSubcategory(10L, updatedSubcategory);
+        Optional<Subcategory> result = subcategoryService.updateSubcategory(10L, updatedSubcategory, null);
 
         assertTrue(result.isPresent());
         assertEquals("Updated Phones", result.get().getName());
@@ -100,7 +114,7 @@ public class SubcategoryServiceTest {
         Subcategory updatedSubcategory = new Subcategory("Updated Phones", "New description", category1);
         when(subcategoryRepository.findById(100L)).thenReturn(Optional.empty());
 
-        Optional<Subcategory> result = subcategoryService.updateSubcategory(100L, updatedSubcategory);
+        Optional<Subcategory> result = subcategoryService.updateSubcategory(100L, updatedSubcategory, null);
 
         assertFalse(result.isPresent());
         verify(subcategoryRepository, times(1)).findById(100L);
@@ -109,24 +123,23 @@ public class SubcategoryServiceTest {
 
     @Test
     void deleteSubcategory_existingId() {
-        when(subcategoryRepository.existsById(10L)).thenReturn(true);
-        doNothing().when(subcategoryRepository).deleteById(10L);
+        when(subcategoryRepository.findById(10L)).thenReturn(Optional.of(subcategory1));
 
-        boolean result = subcategoryService.deleteSubcategory(10L);
+        boolean result = subcategoryService.deleteSubcategory(10L, null);
 
         assertTrue(result);
-        verify(subcategoryRepository, times(1)).existsById(10L);
-        verify(subcategoryRepository, times(1)).deleteById(10L);
+        verify(subcategoryRepository, times(1)).findById(10L);
+        verify(subcategoryRepository, times(1)).delete(subcategory1);
     }
 
     @Test
     void deleteSubcategory_nonExistingId() {
-        when(subcategoryRepository.existsById(100L)).thenReturn(false);
+        when(subcategoryRepository.findById(100L)).thenReturn(Optional.empty());
 
-        boolean result = subcategoryService.deleteSubcategory(100L);
+        boolean result = subcategoryService.deleteSubcategory(100L, null);
 
         assertFalse(result);
-        verify(subcategoryRepository, times(1)).existsById(100L);
-        verify(subcategoryRepository, never()).deleteById(anyLong());
+        verify(subcategoryRepository, times(1)).findById(100L);
+        verify(subcategoryRepository, never()).delete(any(Subcategory.class));
     }
 }